@@ -21,6 +21,11 @@ public class AIController {
     private static final Pattern TECH_P = Pattern.compile("^T$", Pattern.CASE_INSENSITIVE);
     private static final Pattern FA_P   = Pattern.compile("^FA\\s+(\\w+)", Pattern.CASE_INSENSITIVE);
 
+    private static final int MAX_ODDS_LINES = 30;
+
+    // Why the order from the last applied line was refused, or null if it was accepted
+    private String lastRejection;
+
     public AIController(Game game, AIPlayer ai) {
         this.game = game;
         this.ai   = ai;
@@ -36,7 +41,7 @@ public class AIController {
             int put = per + (extra-- > 0 ? 1 : 0);
             t.addUnits(ai.getId(), 0, put);
         }
-        game.broadcast("DeepSeekBot has completed the initial placement.");
+        game.publish(new GameEvent.AiPlaced(ai.getId()));
     }
 
     /* -------- Generate Turn Orders and Broadcast -------- */
@@ -54,12 +59,14 @@ public class AIController {
             // Check for end-of-commands marker 'D'
             boolean hasDoneMarker = lines.stream().anyMatch(ln -> ln.equalsIgnoreCase("D"));
             if (!hasDoneMarker) {
-                game.broadcast("DeepSeekBot did not output 'D' at the end of commands, regenerating commands (attempt " + attempt + ")...");
+                game.publish(new GameEvent.AiRetried(ai.getId(), attempt));
                 continue;
             }
 
             // Parse and apply commands
             List<String> accepted = new ArrayList<>();
+            List<String> rejected = new ArrayList<>();
+            List<String> reasons = new ArrayList<>();
             for (String ln : lines) {
                 String t = ln.trim();
                 if (t.equalsIgnoreCase("D")) {
@@ -67,38 +74,51 @@ public class AIController {
                     break;
                 }
                 if (applyLine(t)) {
-                    accepted.add(t);
+                    if (lastRejection == null) {
+                        accepted.add(t);
+                    } else {
+                        rejected.add(t);
+                        reasons.add(lastRejection);
+                    }
                 }
             }
 
+            if (!rejected.isEmpty()) {
+                game.publish(new GameEvent.AiRejected(ai.getId(), rejected, reasons));
+            }
+
             // Broadcast accepted commands
             if (!accepted.isEmpty()) {
-                StringBuilder msg = new StringBuilder("[DeepSeekBot Orders]\n");
-                accepted.forEach(l -> msg.append("  ").append(l).append("\n"));
-                game.broadcast(msg.toString());
+                game.publish(new GameEvent.AiOrdered(ai.getId(), accepted));
             } else {
-                game.broadcast("DeepSeekBot did not generate any executable commands this turn; only 'D' was output.");
+                game.publish(new GameEvent.AiIdle(ai.getId()));
             }
             return;
         }
 
         // Skip turn if retries exhausted
-        game.broadcast("DeepSeekBot failed to output 'D' correctly after multiple attempts; skipping orders for this turn.");
+        game.publish(new GameEvent.AiSkipped(ai.getId()));
     }
 
     /* -------- Prompt Generation -------- */
     private String buildPrompt() {
         StringBuilder sb = new StringBuilder();
+        // 整个提示只读同一份已发布的快照，地图、状态与胜率彼此一致，也不触碰正在执行的对局
+        GameSnapshot snap = game.getSnapshot();
+        GameSnapshot.PlayerState me = snap.getPlayers().get(ai.getId());
         // 基本指令说明
         sb.append("你是 DeepSeekBot，需要在战棋游戏 RISC 中扮演高水平电脑玩家，输出若干合法指令：\n");
         // 当前地图状态
-        sb.append(game.getMapState()).append("\n");
+        sb.append(snap.getMapState()).append("\n");
         // AI 自身状态
         sb.append("===My Status===\n")
-                .append("Food=").append(ai.getFood())
-                .append(" Tech=").append(ai.getTech())
-                .append(" MaxTechLevel=").append(ai.getMaxTechLevel())
-                .append(" Allies=").append(ai.getAllies()).append("\n\n");
+                .append("Food=").append(me.getFood())
+                .append(" Tech=").append(me.getTech())
+                .append(" MaxTechLevel=").append(me.getMaxTechLevel())
+                .append(" Allies=").append(me.getAllies()).append("\n\n");
+        appendAttackOdds(sb, snap, me);
+        // 本房间的规则表（与下文数字不同时以此为准）
+        sb.append("===Room Rules===\n").append(snap.getRules().toText()).append("\n");
 
         // 游戏规则讲解
         sb.append("## 一、游戏核心要素\n")
@@ -163,6 +183,37 @@ public class AIController {
         return sb.toString();
     }
 
+    /**
+     * Lists the odds of committing each whole unit group against each adjacent enemy territory,
+     * from the same snapshot as the map above it.
+     */
+    private void appendAttackOdds(StringBuilder sb, GameSnapshot snap, GameSnapshot.PlayerState me) {
+        CombatOdds odds = game.getCombatOdds();
+        List<GameSnapshot.TerritoryState> all = snap.getTerritories();
+        sb.append("===Attack Odds===\n");
+        int lines = 0;
+        for (int i = 0; i < me.getTerritoryCount(); i++) {
+            GameSnapshot.TerritoryState src = all.get(me.getTerritoryId(i));
+            Map<Integer, Integer> mine = src.getUnits(me.getId());
+            for (int k = 0; k < src.getNeighborCount(); k++) {
+                GameSnapshot.TerritoryState dst = all.get(src.getNeighborId(k));
+                int owner = dst.getOwnerID();
+                if (owner < 0 || owner == me.getId()) continue;
+                for (Map.Entry<Integer, Integer> e : mine.entrySet()) {
+                    if (lines++ >= MAX_ODDS_LINES) {
+                        sb.append("...\n\n");
+                        return;
+                    }
+                    CombatOdds.Odds o = odds.attack(e.getKey(), e.getValue(), dst.getUnits(owner));
+                    sb.append("A ").append(src.getName()).append(' ').append(dst.getName())
+                            .append(' ').append(e.getKey()).append(' ').append(e.getValue())
+                            .append(" -> ").append(o).append("\n");
+                }
+            }
+        }
+        sb.append("\n");
+    }
+
     /* -------- Parse DeepSeek JSON; for demonstration only perform string splitting -------- */
     private List<String> parseContent(String json) {
         int idx = json.indexOf("\"content\"");
@@ -179,39 +230,47 @@ public class AIController {
                 .toList();
     }
 
-    /* -------- Convert a single line of text into an Order and inject into Game -------- */
+    /* -------- Convert a single line of text into an Order and submit it to Game -------- */
+    /**
+     * Returns false if the line is not a command. A recognized order is submitted against the
+     * AI's budget for the turn; if it is refused the reason is left in lastRejection.
+     */
     private boolean applyLine(String ln) {
+        Order order = parseLine(ln);
+        if (order == null) {
+            return false; // Unrecognized command
+        }
+        lastRejection = game.submitOrder(order);
+        return true;
+    }
+
+    private Order parseLine(String ln) {
         Matcher m;
         if ((m = MOVE_P.matcher(ln)).matches()) {
-            game.addOrder(new MoveOrder(ai.getId(),
+            return new MoveOrder(ai.getId(),
                     m.group(1), m.group(2),
                     Integer.parseInt(m.group(3)),
-                    Integer.parseInt(m.group(4))));
-            return true;
+                    Integer.parseInt(m.group(4)));
         }
         if ((m = ATT_P.matcher(ln)).matches()) {
-            game.addOrder(new AttackOrder(ai.getId(),
+            return new AttackOrder(ai.getId(),
                     m.group(1), m.group(2),
                     Integer.parseInt(m.group(3)),
-                    Integer.parseInt(m.group(4))));
-            return true;
+                    Integer.parseInt(m.group(4)));
         }
         if ((m = UPG_P.matcher(ln)).matches()) {
-            game.addOrder(new UpgradeUnitOrder(ai.getId(),
+            return new UpgradeUnitOrder(ai.getId(),
                     m.group(1),
                     Integer.parseInt(m.group(2)),
                     Integer.parseInt(m.group(3)),
-                    Integer.parseInt(m.group(4))));
-            return true;
+                    Integer.parseInt(m.group(4)));
         }
         if (TECH_P.matcher(ln).matches()) {
-            game.addOrder(new TechUpgradeOrder(ai.getId()));
-            return true;
+            return new TechUpgradeOrder(ai.getId());
         }
         if ((m = FA_P.matcher(ln)).matches()) {
-            game.addOrder(new AllianceOrder(ai.getId(), m.group(1)));
-            return true;
+            return new AllianceOrder(ai.getId(), m.group(1));
         }
-        return false; // Unrecognized command
+        return null;
     }
 }
@@ -0,0 +1,70 @@
+package risc;
+
+import java.util.Arrays;
+
+/**
+ * Symmetric player-by-player alliance relation of one game, stored as one row of 64-bit words
+ * per player. Lookups are a shift and a mask, and rows can be combined word by word with
+ * territory bitsets. Grows on demand as higher player ids appear.
+ */
+public class AllianceMatrix {
+    private long[][] rows = new long[0][];
+    private int version;
+
+    public boolean isAllied(int a, int b) {
+        if (a < 0 || b < 0 || a >= rows.length || b >= rows.length) return false;
+        return (rows[a][b >>> 6] & (1L << b)) != 0;
+    }
+
+    /**
+     * Makes a and b allies (both directions); returns false if they already were.
+     */
+    public boolean ally(int a, int b) {
+        if (a == b || isAllied(a, b)) return false;
+        ensure(Math.max(a, b) + 1);
+        rows[a][b >>> 6] |= 1L << b;
+        rows[b][a >>> 6] |= 1L << a;
+        version++;
+        return true;
+    }
+
+    /**
+     * Dissolves the alliance between a and b; returns false if there was none.
+     */
+    public boolean breakAlliance(int a, int b) {
+        if (!isAllied(a, b)) return false;
+        rows[a][b >>> 6] &= ~(1L << b);
+        rows[b][a >>> 6] &= ~(1L << a);
+        version++;
+        return true;
+    }
+
+    /**
+     * Bits of a's allies; index by player id. Read-only.
+     */
+    long[] row(int a) {
+        return a < rows.length ? rows[a] : new long[0];
+    }
+
+    int size() {
+        return rows.length;
+    }
+
+    /**
+     * Bumped whenever an alliance is formed or broken.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void ensure(int players) {
+        if (players <= rows.length) return;
+        int n = Math.max(players, rows.length * 2);
+        int words = (n + 63) >>> 6;
+        long[][] grown = new long[n][];
+        for (int i = 0; i < n; i++) {
+            grown[i] = i < rows.length ? Arrays.copyOf(rows[i], words) : new long[words];
+        }
+        rows = grown;
+    }
+}
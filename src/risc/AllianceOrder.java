@@ -7,6 +7,7 @@ package risc;
  */
 public class AllianceOrder extends Order {
     private final String targetPlayerName;
+    private int targetPlayerID = -1;
 
     /**
      * @param playerID         the ID of the player initiating the alliance
@@ -20,4 +21,15 @@ public class AllianceOrder extends Order {
     public String getTargetPlayerName() {
         return targetPlayerName;
     }
+
+    /**
+     * ID of the target player, resolved from the name when the order is submitted; -1 if unknown.
+     */
+    public int getTargetPlayerID() {
+        return targetPlayerID;
+    }
+
+    void setTargetPlayerID(int targetPlayerID) {
+        this.targetPlayerID = targetPlayerID;
+    }
 }
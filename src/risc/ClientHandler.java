@@ -43,19 +43,32 @@ public class ClientHandler extends Thread {
         }
     }
 
-    public void sendMessage(String msg) {
+    public synchronized void sendMessage(String msg) {
         if (out != null) {
             out.println(msg);
         }
     }
 
+    /**
+     * Streams a map-state broadcast straight into this connection's buffer.
+     */
+    public synchronized void sendMapState(String header, GameSnapshot snapshot) {
+        if (out != null) {
+            try {
+                MapStateWriter.write(header, snapshot, out);
+            } catch (IOException e) {
+                // PrintWriter does not throw; errors surface through checkError()
+            }
+        }
+    }
+
     /**
      * Collects the player's commands for the current turn.
      */
     public void collectOrders(Game game) {
         try {
             while (true) {
-                out.println("Enter an order (M/A/U/T/D/C/FA): ");
+                out.println("Enter an order (M/A/U/T/B/D/C/FA): ");
                 String line = in.readLine();
                 if (line == null) {
                     break; // Client disconnected
@@ -83,6 +96,9 @@ public class ClientHandler extends Thread {
                 } else if (line.startsWith("T")) {
                     processTechUpgradeOrder(game);
 
+                } else if (line.startsWith("B")) {
+                    out.println("Remaining this turn: " + game.getBudget(playerID));
+
                 } else if (line.startsWith("D")) {
                     out.println("All orders done for this turn.");
                     break;
@@ -96,15 +112,19 @@ public class ClientHandler extends Thread {
                     String chatMsg = in.readLine();
                     if (chatMsg != null && !chatMsg.trim().isEmpty()) {
                         String fullMsg = "[Player " + (playerID+1) + " - " + account.getUsername() + "]: " + chatMsg;
-                        server.broadcastMessage(fullMsg);
+                        game.broadcast(fullMsg);
                     }
 
                 } else if (line.startsWith("FA")) {
                     out.println("Enter target player's username to form alliance:");
                     String targetName = in.readLine();
                     if (targetName != null && !targetName.trim().isEmpty()) {
-                        game.addOrder(new AllianceOrder(playerID, targetName.trim()));
-                        sendMessage("Alliance request sent to: " + targetName);
+                        String reason = game.submitOrder(new AllianceOrder(playerID, targetName.trim()));
+                        if (reason == null) {
+                            sendMessage("Alliance request sent to: " + targetName);
+                        } else {
+                            sendMessage("Alliance request rejected: " + reason);
+                        }
                     }
 
                 } else {
@@ -126,9 +146,13 @@ public class ClientHandler extends Thread {
                 int level = Integer.parseInt(parts[2]);
                 int units = Integer.parseInt(parts[3]);
 
-                game.addOrder(new MoveOrder(playerID, src, dest, level, units));
-                sendMessage("Move order added: L" + level + " x" + units +
-                        " from " + src + " -> " + dest);
+                String reason = game.submitOrder(new MoveOrder(playerID, src, dest, level, units));
+                if (reason == null) {
+                    sendMessage("Move order added: L" + level + " x" + units +
+                            " from " + src + " -> " + dest);
+                } else {
+                    sendMessage("Move order rejected: " + reason);
+                }
             } catch (NumberFormatException e) {
                 sendMessage("Invalid number format for move order.");
             }
@@ -147,9 +171,13 @@ public class ClientHandler extends Thread {
                 int level = Integer.parseInt(parts[2]);
                 int units = Integer.parseInt(parts[3]);
 
-                game.addOrder(new AttackOrder(playerID, src, target, level, units));
-                sendMessage("Attack order added: L" + level + " x" + units +
-                        " from " + src + " => " + target);
+                String reason = game.submitOrder(new AttackOrder(playerID, src, target, level, units));
+                if (reason == null) {
+                    sendMessage("Attack order added: L" + level + " x" + units +
+                            " from " + src + " => " + target);
+                } else {
+                    sendMessage("Attack order rejected: " + reason);
+                }
             } catch (NumberFormatException e) {
                 sendMessage("Invalid number format for attack order.");
             }
@@ -167,8 +195,9 @@ public class ClientHandler extends Thread {
                 int currentLevel = Integer.parseInt(parts[1]);
                 int targetLevel = Integer.parseInt(parts[2]);
                 int numUnits = Integer.parseInt(parts[3]);
-                game.addOrder(new UpgradeUnitOrder(playerID, territory, currentLevel, targetLevel, numUnits));
-                sendMessage("Upgrade order added.");
+                String reason = game.submitOrder(
+                        new UpgradeUnitOrder(playerID, territory, currentLevel, targetLevel, numUnits));
+                sendMessage(reason == null ? "Upgrade order added." : "Upgrade order rejected: " + reason);
             } catch (NumberFormatException e) {
                 sendMessage("Invalid number format for upgrade order.");
             }
@@ -179,8 +208,8 @@ public class ClientHandler extends Thread {
 
     private void processTechUpgradeOrder(Game game) {
         // T => TechUpgrade
-        game.addOrder(new TechUpgradeOrder(playerID));
-        sendMessage("Tech upgrade order added.");
+        String reason = game.submitOrder(new TechUpgradeOrder(playerID));
+        sendMessage(reason == null ? "Tech upgrade order added." : "Tech upgrade order rejected: " + reason);
     }
 
     public void collectInitialPlacement(Game game) {
@@ -0,0 +1,221 @@
+package risc;
+
+import java.util.Map;
+import java.util.random.RandomGenerator;
+
+/**
+ * Array-based D20 combat resolver used by OrderExecutor.
+ * Each side is kept as a level-indexed count array with cached lowest/highest level
+ * pointers, so a round never scans or allocates. Dice are drawn in bulk: one 64-bit
+ * draw from the battle's generator yields up to 14 unbiased D20 rolls.
+ * An engine instance is reusable but not thread-safe.
+ */
+public class CombatEngine {
+    public static final int LEVELS = 7;
+
+    /**
+     * PER_ROLL rolls every duel. AGGREGATE samples whole blocks of rounds at once: while no
+     * unit class can run out, every duel of a block pits the same pair of classes against
+     * each other, so the losses of each pairing are exactly Binomial(rounds, p).
+     */
+    public enum Mode { PER_ROLL, AGGREGATE }
+
+    // 20^14 fits in 63 bits; drawing below a multiple of it keeps every digit uniform
+    private static final long DICE_PER_DRAW = 14;
+    private static final long DICE_SPACE = 1_638_400_000_000_000_000L;   // 20^14
+    private static final long DRAW_LIMIT = DICE_SPACE * 5;                // largest multiple below 2^63
+
+    private final int[] bonus;
+    // duelWin[a][d]: chance that an attacker of level a beats a defender of level d in one duel
+    private final double[][] duelWin = new double[LEVELS][LEVELS];
+    private Mode mode = Mode.PER_ROLL;
+    private final int[] att = new int[LEVELS];
+    private final int[] def = new int[LEVELS];
+    private int attTotal, defTotal;
+    private int attMin, attMax, defMin, defMax;
+
+    private RandomGenerator rng;
+    private long dicePool;
+    private long diceLeft;
+
+    public CombatEngine(int[] bonus) {
+        if (bonus.length < LEVELS) {
+            throw new IllegalArgumentException("Bonus table must cover " + LEVELS + " levels");
+        }
+        this.bonus = bonus.clone();
+        for (int a = 0; a < LEVELS; a++) {
+            for (int d = 0; d < LEVELS; d++) {
+                duelWin[a][d] = duelWinProbability(this.bonus[a], this.bonus[d]);
+            }
+        }
+    }
+
+    /**
+     * Probability that D20 + attBonus is strictly greater than D20 + defBonus.
+     */
+    public static double duelWinProbability(int attBonus, int defBonus) {
+        int wins = 0;
+        for (int a = 1; a <= 20; a++) {
+            for (int d = 1; d <= 20; d++) {
+                if (a + attBonus > d + defBonus) wins++;
+            }
+        }
+        return wins / 400.0;
+    }
+
+    public Mode getMode() { return mode; }
+    public void setMode(Mode mode) { this.mode = mode; }
+
+    /* ---------- Setup ---------- */
+
+    /**
+     * Clears both sides and binds the generator used for this battle.
+     */
+    public void reset(RandomGenerator rng) {
+        for (int l = 0; l < LEVELS; l++) {
+            att[l] = 0;
+            def[l] = 0;
+        }
+        attTotal = 0;
+        defTotal = 0;
+        this.rng = rng;
+        this.diceLeft = 0;
+    }
+
+    public void addAttackers(int level, int count) {
+        if (count <= 0) return;
+        att[level] += count;
+        attTotal += count;
+    }
+
+    public void addDefenders(int level, int count) {
+        if (count <= 0) return;
+        def[level] += count;
+        defTotal += count;
+    }
+
+    /**
+     * Loads a garrison in the (level -> count) shape used by Territory.
+     */
+    public void addDefenders(Map<Integer, Integer> levelMap) {
+        for (Map.Entry<Integer, Integer> e : levelMap.entrySet()) {
+            addDefenders(e.getKey(), e.getValue());
+        }
+    }
+
+    /* ---------- Resolution ---------- */
+
+    /**
+     * Fights until one side is empty, using the same duel order as the original loop:
+     * attacker's highest vs defender's lowest, then attacker's lowest vs defender's highest.
+     * Ties go to the defender.
+     * @return true if the attacker wiped out the defenders
+     */
+    public boolean resolve() {
+        if (attTotal == 0 || defTotal == 0) return defTotal == 0;
+        attMin = lowest(att, 0);
+        attMax = highest(att, LEVELS - 1);
+        defMin = lowest(def, 0);
+        defMax = highest(def, LEVELS - 1);
+
+        while (attTotal > 0 && defTotal > 0) {
+            int rounds = mode == Mode.AGGREGATE ? safeRounds() : 0;
+            if (rounds > 0) {
+                fightRounds(rounds);
+            } else {
+                fightRound();
+            }
+        }
+        return defTotal == 0;
+    }
+
+    private void fightRound() {
+        if (roll() + bonus[attMax] > roll() + bonus[defMin]) {
+            killDefender(defMin);
+        } else {
+            killAttacker(attMax);
+        }
+        if (attTotal == 0 || defTotal == 0) return;
+
+        if (roll() + bonus[attMin] > roll() + bonus[defMax]) {
+            killDefender(defMax);
+        } else {
+            killAttacker(attMin);
+        }
+    }
+
+    /**
+     * Number of whole rounds during which no class can be emptied, so the pairings stay fixed.
+     * A class that fights in both duels of a round can lose two units per round.
+     */
+    private int safeRounds() {
+        int attPerRound = attMin == attMax ? 2 : 1;
+        int defPerRound = defMin == defMax ? 2 : 1;
+        int rounds = Math.min((att[attMax] - 1) / attPerRound, (att[attMin] - 1) / attPerRound);
+        rounds = Math.min(rounds, (def[defMin] - 1) / defPerRound);
+        return Math.min(rounds, (def[defMax] - 1) / defPerRound);
+    }
+
+    private void fightRounds(int rounds) {
+        int lowKilled = RandomSampling.binomial(rng, rounds, duelWin[attMax][defMin]);
+        int highKilled = RandomSampling.binomial(rng, rounds, duelWin[attMin][defMax]);
+        def[defMin] -= lowKilled;
+        def[defMax] -= highKilled;
+        att[attMax] -= rounds - lowKilled;
+        att[attMin] -= rounds - highKilled;
+        defTotal -= lowKilled + highKilled;
+        attTotal -= 2 * rounds - lowKilled - highKilled;
+    }
+
+    private void killAttacker(int level) {
+        attTotal--;
+        if (--att[level] == 0 && attTotal > 0) {
+            attMin = lowest(att, attMin);
+            attMax = highest(att, attMax);
+        }
+    }
+
+    private void killDefender(int level) {
+        defTotal--;
+        if (--def[level] == 0 && defTotal > 0) {
+            defMin = lowest(def, defMin);
+            defMax = highest(def, defMax);
+        }
+    }
+
+    private static int lowest(int[] counts, int from) {
+        int l = from;
+        while (counts[l] == 0) l++;
+        return l;
+    }
+
+    private static int highest(int[] counts, int from) {
+        int l = from;
+        while (counts[l] == 0) l--;
+        return l;
+    }
+
+    /**
+     * Returns an integer in [1..20], refilling the dice pool from the generator when empty.
+     */
+    private int roll() {
+        if (diceLeft == 0) {
+            long draw;
+            do {
+                draw = rng.nextLong() >>> 1;
+            } while (draw >= DRAW_LIMIT);
+            dicePool = draw % DICE_SPACE;
+            diceLeft = DICE_PER_DRAW;
+        }
+        int face = (int) (dicePool % 20);
+        dicePool /= 20;
+        diceLeft--;
+        return face + 1;
+    }
+
+    /* ---------- Results ---------- */
+    public int getAttackerCount(int level) { return att[level]; }
+    public int getDefenderCount(int level) { return def[level]; }
+    public int getAttackerTotal() { return attTotal; }
+    public int getDefenderTotal() { return defTotal; }
+}
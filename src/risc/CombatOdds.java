@@ -0,0 +1,320 @@
+package risc;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Answers "what are the odds of this attack?" for the AI, client previews and balance tools.
+ * Exact values come from dynamic programming over the count states of resolveCombat:
+ * <ul>
+ *   <li>single-level defenders: a table over (attackers, defenders), precomputed per level
+ *       pair for all sizes up to COMMON_MAX, so common queries are an array lookup;</li>
+ *   <li>mixed garrisons: duels only ever remove the defender's lowest or highest unit, so the
+ *       state is (attackers, removed from bottom, removed from top, next duel).</li>
+ * </ul>
+ * Larger queries are memoized in an LRU cache. Past the DP size limits the service falls back to
+ * a seeded aggregate-mode simulation, so repeated queries still return the same estimate.
+ */
+public class CombatOdds {
+    public static final int COMMON_MAX = 32;
+    private static final int DEFAULT_CACHE_SIZE = 1024;
+    private static final long MAX_DP_STATES = 2_000_000L;
+    private static final int MAX_MIXED_DEFENDERS = 200;
+    private static final int SIMULATION_SAMPLES = 4000;
+
+    /**
+     * Outcome summary of one attack.
+     */
+    public static final class Odds {
+        private final double attackerWinProbability;
+        private final double expectedAttackerSurvivors;
+        private final double expectedDefenderSurvivors;
+
+        public Odds(double attackerWinProbability, double expectedAttackerSurvivors, double expectedDefenderSurvivors) {
+            this.attackerWinProbability = attackerWinProbability;
+            this.expectedAttackerSurvivors = expectedAttackerSurvivors;
+            this.expectedDefenderSurvivors = expectedDefenderSurvivors;
+        }
+
+        public double getAttackerWinProbability() { return attackerWinProbability; }
+        public double getExpectedAttackerSurvivors() { return expectedAttackerSurvivors; }
+        public double getExpectedDefenderSurvivors() { return expectedDefenderSurvivors; }
+
+        @Override
+        public String toString() {
+            return String.format("win %.1f%%, survivors %.1f vs %.1f",
+                    attackerWinProbability * 100, expectedAttackerSurvivors, expectedDefenderSurvivors);
+        }
+    }
+
+    private final int[] bonus;
+    private final double[][] duelWin = new double[CombatEngine.LEVELS][CombatEngine.LEVELS];
+    // common[attLevel][defLevel] = {win, attSurvivors, defSurvivors} tables indexed [a][d]
+    private final double[][][][][] common = new double[CombatEngine.LEVELS][CombatEngine.LEVELS][][][];
+    private final Map<Key, Odds> cache;
+
+    public CombatOdds(int[] bonus) {
+        this(bonus, DEFAULT_CACHE_SIZE);
+    }
+
+    public CombatOdds(int[] bonus, int cacheSize) {
+        this.bonus = bonus.clone();
+        for (int a = 0; a < CombatEngine.LEVELS; a++) {
+            for (int d = 0; d < CombatEngine.LEVELS; d++) {
+                duelWin[a][d] = CombatEngine.duelWinProbability(bonus[a], bonus[d]);
+            }
+        }
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Odds> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /* ---------- Queries ---------- */
+
+    /**
+     * Odds of attCount units of attLevel attacking a garrison in Territory's (level -> count) shape.
+     */
+    public Odds attack(int attLevel, int attCount, Map<Integer, Integer> garrison) {
+        int[] defCounts = new int[CombatEngine.LEVELS];
+        for (Map.Entry<Integer, Integer> e : garrison.entrySet()) {
+            defCounts[e.getKey()] += e.getValue();
+        }
+        return attack(attLevel, attCount, defCounts);
+    }
+
+    public Odds attack(int attLevel, int attCount, int[] defCounts) {
+        int defLevel = -1;
+        int defTotal = 0;
+        int classes = 0;
+        for (int l = 0; l < CombatEngine.LEVELS; l++) {
+            if (defCounts[l] > 0) {
+                defLevel = l;
+                defTotal += defCounts[l];
+                classes++;
+            }
+        }
+        if (attCount <= 0) return new Odds(defTotal == 0 ? 1.0 : 0.0, 0, defTotal);
+        if (defTotal == 0) return new Odds(1.0, attCount, 0);
+        if (classes == 1) return attack(attLevel, attCount, defLevel, defTotal);
+
+        Key key = new Key(attLevel, attCount, defCounts);
+        synchronized (cache) {
+            Odds hit = cache.get(key);
+            if (hit != null) return hit;
+        }
+        boolean exact = defTotal <= MAX_MIXED_DEFENDERS
+                && (long) attCount * (defTotal + 1) * (defTotal + 1) <= MAX_DP_STATES;
+        Odds odds = exact
+                ? mixedGarrison(attLevel, attCount, defCounts, defTotal)
+                : simulate(attLevel, attCount, defCounts, key.hashCode());
+        synchronized (cache) {
+            cache.put(key, odds);
+        }
+        return odds;
+    }
+
+    /**
+     * Odds against a garrison of a single level; an array lookup up to COMMON_MAX on each side.
+     */
+    public Odds attack(int attLevel, int attCount, int defLevel, int defCount) {
+        if (attCount <= 0 || defCount <= 0) {
+            return attack(attLevel, attCount, singleClass(defLevel, defCount));
+        }
+        if (attCount <= COMMON_MAX && defCount <= COMMON_MAX) {
+            double[][][] t = commonTable(attLevel, defLevel);
+            return new Odds(t[0][attCount][defCount], t[1][attCount][defCount], t[2][attCount][defCount]);
+        }
+        Key key = new Key(attLevel, attCount, singleClass(defLevel, defCount));
+        synchronized (cache) {
+            Odds hit = cache.get(key);
+            if (hit != null) return hit;
+        }
+        Odds odds = (long) attCount * defCount <= MAX_DP_STATES
+                ? singleClassRow(duelWin[attLevel][defLevel], attCount, defCount)
+                : simulate(attLevel, attCount, key.def, key.hashCode());
+        synchronized (cache) {
+            cache.put(key, odds);
+        }
+        return odds;
+    }
+
+    private static int[] singleClass(int level, int count) {
+        int[] counts = new int[CombatEngine.LEVELS];
+        if (count > 0) counts[level] = count;
+        return counts;
+    }
+
+    /* ---------- Single-level defender ---------- */
+
+    /*
+     * With one class on each side both duels of a round use the same p, so the duel order drops
+     * out of the state: W[a][d] = p * W[a][d-1] + (1-p) * W[a-1][d].
+     */
+    private double[][][] commonTable(int attLevel, int defLevel) {
+        synchronized (common) {
+            double[][][] t = common[attLevel][defLevel];
+            if (t == null) {
+                t = fillSingleClass(duelWin[attLevel][defLevel], COMMON_MAX, COMMON_MAX);
+                common[attLevel][defLevel] = t;
+            }
+            return t;
+        }
+    }
+
+    private static double[][][] fillSingleClass(double p, int maxA, int maxD) {
+        double[][] win = new double[maxA + 1][maxD + 1];
+        double[][] attLeft = new double[maxA + 1][maxD + 1];
+        double[][] defLeft = new double[maxA + 1][maxD + 1];
+        for (int a = 0; a <= maxA; a++) {
+            for (int d = 0; d <= maxD; d++) {
+                if (d == 0) {
+                    win[a][d] = 1.0;
+                    attLeft[a][d] = a;
+                } else if (a == 0) {
+                    defLeft[a][d] = d;
+                } else {
+                    win[a][d] = p * win[a][d - 1] + (1 - p) * win[a - 1][d];
+                    attLeft[a][d] = p * attLeft[a][d - 1] + (1 - p) * attLeft[a - 1][d];
+                    defLeft[a][d] = p * defLeft[a][d - 1] + (1 - p) * defLeft[a - 1][d];
+                }
+            }
+        }
+        return new double[][][]{win, attLeft, defLeft};
+    }
+
+    /**
+     * Same recurrence as fillSingleClass, keeping only two attacker rows.
+     */
+    private static Odds singleClassRow(double p, int attCount, int defCount) {
+        double[][] prev = new double[3][defCount + 1];
+        double[][] cur = new double[3][defCount + 1];
+        for (int d = 1; d <= defCount; d++) prev[2][d] = d;   // a == 0: defender keeps everything
+        for (int a = 1; a <= attCount; a++) {
+            cur[0][0] = 1.0;
+            cur[1][0] = a;
+            cur[2][0] = 0;
+            for (int d = 1; d <= defCount; d++) {
+                for (int k = 0; k < 3; k++) {
+                    cur[k][d] = p * cur[k][d - 1] + (1 - p) * prev[k][d];
+                }
+            }
+            double[][] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return new Odds(prev[0][defCount], prev[1][defCount], prev[2][defCount]);
+    }
+
+    /* ---------- Mixed garrison ---------- */
+
+    /*
+     * Defenders sorted by level; i units removed from the bottom and j from the top leave
+     * d = D - i - j. Phase 0 is "attacker vs defender's lowest", phase 1 "vs defender's highest".
+     * Layers are filled by attacker count, each depending only on the previous one.
+     */
+    private Odds mixedGarrison(int attLevel, int attCount, int[] defCounts, int defTotal) {
+        int size = defTotal + 1;
+        double[] pByRank = new double[defTotal];
+        int rank = 0;
+        for (int l = 0; l < CombatEngine.LEVELS; l++) {
+            for (int c = 0; c < defCounts[l]; c++) {
+                pByRank[rank++] = duelWin[attLevel][l];
+            }
+        }
+
+        // [quantity][phase][i * size + j]
+        double[][][] prev = new double[3][2][size * size];
+        double[][][] cur = new double[3][2][size * size];
+        for (int i = 0; i <= defTotal; i++) {
+            for (int j = 0; i + j <= defTotal; j++) {
+                int d = defTotal - i - j;
+                for (int ph = 0; ph < 2; ph++) {
+                    prev[0][ph][i * size + j] = d == 0 ? 1.0 : 0.0;
+                    prev[2][ph][i * size + j] = d;
+                }
+            }
+        }
+
+        for (int a = 1; a <= attCount; a++) {
+            for (int removed = defTotal; removed >= 0; removed--) {
+                for (int i = 0; i <= removed; i++) {
+                    int j = removed - i;
+                    int at = i * size + j;
+                    if (removed == defTotal) {
+                        for (int ph = 0; ph < 2; ph++) {
+                            cur[0][ph][at] = 1.0;
+                            cur[1][ph][at] = a;
+                            cur[2][ph][at] = 0;
+                        }
+                        continue;
+                    }
+                    double pLow = pByRank[i];
+                    double pHigh = pByRank[defTotal - 1 - j];
+                    int afterLow = (i + 1) * size + j;
+                    int afterHigh = i * size + j + 1;
+                    for (int k = 0; k < 3; k++) {
+                        cur[k][0][at] = pLow * cur[k][1][afterLow] + (1 - pLow) * prev[k][1][at];
+                        cur[k][1][at] = pHigh * cur[k][0][afterHigh] + (1 - pHigh) * prev[k][0][at];
+                    }
+                }
+            }
+            double[][][] swap = prev;
+            prev = cur;
+            cur = swap;
+        }
+        return new Odds(prev[0][0][0], prev[1][0][0], prev[2][0][0]);
+    }
+
+    /* ---------- Oversized queries ---------- */
+
+    private Odds simulate(int attLevel, int attCount, int[] defCounts, long seed) {
+        CombatEngine engine = new CombatEngine(bonus);
+        engine.setMode(CombatEngine.Mode.AGGREGATE);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int wins = 0;
+        double attLeft = 0, defLeft = 0;
+        for (int s = 0; s < SIMULATION_SAMPLES; s++) {
+            engine.reset(seeds.split());
+            engine.addAttackers(attLevel, attCount);
+            for (int l = 0; l < CombatEngine.LEVELS; l++) {
+                engine.addDefenders(l, defCounts[l]);
+            }
+            if (engine.resolve()) wins++;
+            attLeft += engine.getAttackerTotal();
+            defLeft += engine.getDefenderTotal();
+        }
+        return new Odds(wins / (double) SIMULATION_SAMPLES,
+                attLeft / SIMULATION_SAMPLES, defLeft / SIMULATION_SAMPLES);
+    }
+
+    private static final class Key {
+        final int attLevel;
+        final int attCount;
+        final int[] def;
+        final int hash;
+
+        Key(int attLevel, int attCount, int[] def) {
+            this.attLevel = attLevel;
+            this.attCount = attCount;
+            this.def = def.clone();
+            this.hash = 31 * (31 * attLevel + attCount) + Arrays.hashCode(this.def);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return attLevel == k.attLevel && attCount == k.attCount && Arrays.equals(def, k.def);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -1,15 +1,21 @@
 package risc;
 
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
 
 /**
- * Simple utility class for dice rolling
+ * Simple utility class for dice rolling.
+ * Game code should roll from the game's own seeded streams (see GameRandom) so results can be
+ * reproduced; the no-argument form uses a per-thread generator and never contends across rooms.
  */
 public class DiceRoller {
-    private static final Random RAND = new Random();
 
     public static int rollD20() {
+        return rollD20(ThreadLocalRandom.current());
+    }
+
+    public static int rollD20(RandomGenerator rng) {
         // returns integer in [1..20]
-        return RAND.nextInt(20) + 1;
+        return rng.nextInt(20) + 1;
     }
 }
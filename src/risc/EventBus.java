@@ -0,0 +1,26 @@
+package risc;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A room's event bus. Events are delivered synchronously, in the order they are published,
+ * on the thread that runs the turn; subscribers must not block.
+ */
+public final class EventBus {
+    private final CopyOnWriteArrayList<Consumer<? super GameEvent>> subscribers = new CopyOnWriteArrayList<>();
+
+    public void subscribe(Consumer<? super GameEvent> subscriber) {
+        subscribers.add(subscriber);
+    }
+
+    public void unsubscribe(Consumer<? super GameEvent> subscriber) {
+        subscribers.remove(subscriber);
+    }
+
+    public void publish(GameEvent event) {
+        for (Consumer<? super GameEvent> s : subscribers) {
+            s.accept(event);
+        }
+    }
+}
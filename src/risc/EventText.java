@@ -0,0 +1,74 @@
+package risc;
+
+/**
+ * The broadcast line for an event. Moves, battles, alliances, recalls and the AI controller's
+ * reports keep the wording the server broadcast before events existed. Elimination had no broadcast before;
+ * "<player> has been eliminated!" is its own line. A win is not broadcast as an event line at
+ * all.
+ */
+public final class EventText {
+    private EventText() {
+    }
+
+    /**
+     * Formats an event against the game it came from, which resolves player and territory ids.
+     * Returns null for events that are not broadcast as text: the server announces the winner
+     * itself once the turn is over.
+     */
+    public static String format(GameEvent event, Game game) {
+        if (event instanceof GameEvent.Moved e) {
+            return player(game, e.player()) + " moves " + e.units() + " L" + e.level() + " from "
+                    + territory(game, e.from()) + " to " + territory(game, e.to());
+        } else if (event instanceof GameEvent.Conquered e) {
+            return player(game, e.attacker()) + " conquered " + territory(game, e.territory());
+        } else if (event instanceof GameEvent.Defended e) {
+            return player(game, e.defender()) + " defends " + territory(game, e.territory()) + " successfully";
+        } else if (event instanceof GameEvent.AllianceFormed e) {
+            return "Alliance formed between " + player(game, e.player()) + " and " + player(game, e.other()) + "!";
+        } else if (event instanceof GameEvent.AllianceBroken e) {
+            return "Alliance broken due to attack! (" + player(game, e.attacker()) + " -> "
+                    + player(game, e.defender()) + ")";
+        } else if (event instanceof GameEvent.Recalled e) {
+            return "Recalled " + player(game, e.ally()) + "'s troops from " + player(game, e.betrayer())
+                    + "'s land [" + territory(game, e.from()) + "] to [" + territory(game, e.to()) + "]";
+        } else if (event instanceof GameEvent.NoRecall e) {
+            return "No territory to recall for " + player(game, e.ally()) + ", skipping...";
+        } else if (event instanceof GameEvent.Eliminated e) {
+            return player(game, e.player()) + " has been eliminated!";
+        } else if (event instanceof GameEvent.Won) {
+            return null;
+        } else if (event instanceof GameEvent.AiPlaced e) {
+            return player(game, e.player()) + " has completed the initial placement.";
+        } else if (event instanceof GameEvent.AiRetried e) {
+            return player(game, e.player()) + " did not output 'D' at the end of commands, "
+                    + "regenerating commands (attempt " + e.attempt() + ")...";
+        } else if (event instanceof GameEvent.AiOrdered e) {
+            StringBuilder sb = new StringBuilder("[").append(player(game, e.player())).append(" Orders]\n");
+            e.commands().forEach(c -> sb.append("  ").append(c).append("\n"));
+            return sb.toString();
+        } else if (event instanceof GameEvent.AiRejected e) {
+            StringBuilder sb = new StringBuilder("[").append(player(game, e.player())).append(" Rejected Orders]\n");
+            for (int i = 0; i < e.commands().size(); i++) {
+                sb.append("  ").append(e.commands().get(i)).append(" (").append(e.reasons().get(i)).append(")\n");
+            }
+            return sb.toString();
+        } else if (event instanceof GameEvent.AiIdle e) {
+            return player(game, e.player())
+                    + " did not generate any executable commands this turn; only 'D' was output.";
+        } else if (event instanceof GameEvent.AiSkipped e) {
+            return player(game, e.player())
+                    + " failed to output 'D' correctly after multiple attempts; skipping orders for this turn.";
+        } else if (event instanceof GameEvent.Notice e) {
+            return e.text();
+        }
+        throw new IllegalArgumentException("Unknown event " + event);
+    }
+
+    private static String player(Game game, int id) {
+        return game.getPlayer(id).getName();
+    }
+
+    private static String territory(Game game, int id) {
+        return game.getRoom().territory(id).getName();
+    }
+}
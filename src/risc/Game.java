@@ -1,40 +1,183 @@
 package risc;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 public class Game {
-    private final List<Territory> territories;
+    // Owners and garrisons of this game's map; names, sizes and borders live in its shared topology
+    private RoomState room;
+    private List<Territory> territories;
     private final List<Player> players;
     final List<Order> allOrders;
-    private final Random rand;
+    // The same orders packed with resolved ids; this is what OrderExecutor runs
+    private final OrderBuffer orderBuffer = new OrderBuffer();
+    private final OrderValidator orderValidator;
+    private final GameRandom random;
+    private int turn = 0;
+    private ForkJoinPool attackPool = ForkJoinPool.commonPool();
+    private volatile GameSnapshot snapshot;
     private final OrderExecutor orderExecutor;
+    private final PathCost pathCost = new PathCost();
+    private CombatOdds combatOdds;
+    private Ruleset rules = Ruleset.STANDARD;
+    private final AllianceMatrix alliances = new AllianceMatrix();
+    private final ProductionStage production = new ProductionStage();
 
-    private int initialUnitsPerPlayer = 10;
+    // Bumped by every change of territory owner; may come from attack worker threads
+    private final AtomicInteger ownershipEpoch = new AtomicInteger();
+    // Territories owned per player id, kept by the same hook
+    private final Object ownedLock = new Object();
+    private int[] ownedCount = new int[0];
+    private int aliveCount;
+    // Per player id: bits of owned territories, and of territories owned by the player or an ally
+    private long[][] ownedBits = new long[0][];
+    private long[][] passableBits = new long[0][];
+    private int ownedEpoch = -1;
+    private int passableAllianceVersion = -1;
+
+    // Player ids must fit the player field of a packed order
+    public static final int MAX_PLAYERS = OrderBuffer.MAX_PLAYER + 1;
+
+    static final String MAP_STATE_HEADER = "===== Current Map State =====\n";
+    static final String MAP_STATE_FOOTER = "=============================\n";
+
+    private int initialUnitsPerPlayer = Ruleset.STANDARD.getInitialUnits();
+    private CombatEngine.Mode combatMode = CombatEngine.Mode.PER_ROLL;
     private boolean winnerExists = false;
     private Player winner = null;
     private final RiscServer server;
+    private final EventBus events = new EventBus();
+    private Consumer<String> broadcastSink;
+    private OrderLog orderLog;
 
     public Game(RiscServer server) {
+        this(server, ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * @param seed fixes every random outcome of the game, so it can be reproduced
+     */
+    public Game(RiscServer server, long seed) {
         this.server = server;
-        this.territories = new ArrayList<>();
+        this.broadcastSink = server == null ? null : server::broadcastMessage;
+        events.subscribe(this::broadcastText);
+        this.random = new GameRandom(seed);
+        this.territories = Collections.emptyList();
         this.players = new ArrayList<>();
         this.allOrders = Collections.synchronizedList(new ArrayList<>());
-        this.rand = new Random();
         this.orderExecutor = new OrderExecutor(this);
+        this.orderValidator = new OrderValidator(this);
+        this.combatOdds = new CombatOdds(rules.getUnitBonus());
+        publishSnapshot("created");
     }
 
     public void setUpMap(int desiredPlayers) {
-        territories.clear();
-        territories.addAll(MapBuilder.buildMap(desiredPlayers));
+        installMap(new RoomState(MapBuilder.topologyFor(desiredPlayers)));
+        publishSnapshot("map");
+    }
+
+    /**
+     * Sets up the game on a given map, e.g. one made by MapGenerator.
+     */
+    public void setUpMap(MapTopology topology) {
+        installMap(new RoomState(topology));
+        publishSnapshot("map");
+    }
+
+    private void installMap(RoomState state) {
+        this.room = state;
+        this.territories = state.territories();
+        synchronized (ownedLock) {
+            int[] counts = new int[0];
+            for (Territory t : territories) {
+                if (t.getOwner() != null) counts = countOwner(counts, t.getOwner().getId(), 1);
+            }
+            this.ownedCount = counts;
+        }
+        state.setOwnerListener(this::ownerChanged);
+        ownershipEpoch.incrementAndGet();
+    }
+
+    private void ownerChanged(Territory t, Player previous) {
+        ownershipEpoch.incrementAndGet();
+        synchronized (ownedLock) {
+            int[] counts = ownedCount;
+            if (previous != null) counts = countOwner(counts, previous.getId(), -1);
+            if (t.getOwner() != null) counts = countOwner(counts, t.getOwner().getId(), 1);
+            ownedCount = counts;
+        }
+    }
+
+    private static int[] countOwner(int[] counts, int playerID, int delta) {
+        if (playerID >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(playerID + 1, 2 * counts.length));
+        }
+        counts[playerID] += delta;
+        return counts;
+    }
+
+    /**
+     * Number of territories the player owns, from the ownership-change hook.
+     */
+    int getOwnedCount(int playerID) {
+        synchronized (ownedLock) {
+            return playerID >= 0 && playerID < ownedCount.length ? ownedCount[playerID] : 0;
+        }
+    }
+
+    /**
+     * The room state behind this game's territories; null until a map is set up.
+     */
+    RoomState getRoom() {
+        return room;
+    }
+
+    /**
+     * Throws IllegalArgumentException unless a room can seat numPlayers players.
+     */
+    static void checkPlayerCount(int numPlayers) {
+        if (numPlayers < 1 || numPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A game holds 1 to " + MAX_PLAYERS + " players, not " + numPlayers);
+        }
+    }
+
+    /**
+     * Loads a decoded snapshot into a freshly constructed game. The room state must already
+     * hold the owners and garrisons, and players their resources and territory lists;
+     * alliances are given as pairs.
+     */
+    void restore(RoomState state, List<Player> restoredPlayers, int[][] alliancePairs,
+                 int turn, int winnerID, int initialUnits, CombatEngine.Mode mode) {
+        checkPlayerCount(restoredPlayers.size());
+        installMap(state);
+        players.clear();
+        players.addAll(restoredPlayers);
+        for (int[] pair : alliancePairs) {
+            formAlliance(pair[0], pair[1]);
+        }
+        this.turn = turn;
+        this.winnerExists = winnerID >= 0;
+        this.winner = winnerID >= 0 ? players.get(winnerID) : null;
+        this.aliveCount = (int) restoredPlayers.stream().filter(Player::isAlive).count();
+        this.initialUnitsPerPlayer = initialUnits;
+        this.combatMode = mode;
+        publishSnapshot("restored");
     }
 
     public void initPlayers(int numPlayers) {
+        checkPlayerCount(numPlayers);
         players.clear();
         for (int i = 0; i < numPlayers; i++) {
             Player p = new Player(i, "Player" + (i + 1));
+            p.setResources(rules.getStartingFood(), rules.getStartingTech());
             players.add(p);
         }
         int totalTerritories = territories.size();
@@ -51,80 +194,205 @@ public class Game {
                 p.addTerritory(t);
             }
         }
+        aliveCount = numPlayers;
+        publishSnapshot("players");
     }
 
     public int getInitialUnits() {
         return initialUnitsPerPlayer;
     }
 
+    public Ruleset getRules() {
+        return rules;
+    }
+
+    /**
+     * Plays the room by other rules; call before players are set up, since their starting
+     * resources and initial units come from the rules.
+     */
+    public void setRules(Ruleset rules) {
+        this.rules = rules;
+        this.initialUnitsPerPlayer = rules.getInitialUnits();
+        this.combatOdds = new CombatOdds(rules.getUnitBonus());
+    }
+
+    public CombatEngine.Mode getCombatMode() {
+        return combatMode;
+    }
+
+    /**
+     * AGGREGATE resolves large battles in blocks of binomially sampled rounds instead of
+     * rolling every duel; outcomes follow the same distribution.
+     */
+    public void setCombatMode(CombatEngine.Mode mode) {
+        this.combatMode = mode;
+    }
+
+    /**
+     * Adds the order if it passes validation against the player's orders so far this turn.
+     * Returns null when it was accepted, otherwise the reason it was rejected.
+     */
+    public synchronized String submitOrder(Order order) {
+        String reason = orderValidator.check(order);
+        if (reason == null) {
+            addOrder(order);
+        }
+        return reason;
+    }
+
+    /**
+     * The player's food and tech left after the orders accepted this turn, and the garrisons
+     * those orders change.
+     */
+    public synchronized String getBudget(int playerID) {
+        return orderValidator.budget(playerID);
+    }
+
+    /**
+     * Adds an order without validation; OrderExecutor still skips orders that cannot run.
+     */
     public synchronized void addOrder(Order order) {
+        if (order instanceof AllianceOrder) {
+            AllianceOrder ao = (AllianceOrder) order;
+            ao.setTargetPlayerID(getPlayerIDByName(ao.getTargetPlayerName()));
+            orderBuffer.add(order, -1, -1);
+        } else {
+            orderBuffer.add(order, territoryId(order.getSourceName()), territoryId(order.getDestName()));
+        }
         allOrders.add(order);
+        orderValidator.accept(order);
+        if (orderLog != null) {
+            orderLog.append(order);
+        }
+    }
+
+    private int territoryId(String name) {
+        Territory t = getTerritoryByName(name);
+        return t == null ? -1 : t.getId();
+    }
+
+    /**
+     * This turn's orders in submission order, packed with their territory ids.
+     */
+    OrderBuffer getOrderBuffer() {
+        return orderBuffer;
+    }
+
+    /**
+     * Attaches a write-ahead log that records every accepted order; null detaches it.
+     */
+    public void setOrderLog(OrderLog log) {
+        this.orderLog = log;
+    }
+
+    /**
+     * Runs the four order phases in their fixed order and clears the orders. If an order log is
+     * attached, the turn's orders are committed to it first, so the turn can be replayed.
+     */
+    public void executeAllOrders() {
+        if (orderLog != null) {
+            try {
+                orderLog.commitTurn(turn, getSeed());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        executeAllMoveOrders();
+        executeAllAttackOrders();
+        executeAllAlliances();
+        executeAllUpgrades();
+        clearAllOrders();
     }
 
     public void executeAllMoveOrders() {
         orderExecutor.executeMoveOrders();
+        publishSnapshot("move");
     }
 
     public void executeAllAttackOrders() {
         orderExecutor.executeAttackOrders();
+        publishSnapshot("attack");
     }
 
     public void executeAllAlliances() {
         if (players.size() >= 3) {
             orderExecutor.executeAllianceOrders();
         }
+        publishSnapshot("alliance");
     }
 
     public void executeAllUpgrades() {
         orderExecutor.executeUpgradeOrders();
         orderExecutor.executeTechUpgradeOrders();
+        publishSnapshot("upgrade");
     }
 
-    public void clearAllOrders() {
+    public synchronized void clearAllOrders() {
         allOrders.clear();
+        orderBuffer.clear();
+        orderValidator.clear();
     }
 
     public void endTurn() {
+        turn++;
         for (Player p : players) {
             if (p.isTechUpgrading()) {
                 p.finishTechUpgrade();
             }
-            if (!p.isAlive()) continue;
-            int totalFood = 0;
-            int totalTech = 0;
-            for (Territory t : p.getTerritories()) {
-                totalFood += t.getFoodProduction();
-                totalTech += t.getTechProduction();
-                t.addUnits(p.getId(), 0, 1);
-            }
-            p.addFood(totalFood);
-            p.addTech(totalTech);
         }
+        production.run(territories, players, rules);
+        publishSnapshot("endTurn");
     }
 
+    /**
+     * Settles eliminations and the winner from the owned-territory counts. Conquests already
+     * do this as they happen; this only catches ownership changed outside the attack phase.
+     */
     public void updatePlayerStatus() {
+        int alive = 0;
+        Player last = null;
+        Player ownsAll = null;
         for (Player p : players) {
-            if (p.getTerritories().isEmpty()) {
-                p.setAlive(false);
+            if (p.isAlive() && getOwnedCount(p.getId()) == 0) {
+                eliminate(p);
             }
-        }
-        List<Player> alivePlayers = new ArrayList<>();
-        for (Player p : players) {
             if (p.isAlive()) {
-                alivePlayers.add(p);
+                alive++;
+                last = p;
+                if (getOwnedCount(p.getId()) == territories.size()) ownsAll = p;
             }
         }
-        if (alivePlayers.size() == 1) {
-            this.winnerExists = true;
-            this.winner = alivePlayers.get(0);
+        aliveCount = alive;
+        if (!winnerExists && (ownsAll != null || alive == 1)) {
+            declareWinner(ownsAll != null ? ownsAll : last);
         }
-        for (Player p : alivePlayers) {
-            if (p.getTerritories().size() == territories.size()) {
-                this.winnerExists = true;
-                this.winner = p;
-                break;
-            }
+        publishSnapshot("status");
+    }
+
+    /**
+     * Called as a conquest is committed: the loser is out once their last territory falls,
+     * and the conqueror wins once they are the last player left or own the whole map.
+     */
+    void conquered(Player loser, Player conqueror) {
+        if (loser.isAlive() && getOwnedCount(loser.getId()) == 0) {
+            eliminate(loser);
+            aliveCount--;
         }
+        if (!winnerExists && conqueror.isAlive()
+                && (aliveCount == 1 || getOwnedCount(conqueror.getId()) == territories.size())) {
+            declareWinner(conqueror);
+        }
+    }
+
+    private void eliminate(Player p) {
+        p.setAlive(false);
+        publish(new GameEvent.Eliminated(p.getId()));
+    }
+
+    private void declareWinner(Player p) {
+        this.winnerExists = true;
+        this.winner = p;
+        publish(new GameEvent.Won(p.getId()));
     }
 
     public boolean hasWinner() {
@@ -135,19 +403,135 @@ public class Game {
         return winner;
     }
 
-    public Territory getTerritoryByName(String name) {
+    /* ---------- Alliances ---------- */
+
+    public AllianceMatrix getAlliances() {
+        return alliances;
+    }
+
+    /**
+     * Allies players a and b in the matrix and on both players; returns false if they already were.
+     */
+    public boolean formAlliance(int a, int b) {
+        if (!alliances.ally(a, b)) return false;
+        players.get(a).addAlly(b);
+        players.get(b).addAlly(a);
+        return true;
+    }
+
+    /**
+     * Dissolves the alliance of a and b in the matrix and on both players.
+     */
+    public void breakAlliance(int a, int b) {
+        alliances.breakAlliance(a, b);
+        players.get(a).removeAlly(b);
+        players.get(b).removeAlly(a);
+    }
+
+    /**
+     * Move cost search with scratch buffers sized for this room.
+     */
+    PathCost getPathCost() {
+        return pathCost;
+    }
+
+    /**
+     * Territory bitset (indexed by territory id) of the land the player may move through:
+     * its own plus its allies'. Rebuilt only after ownership or alliances change. Read-only.
+     */
+    long[] getPassable(int playerID) {
+        int epoch = ownershipEpoch.get();
+        if (epoch != ownedEpoch) {
+            rebuildOwnedBits();
+            ownedEpoch = epoch;
+            passableAllianceVersion = -1;
+        }
+        if (passableAllianceVersion != alliances.getVersion()) {
+            rebuildPassableBits();
+            passableAllianceVersion = alliances.getVersion();
+        }
+        return playerID >= 0 && playerID < passableBits.length
+                ? passableBits[playerID] : new long[(territories.size() + 63) >>> 6];
+    }
+
+    private void rebuildOwnedBits() {
+        int words = (territories.size() + 63) >>> 6;
+        int n = players.size();
         for (Territory t : territories) {
-            if (t.getName().equalsIgnoreCase(name)) {
-                return t;
+            if (t.getOwner() != null) n = Math.max(n, t.getOwner().getId() + 1);
+        }
+        ownedBits = new long[n][words];
+        for (int i = 0; i < territories.size(); i++) {
+            Player owner = territories.get(i).getOwner();
+            if (owner != null) {
+                ownedBits[owner.getId()][i >>> 6] |= 1L << i;
             }
         }
-        return null;
+    }
+
+    private void rebuildPassableBits() {
+        int n = ownedBits.length;
+        long[][] next = new long[n][];
+        for (int p = 0; p < n; p++) {
+            long[] bits = ownedBits[p].clone();
+            long[] allies = alliances.row(p);
+            for (int w = 0; w < allies.length; w++) {
+                long word = allies[w];
+                while (word != 0) {
+                    int q = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    if (q >= n) break;
+                    long[] theirs = ownedBits[q];
+                    for (int i = 0; i < bits.length; i++) {
+                        bits[i] |= theirs[i];
+                    }
+                }
+            }
+            next[p] = bits;
+        }
+        passableBits = next;
+    }
+
+    /* ---------- Snapshots ---------- */
+
+    /**
+     * Captures the current state and makes it the one returned by getSnapshot().
+     * Must be called from the thread that mutates the game, between phases.
+     */
+    public GameSnapshot publishSnapshot(String phase) {
+        GameSnapshot next = GameSnapshot.capture(this, territories, phase, snapshot);
+        snapshot = next;
+        return next;
+    }
+
+    /**
+     * Latest published snapshot; safe to read from any thread.
+     */
+    public GameSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public Territory getTerritoryByName(String name) {
+        int id = name == null || room == null ? -1 : room.getTopology().indexOf(name);
+        return id < 0 ? null : territories.get(id);
     }
 
     public Player getPlayer(int id) {
         return players.get(id);
     }
 
+    /**
+     * ID of the player with exactly this name, or -1.
+     */
+    public int getPlayerIDByName(String name) {
+        for (Player p : players) {
+            if (p.getName().equals(name)) {
+                return p.getId();
+            }
+        }
+        return -1;
+    }
+
     public List<Player> getAllPlayers() {
         return players;
     }
@@ -156,27 +540,99 @@ public class Game {
         return allOrders;
     }
 
-    public Random getRandom() {
-        return rand;
+    /**
+     * Attack odds under this game's combat rules, for AI planning and previews.
+     */
+    public CombatOdds getCombatOdds() {
+        return combatOdds;
+    }
+
+    public long getSeed() {
+        return random.getSeed();
+    }
+
+    /**
+     * Number of completed turns.
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    public ForkJoinPool getAttackPool() {
+        return attackPool;
+    }
+
+    /**
+     * Sets the pool used to resolve independent battles; results do not depend on its size.
+     */
+    public void setAttackPool(ForkJoinPool pool) {
+        this.attackPool = pool;
+    }
+
+    /**
+     * Seeded per-turn, per-battle and per-recall streams of this game.
+     */
+    public GameRandom getRandom() {
+        return random;
     }
 
     public String getMapState() {
-        StringBuilder sb = new StringBuilder();
-        sb.append("===== Current Map State =====\n");
+        int length = MAP_STATE_HEADER.length() + MAP_STATE_FOOTER.length();
         for (Territory t : territories) {
-            String owner = (t.getOwner() == null ? "None" : t.getOwner().getName());
-            sb.append(String.format("%s (%s)\n", t.getName(), owner));
-            sb.append("  Size: ").append(t.getSize())
-                    .append(", Neighbors: ").append(t.neighborsString()).append("\n");
-            sb.append("  StationedUnits: ").append(t.stationedUnitsString()).append("\n\n");
+            length += t.renderState().length();
         }
-        sb.append("=============================\n");
+        StringBuilder sb = new StringBuilder(length);
+        writeMapState(sb);
         return sb.toString();
     }
 
+    /**
+     * Streams the map state to out, one cached territory block at a time.
+     */
+    public void writeMapState(Appendable out) {
+        try {
+            out.append(MAP_STATE_HEADER);
+            for (Territory t : territories) {
+                out.append(t.renderState());
+            }
+            out.append(MAP_STATE_FOOTER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Publishes a player's chat line to the room.
+     */
     public void broadcast(String msg) {
-        if (server != null) {
-            server.broadcastMessage(msg);
+        publish(new GameEvent.Notice(msg));
+    }
+
+    void publish(GameEvent event) {
+        events.publish(event);
+    }
+
+    /**
+     * This room's events, in the order the engine produced them.
+     */
+    public EventBus getEvents() {
+        return events;
+    }
+
+    // Events are only worded when someone is listening for text
+    private void broadcastText(GameEvent event) {
+        Consumer<String> sink = broadcastSink;
+        if (sink != null) {
+            String text = EventText.format(event, this);
+            if (text != null) sink.accept(text);
         }
     }
+
+    /**
+     * Redirects game broadcasts, e.g. to capture them in a headless run; null drops them.
+     * Defaults to the server's broadcast, if there is a server.
+     */
+    public void setBroadcastSink(Consumer<String> sink) {
+        this.broadcastSink = sink;
+    }
 }
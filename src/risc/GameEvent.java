@@ -0,0 +1,68 @@
+package risc;
+
+import java.util.List;
+
+/**
+ * Something that happened in a room, as plain ids rather than text, so that subscribers
+ * such as persistence, metrics or the AI can use it without parsing. Players and territories
+ * are ids of the room the event came from; EventText turns an event into the line players see.
+ */
+public sealed interface GameEvent {
+
+    /** Units of one level moved between two of the player's or allies' territories. */
+    record Moved(int player, int level, int units, int from, int to) implements GameEvent {}
+
+    /** An attack took the territory from its owner. */
+    record Conquered(int attacker, int defender, int territory) implements GameEvent {}
+
+    /** The owner held the territory against an attack. */
+    record Defended(int defender, int attacker, int territory) implements GameEvent {}
+
+    /** Two players asked for an alliance with each other in the same turn. */
+    record AllianceFormed(int player, int other) implements GameEvent {}
+
+    /** An attack on an ally ended the alliance. */
+    record AllianceBroken(int attacker, int defender) implements GameEvent {}
+
+    /** An ally's units on the betrayer's territory were sent home, to the given territory. */
+    record Recalled(int ally, int betrayer, int from, int to) implements GameEvent {}
+
+    /** An ally's units could not be recalled because the ally holds no territory. */
+    record NoRecall(int ally) implements GameEvent {}
+
+    /** The player lost their last territory. */
+    record Eliminated(int player) implements GameEvent {}
+
+    /** The player is the last one alive or owns every territory. */
+    record Won(int player) implements GameEvent {}
+
+    /** The AI player spread its initial units over its territories. */
+    record AiPlaced(int player) implements GameEvent {}
+
+    /** The AI's reply lacked the closing 'D'; the given attempt is being asked for again. */
+    record AiRetried(int player, int attempt) implements GameEvent {}
+
+    /** Command lines of the AI's reply that became accepted orders, as the AI wrote them. */
+    record AiOrdered(int player, List<String> commands) implements GameEvent {
+        public AiOrdered {
+            commands = List.copyOf(commands);
+        }
+    }
+
+    /** Command lines of the AI's reply that were refused, each with the validator's reason. */
+    record AiRejected(int player, List<String> commands, List<String> reasons) implements GameEvent {
+        public AiRejected {
+            commands = List.copyOf(commands);
+            reasons = List.copyOf(reasons);
+        }
+    }
+
+    /** The AI's reply was well formed but gave no order that was accepted. */
+    record AiIdle(int player) implements GameEvent {}
+
+    /** Every attempt lacked the closing 'D', so the AI issues no orders this turn. */
+    record AiSkipped(int player) implements GameEvent {}
+
+    /** A chat line a player sent to the room; everything the engine reports has its own type. */
+    record Notice(String text) implements GameEvent {}
+}
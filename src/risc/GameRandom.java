@@ -0,0 +1,60 @@
+package risc;
+
+import java.util.SplittableRandom;
+
+/**
+ * Seeded hierarchy of random streams for one game.
+ * Every stream is derived from (game seed, stream kind, turn, key) alone, so streams never
+ * share state across rooms or threads and a game can be re-executed bit-for-bit from its
+ * seed and order log, no matter in which order or on which thread the streams are used.
+ */
+public class GameRandom {
+    // Salts that keep the stream kinds apart
+    private static final long TURN = 0x9E3779B97F4A7C15L;
+    private static final long BATTLE = 0xC2B2AE3D27D4EB4FL;
+    private static final long RECALL = 0x165667B19E3779F9L;
+
+    private final long seed;
+
+    public GameRandom(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * General-purpose stream for the given turn.
+     */
+    public SplittableRandom forTurn(int turn) {
+        return new SplittableRandom(derive(TURN, turn, 0));
+    }
+
+    /**
+     * Stream for the seq-th battle fought at a territory during a turn.
+     */
+    public SplittableRandom forBattle(int turn, int territoryId, int seq) {
+        return new SplittableRandom(derive(BATTLE, turn, ((long) territoryId << 32) | (seq & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * Stream used when ally's troops are recalled from betrayer's land during a turn.
+     */
+    public SplittableRandom forRecall(int turn, int allyID, int betrayerID) {
+        return new SplittableRandom(derive(RECALL, turn, ((long) allyID << 32) | (betrayerID & 0xFFFFFFFFL)));
+    }
+
+    private long derive(long kind, int turn, long key) {
+        long h = mix(seed ^ kind);
+        h = mix(h + TURN * (turn + 1L));
+        return mix(h ^ key);
+    }
+
+    // SplitMix64 finalizer
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
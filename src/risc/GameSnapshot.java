@@ -0,0 +1,263 @@
+package risc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+
+/**
+ * Immutable view of a Game, published at phase boundaries so that broadcasts, AI prompting,
+ * persistence and spectators can read a consistent state without locking the engine.
+ * Snapshots share structure: a territory whose version has not changed since the previous
+ * snapshot is carried over as the same TerritoryState object.
+ */
+public final class GameSnapshot {
+
+    /**
+     * Frozen state of one territory.
+     */
+    public static final class TerritoryState {
+        private final int id;
+        private final String name;
+        private final int size;
+        private final int ownerID;
+        private final String ownerName;
+        // Names and borders come from the (immutable) topology the room had at capture time
+        private final MapTopology map;
+        // Packed (playerID, level) -> count pairs as in RoomState, or null when empty
+        private final int[] garrison;
+        private final int version;
+        private List<String> neighborNames;   // these three are built lazily and shared
+        private SortedMap<Integer, SortedMap<Integer, Integer>> units;
+        private String rendered;
+
+        private TerritoryState(Territory t, MapTopology map, int[] garrison) {
+            this.id = t.getId();
+            this.name = t.getName();
+            this.size = t.getSize();
+            Player owner = t.getOwner();
+            this.ownerID = owner == null ? -1 : owner.getId();
+            this.ownerName = owner == null ? "None" : owner.getName();
+            this.map = map;
+            this.garrison = garrison;
+            this.version = t.getVersion();
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public int getSize() { return size; }
+        public int getOwnerID() { return ownerID; }
+        public String getOwnerName() { return ownerName; }
+        public int getNeighborCount() { return map.getNeighborCount(id); }
+        public int getNeighborId(int i) { return map.getNeighbor(id, i); }
+
+        public List<String> getNeighborNames() {
+            List<String> names = neighborNames;
+            if (names == null) {
+                String[] copy = new String[map.getNeighborCount(id)];
+                for (int k = 0; k < copy.length; k++) {
+                    copy[k] = map.getName(map.getNeighbor(id, k));
+                }
+                names = Collections.unmodifiableList(Arrays.asList(copy));
+                neighborNames = names;
+            }
+            return names;
+        }
+
+        public SortedMap<Integer, SortedMap<Integer, Integer>> getUnits() {
+            SortedMap<Integer, SortedMap<Integer, Integer>> u = units;
+            if (u == null) {
+                SortedMap<Integer, SortedMap<Integer, Integer>> copy = new TreeMap<>();
+                for (int i = 0; garrison != null && i < garrison.length; i += 2) {
+                    copy.computeIfAbsent(RoomState.playerOf(garrison[i]), k -> new TreeMap<>())
+                            .put(RoomState.levelOf(garrison[i]), garrison[i + 1]);
+                }
+                for (Map.Entry<Integer, SortedMap<Integer, Integer>> e : copy.entrySet()) {
+                    e.setValue(Collections.unmodifiableSortedMap(e.getValue()));
+                }
+                u = Collections.unmodifiableSortedMap(copy);
+                units = u;
+            }
+            return u;
+        }
+
+        public Map<Integer, Integer> getUnits(int playerID) {
+            Map<Integer, Integer> m = getUnits().get(playerID);
+            return m == null ? Collections.emptyMap() : m;
+        }
+
+        /**
+         * Same text as Territory.stationedUnitsString().
+         */
+        public String stationedUnitsString() {
+            return RoomState.unitsString(garrison);
+        }
+
+        /**
+         * This territory's block of getMapState(), rendered once per state.
+         */
+        public String renderState() {
+            String r = rendered;
+            if (r == null) {
+                r = Territory.renderBlock(name, ownerName, size, String.join(" ", getNeighborNames()),
+                        stationedUnitsString());
+                rendered = r;
+            }
+            return r;
+        }
+
+        private boolean isCurrent(Territory t) {
+            Player owner = t.getOwner();
+            return version == t.getVersion() && ownerName.equals(owner == null ? "None" : owner.getName());
+        }
+    }
+
+    /**
+     * Frozen state of one player.
+     */
+    public static final class PlayerState {
+        private final int id;
+        private final String name;
+        private final boolean alive;
+        private final boolean ai;
+        private final int food;
+        private final int tech;
+        private final int maxTechLevel;
+        private final boolean techUpgrading;
+        private final int nextTechLevel;
+        private final int[] territoryIds;   // in the order of Player.getTerritories()
+        private final List<Integer> allies;
+
+        private PlayerState(Player p) {
+            this.id = p.getId();
+            this.name = p.getName();
+            this.alive = p.isAlive();
+            this.ai = p.isAI();
+            this.food = p.getFood();
+            this.tech = p.getTech();
+            this.maxTechLevel = p.getMaxTechLevel();
+            this.techUpgrading = p.isTechUpgrading();
+            this.nextTechLevel = p.getNextTechLevel();
+            List<Territory> owned = p.getTerritories();
+            this.territoryIds = new int[owned.size()];
+            for (int i = 0; i < territoryIds.length; i++) {
+                territoryIds[i] = owned.get(i).getId();
+            }
+            List<Integer> sorted = new ArrayList<>(p.getAllies());
+            Collections.sort(sorted);
+            this.allies = Collections.unmodifiableList(sorted);
+        }
+
+        public int getId() { return id; }
+        public String getName() { return name; }
+        public boolean isAlive() { return alive; }
+        public boolean isAI() { return ai; }
+        public int getFood() { return food; }
+        public int getTech() { return tech; }
+        public int getMaxTechLevel() { return maxTechLevel; }
+        public boolean isTechUpgrading() { return techUpgrading; }
+        public int getNextTechLevel() { return nextTechLevel; }
+        public int getTerritoryCount() { return territoryIds.length; }
+        public int getTerritoryId(int i) { return territoryIds[i]; }
+        public List<Integer> getAllies() { return allies; }
+    }
+
+    private final long seed;
+    private final int turn;
+    private final String phase;
+    private final int winnerID;
+    private final int initialUnits;
+    private final CombatEngine.Mode combatMode;
+    private final Ruleset rules;
+    private final List<TerritoryState> territories;
+    private final List<PlayerState> players;
+    private final MapTopology topology;
+
+    private GameSnapshot(Game game, String phase, List<TerritoryState> territories, List<PlayerState> players,
+                         MapTopology topology) {
+        this.seed = game.getSeed();
+        this.turn = game.getTurn();
+        this.phase = phase;
+        this.winnerID = game.hasWinner() ? game.getWinner().getId() : -1;
+        this.initialUnits = game.getInitialUnits();
+        this.combatMode = game.getCombatMode();
+        this.rules = game.getRules();
+        this.territories = territories;
+        this.players = players;
+        this.topology = topology;
+    }
+
+    /**
+     * Captures the live state; must run on the thread that mutates the game.
+     * Territories unchanged since previous are shared with it.
+     */
+    static GameSnapshot capture(Game game, List<Territory> liveTerritories, String phase, GameSnapshot previous) {
+        List<TerritoryState> terrs = new ArrayList<>(liveTerritories.size());
+        boolean sameMap = previous != null && previous.territories.size() == liveTerritories.size();
+        RoomState room = game.getRoom();
+        for (int i = 0; i < liveTerritories.size(); i++) {
+            Territory t = liveTerritories.get(i);
+            TerritoryState old = sameMap ? previous.territories.get(i) : null;
+            if (old != null && old.name.equals(t.getName()) && old.isCurrent(t)) {
+                terrs.add(old);
+            } else {
+                terrs.add(new TerritoryState(t, room.getTopology(), room.copyGarrison(i)));
+            }
+        }
+        List<PlayerState> ps = new ArrayList<>();
+        for (Player p : game.getAllPlayers()) {
+            ps.add(new PlayerState(p));
+        }
+        return new GameSnapshot(game, phase,
+                Collections.unmodifiableList(terrs), Collections.unmodifiableList(ps),
+                room == null ? null : room.getTopology());
+    }
+
+    /* ---------- Accessors ---------- */
+    public long getSeed() { return seed; }
+    public int getTurn() { return turn; }
+    public String getPhase() { return phase; }
+    /** ID of the winner, or -1 while the game is undecided. */
+    public int getWinnerID() { return winnerID; }
+    public int getInitialUnits() { return initialUnits; }
+    public CombatEngine.Mode getCombatMode() { return combatMode; }
+    public Ruleset getRules() { return rules; }
+    public List<TerritoryState> getTerritories() { return territories; }
+    public List<PlayerState> getPlayers() { return players; }
+    // The room's topology at capture time; territory sizes may since differ per room
+    MapTopology getTopology() { return topology; }
+
+    public TerritoryState getTerritory(String name) {
+        for (TerritoryState t : territories) {
+            if (t.name.equalsIgnoreCase(name)) return t;
+        }
+        return null;
+    }
+
+    /**
+     * Same text as Game.getMapState(), assembled from cached territory blocks.
+     */
+    public String getMapState() {
+        int length = Game.MAP_STATE_HEADER.length() + Game.MAP_STATE_FOOTER.length();
+        for (TerritoryState t : territories) {
+            length += t.renderState().length();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        writeMapState(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Streams the map state to out without building the whole text first.
+     */
+    public void writeMapState(Appendable out) {
+        try {
+            out.append(Game.MAP_STATE_HEADER);
+            for (TerritoryState t : territories) {
+                out.append(t.renderState());
+            }
+            out.append(Game.MAP_STATE_FOOTER);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
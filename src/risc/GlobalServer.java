@@ -3,7 +3,14 @@ package risc;
 import java.io.*;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 /**
  * Global server responsible for:
@@ -19,9 +26,23 @@ public class GlobalServer {
 
     // All game rooms: gameID -> RiscServer
     private final Map<String, RiscServer> games;
+    // Bounds for 'new ... map <territories>'
+    static final int MIN_GENERATED_MAP = 10;
+    static final int MAX_GENERATED_MAP = 100_000;
+    // Where 'new ... map <name>' looks for map files; null allows generated maps only
+    private Path mapDir;
+    // Where 'new ... rules <name>' looks for rules files; null allows the standard rules only
+    private Path rulesDir;
+    // Where rooms keep their snapshot and order log; null disables crash recovery
+    private final Path dataDir;
 
     public GlobalServer(int port) {
+        this(port, null);
+    }
+
+    public GlobalServer(int port, Path dataDir) {
         this.port = port;
+        this.dataDir = dataDir;
         this.userCredentials = new HashMap<>();
         this.onlineUsers = new HashMap<>();
         this.games = new HashMap<>();
@@ -32,11 +53,16 @@ public class GlobalServer {
 
     public static void main(String[] args) {
         int port = 12345;   // or obtain from args[]
-        GlobalServer gs = new GlobalServer(port);
+        GlobalServer gs = new GlobalServer(port, Paths.get(System.getProperty("risc.data", "rooms")));
+        gs.setMapDir(Paths.get(System.getProperty("risc.maps", "maps")));
+        gs.setRulesDir(Paths.get(System.getProperty("risc.rules", "rules")));
         gs.start();
     }
 
     public void start() {
+        if (dataDir != null) {
+            restoreRooms();
+        }
         try (ServerSocket ss = new ServerSocket(port)) {
             System.out.println("GlobalServer started, listening on port " + port);
             while (true) {
@@ -50,6 +76,83 @@ public class GlobalServer {
         }
     }
 
+    /**
+     * Rebuilds every unfinished room found in dataDir, in parallel, and waits for its players
+     * to rejoin it with 'join <gameID>'.
+     */
+    void restoreRooms() {
+        List<String> ids = new ArrayList<>();
+        if (Files.isDirectory(dataDir)) {
+            try (DirectoryStream<Path> snaps = Files.newDirectoryStream(dataDir, "*.snap")) {
+                for (Path p : snaps) {
+                    String file = p.getFileName().toString();
+                    ids.add(file.substring(0, file.length() - ".snap".length()));
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        Map<String, RiscServer> rooms = ids.parallelStream()
+                .map(id -> {
+                    try {
+                        RiscServer rs = RiscServer.restore(dataDir, id);
+                        return rs == null ? null : new AbstractMap.SimpleEntry<>(id, rs);
+                    } catch (IOException e) {
+                        System.out.println("Could not restore game " + id + ": " + e.getMessage());
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        for (Map.Entry<String, RiscServer> e : rooms.entrySet()) {
+            games.put(e.getKey(), e.getValue());
+            e.getValue().startServerLogic();
+        }
+        System.out.println("Restored games: " + rooms.keySet());
+    }
+
+    /**
+     * Directory searched by 'new ... map <name>' for &lt;name&gt;.rmap files.
+     */
+    public void setMapDir(Path mapDir) {
+        this.mapDir = mapDir;
+    }
+
+    /**
+     * Loads a map file from mapDir; names are plain words, so clients cannot reach other paths.
+     */
+    private MapTopology loadNamedMap(String name) throws IOException {
+        if (mapDir == null || !name.matches("[A-Za-z0-9_-]+")) {
+            throw new IOException("unknown map " + name);
+        }
+        return MapFile.load(mapDir.resolve(name + MapFile.EXTENSION));
+    }
+
+    /**
+     * Directory searched by 'new ... rules <name>' for &lt;name&gt;.rules files.
+     */
+    public void setRulesDir(Path rulesDir) {
+        this.rulesDir = rulesDir;
+    }
+
+    /**
+     * Loads and validates a rules file from rulesDir; names are plain words like map names.
+     */
+    private Ruleset loadNamedRules(String name) throws IOException {
+        if (rulesDir == null || !name.matches("[A-Za-z0-9_-]+")) {
+            throw new IOException("unknown rules " + name);
+        }
+        try {
+            return Ruleset.load(rulesDir.resolve(name + Ruleset.EXTENSION));
+        } catch (NoSuchFileException e) {
+            throw new IOException("unknown rules " + name, e);
+        }
+    }
+
+    Map<String, RiscServer> getGames() {
+        return games;
+    }
+
     /**
      * Handles a client's process: login -> select a room -> hand off to the corresponding RiscServer.
      */
@@ -139,7 +242,7 @@ public class GlobalServer {
      */
     private String selectOrCreateGame(BufferedReader in, PrintWriter out) throws IOException {
         out.println("Existing games: " + games.keySet());
-        out.println("Use: 'join <gameID>' or 'new <numPlayers> [ai]' to create a new game");
+        out.println("Use: 'join <gameID>' or 'new <numPlayers> [ai] [map <territories>|<name>] [rules <name>]' to create a new game");
         while (true) {
             String line = in.readLine();
             if (line == null) return null;
@@ -152,23 +255,72 @@ public class GlobalServer {
                     out.println("Game not found. Try again.");
                 }
 
+            } else if (line.startsWith("replay")) {
+                String[] parts = line.split("\\s+");
+                if (parts.length != 2 || dataDir == null) {
+                    out.println("Usage: replay <gameID> (needs a server data directory)");
+                    continue;
+                }
+                try {
+                    new ReplaySession(ReplayEngine.open(dataDir, parts[1]), in, out).run();
+                } catch (IOException ex) {
+                    out.println("Cannot replay game " + parts[1] + ": " + ex.getMessage());
+                }
+                out.println("Use: 'join <gameID>', 'new <numPlayers> [ai] [map <territories>|<name>] [rules <name>]' or 'replay <gameID>'");
+
             } else if (line.startsWith("new")) {
                 String[] parts = line.split("\\s+");
                 if (parts.length >= 2) {
                     try {
                         int humanCount = Integer.parseInt(parts[1]);
-                        boolean includeAI = parts.length >= 3 && parts[2].equalsIgnoreCase("ai");
+                        boolean includeAI = false;
+                        MapTopology map = null;
+                        String mapName = null;   // null for a generated map
+                        Ruleset rules = Ruleset.STANDARD;
+                        for (int i = 2; i < parts.length; i++) {
+                            if (parts[i].equalsIgnoreCase("ai")) {
+                                includeAI = true;
+                            } else if (parts[i].equalsIgnoreCase("map") && i + 1 < parts.length) {
+                                String arg = parts[++i];
+                                if (arg.chars().allMatch(Character::isDigit)) {
+                                    int size = Integer.parseInt(arg);
+                                    if (size < MIN_GENERATED_MAP || size > MAX_GENERATED_MAP) {
+                                        throw new NumberFormatException("map size out of range");
+                                    }
+                                    map = MapBuilder.generateMap(ThreadLocalRandom.current().nextLong(), size);
+                                    mapName = null;
+                                } else {
+                                    map = loadNamedMap(arg);
+                                    mapName = arg + MapFile.EXTENSION;
+                                }
+                            } else if (parts[i].equalsIgnoreCase("rules") && i + 1 < parts.length) {
+                                rules = loadNamedRules(parts[++i]);
+                            }
+                        }
+                        int seats = humanCount + (includeAI ? 1 : 0);
+                        if (humanCount < 1 || seats > Game.MAX_PLAYERS) {
+                            out.println("A game holds 1 to " + Game.MAX_PLAYERS + " players"
+                                    + (includeAI ? ", including the AI" : "") + ". Try again.");
+                            continue;
+                        }
                         String newID = UUID.randomUUID().toString().substring(0, 8);
-                        RiscServer rs = new RiscServer(humanCount, newID, includeAI);
+                        RiscServer rs = new RiscServer(humanCount, newID, includeAI, dataDir, map, rules);
                         games.put(newID, rs);
                         rs.startServerLogic();
-                        out.println("New game created. ID=" + newID + (includeAI ? " (with AI)" : " (no AI)"));
+                        out.println("New game created. ID=" + newID + (includeAI ? " (with AI)" : " (no AI)")
+                                + (map == null ? "" : mapName == null
+                                        ? " on a generated map of " + map.getTerritoryCount() + " territories"
+                                        : " on map " + mapName + " (" + map.getTerritoryCount() + " territories)")
+                                + (rules == Ruleset.STANDARD ? "" : " with custom rules"));
                         return newID;
+                    } catch (IOException ex) {
+                        out.println("Cannot load map or rules: " + ex.getMessage() + ". Try again.");
                     } catch (NumberFormatException ex) {
-                        out.println("Invalid numPlayers. Try again.");
+                        out.println("Invalid numPlayers or map size (" + MIN_GENERATED_MAP + "-" + MAX_GENERATED_MAP
+                                + "). Try again.");
                     }
                 } else {
-                    out.println("Usage: new <numPlayers> [ai]");
+                    out.println("Usage: new <numPlayers> [ai] [map <territories>|<name>] [rules <name>]");
                 }
 
             } else {
@@ -0,0 +1,85 @@
+package risc;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Simple deterministic baseline for simulations. Each turn it masses the level-0 units of
+ * neighbouring territories on its strongest border territory, attacks that territory's weakest
+ * enemy neighbour when it outnumbers the garrison, and lets every other territory attack on
+ * the same terms, as far as food allows. Good enough to drive games to a winner for balance
+ * and regression runs.
+ */
+public class GreedyOrderProvider implements OrderProvider {
+
+    @Override
+    public void issueOrders(Game game, Player player) {
+        int pid = player.getId();
+        int budget = player.getFood();
+
+        Territory staging = null;
+        int stagingUnits = -1;
+        for (Territory t : player.getTerritories()) {
+            int units = levelZero(t, pid);
+            if (units > stagingUnits && weakestEnemy(game, t, pid) != null) {
+                staging = t;
+                stagingUnits = units;
+            }
+        }
+        if (staging == null) return;
+
+        Set<Territory> emptied = new HashSet<>();
+        // Moves execute before attacks, so reinforcements arrive in time for the assault
+        for (Territory nbr : staging.getNeighbors()) {
+            if (nbr.getOwner() != player) continue;
+            int units = levelZero(nbr, pid);
+            int cost = (nbr.getSize() + staging.getSize()) * units;
+            if (units > 0 && cost <= budget
+                    && game.submitOrder(new MoveOrder(pid, nbr.getName(), staging.getName(), 0, units)) == null) {
+                budget -= cost;
+                stagingUnits += units;
+                emptied.add(nbr);
+            }
+        }
+
+        for (Territory src : player.getTerritories()) {
+            if (emptied.contains(src)) continue;
+            int units = src == staging ? stagingUnits : levelZero(src, pid);
+            if (units == 0 || units > budget) continue;
+            Territory target = weakestEnemy(game, src, pid);
+            if (target != null && units > garrison(target)
+                    && game.submitOrder(new AttackOrder(pid, src.getName(), target.getName(), 0, units)) == null) {
+                budget -= units;
+            }
+        }
+    }
+
+    private static Territory weakestEnemy(Game game, Territory src, int pid) {
+        Territory target = null;
+        int weakest = Integer.MAX_VALUE;
+        for (Territory nbr : src.getNeighbors()) {
+            Player owner = nbr.getOwner();
+            if (owner == null || owner.getId() == pid || game.getAlliances().isAllied(pid, owner.getId())) {
+                continue;
+            }
+            int defenders = garrison(nbr);
+            if (defenders < weakest) {
+                weakest = defenders;
+                target = nbr;
+            }
+        }
+        return target;
+    }
+
+    private static int levelZero(Territory t, int pid) {
+        return t.getUnits(pid, 0);
+    }
+
+    private static int garrison(Territory t) {
+        int sum = 0;
+        for (int c : t.getStationedUnitsMap(t.getOwner().getId()).values()) {
+            sum += c;
+        }
+        return sum;
+    }
+}
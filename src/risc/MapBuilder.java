@@ -18,6 +18,32 @@ public class MapBuilder {
         }
     }
 
+    // The built-in maps, shared by every room that plays on them
+    private static final MapTopology SIX = MapFile.intern(MapTopology.of(buildSixMap()));
+    private static final MapTopology EIGHT = MapFile.intern(MapTopology.of(buildEightMap()));
+    private static final MapTopology TEN = MapFile.intern(MapTopology.of(buildTenMap()));
+
+    /**
+     * Shared topology of the map buildMap would build for desiredPlayers.
+     */
+    public static MapTopology topologyFor(int desiredPlayers) {
+        if (desiredPlayers == 3) {
+            return SIX;
+        } else if (desiredPlayers == 5) {
+            return TEN;
+        } else {
+            return EIGHT;
+        }
+    }
+
+    /**
+     * Procedurally generated map with the given number of territories and default settings;
+     * see MapGenerator for the tunable version.
+     */
+    public static MapTopology generateMap(long seed, int territories) {
+        return new MapGenerator(seed).generate(territories);
+    }
+
     private static List<Territory> buildSixMap() {
         List<Territory> territories = new ArrayList<>();
         Territory t1 = new Territory("A");
@@ -0,0 +1,287 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Binary map file: a MapTopology's names, sizes, adjacency rows and optional layout.
+ *
+ * Layout (big-endian): magic, version (short), flags (short), territory count, adjacency
+ * length, then each name as length-prefixed UTF-8, the sizes, the n + 1 row offsets, the
+ * adjacency ids and, with the LAYOUT flag, the x and then the y coordinates as floats.
+ *
+ * Files are memory-mapped and decoded topologies are cached by the SHA-256 of the file, so
+ * every room on the same map shares one immutable topology. Topologies that come from
+ * elsewhere, such as the built-in maps or a restored snapshot, join the same cache through
+ * intern(). A file whose size and
+ * modification time are unchanged since it was last loaded is not even hashed again.
+ */
+public final class MapFile {
+    static final int MAGIC = 0x524D4150;   // "RMAP"
+    static final short VERSION = 1;
+    static final int LAYOUT = 1;
+    static final String EXTENSION = ".rmap";
+
+    // File hash -> decoded topology
+    private static final ConcurrentHashMap<String, MapTopology> byHash = new ConcurrentHashMap<>();
+    // Absolute path -> size, modification time and hash seen at the last load
+    private static final ConcurrentHashMap<Path, Stamp> stamps = new ConcurrentHashMap<>();
+
+    private static final class Stamp {
+        final long size;
+        final long modified;
+        final String hash;
+
+        Stamp(BasicFileAttributes attrs, String hash) {
+            this.size = attrs.size();
+            this.modified = attrs.lastModifiedTime().toMillis();
+            this.hash = hash;
+        }
+
+        boolean matches(BasicFileAttributes attrs) {
+            return size == attrs.size() && modified == attrs.lastModifiedTime().toMillis();
+        }
+    }
+
+    private MapFile() {}
+
+    /**
+     * Writes a generated map: java risc.MapFile &lt;seed&gt; &lt;territories&gt; &lt;file&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Usage: java risc.MapFile <seed> <territories> <file>");
+            return;
+        }
+        MapTopology map = MapBuilder.generateMap(Long.parseLong(args[0]), Integer.parseInt(args[1]));
+        write(map, Paths.get(args[2]));
+        System.out.println("Wrote " + map.getTerritoryCount() + " territories to " + args[2]);
+    }
+
+    /**
+     * Loads the map in file, reusing the cached topology when the same content was loaded before.
+     */
+    public static MapTopology load(Path file) throws IOException {
+        Path key = file.toAbsolutePath().normalize();
+        BasicFileAttributes attrs = Files.readAttributes(key, BasicFileAttributes.class);
+        Stamp stamp = stamps.get(key);
+        if (stamp != null && stamp.matches(attrs)) {
+            MapTopology cached = byHash.get(stamp.hash);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        try (FileChannel ch = FileChannel.open(key, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            String hash = hash(buf.duplicate());
+            MapTopology map = byHash.get(hash);
+            if (map == null) {
+                map = decode(buf);
+                MapTopology raced = byHash.putIfAbsent(hash, map);
+                if (raced != null) {
+                    map = raced;
+                }
+            }
+            stamps.put(key, new Stamp(attrs, hash));
+            return map;
+        }
+    }
+
+    /**
+     * The cached topology with the same content as map, caching map if there is none; content
+     * is compared by the hash of its map file encoding.
+     */
+    public static MapTopology intern(MapTopology map) {
+        MapTopology cached = byHash.putIfAbsent(hash(encode(map)), map);
+        return cached == null ? map : cached;
+    }
+
+    /**
+     * Number of distinct topologies held by the cache.
+     */
+    static int cachedCount() {
+        return byHash.size();
+    }
+
+    static void clearCache() {
+        byHash.clear();
+        stamps.clear();
+    }
+
+    /**
+     * Writes map to file through a temporary file, so readers never see a partial map.
+     */
+    public static void write(MapTopology map, Path file) throws IOException {
+        ByteBuffer buf = encode(map);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(false);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Encodes map; the returned buffer is flipped and ready to read.
+     */
+    public static ByteBuffer encode(MapTopology map) {
+        int n = map.getTerritoryCount();
+        byte[][] names = new byte[n][];
+        int namesBytes = 0;
+        int adjacencyLength = 0;
+        for (int i = 0; i < n; i++) {
+            names[i] = map.getName(i).getBytes(StandardCharsets.UTF_8);
+            namesBytes += 4 + names[i].length;
+            adjacencyLength += map.getNeighborCount(i);
+        }
+        int size = 16 + namesBytes + 4 * n + 4 * (n + 1) + 4 * adjacencyLength + (map.hasLayout() ? 8 * n : 0);
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(MAGIC);
+        buf.putShort(VERSION);
+        buf.putShort((short) (map.hasLayout() ? LAYOUT : 0));
+        buf.putInt(n);
+        buf.putInt(adjacencyLength);
+        for (byte[] name : names) {
+            buf.putInt(name.length);
+            buf.put(name);
+        }
+        for (int i = 0; i < n; i++) {
+            buf.putInt(map.getSize(i));
+        }
+        int offset = 0;
+        buf.putInt(offset);
+        for (int i = 0; i < n; i++) {
+            offset += map.getNeighborCount(i);
+            buf.putInt(offset);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int k = 0; k < map.getNeighborCount(i); k++) {
+                buf.putInt(map.getNeighbor(i, k));
+            }
+        }
+        if (map.hasLayout()) {
+            for (int i = 0; i < n; i++) {
+                buf.putFloat(map.getX(i));
+            }
+            for (int i = 0; i < n; i++) {
+                buf.putFloat(map.getY(i));
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /**
+     * Decodes a map from buf (read from its position).
+     */
+    public static MapTopology decode(ByteBuffer buf) throws IOException {
+        try {
+            if (buf.getInt() != MAGIC) {
+                throw new IOException("Not a RISC map file");
+            }
+            short version = buf.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported map file version " + version);
+            }
+            int flags = buf.getShort();
+            int n = buf.getInt();
+            int adjacencyLength = buf.getInt();
+            // Each territory needs at least a name length, a size and a row offset, and each
+            // neighbor an id; check the counts against the file before allocating for them
+            if (n < 0 || adjacencyLength < 0
+                    || 12L * n + 4 + 4L * adjacencyLength > buf.remaining()) {
+                throw new IOException("Corrupt map file: " + n + " territories and " + adjacencyLength
+                        + " neighbors do not fit in " + buf.remaining() + " bytes");
+            }
+            String[] names = new String[n];
+            for (int i = 0; i < n; i++) {
+                int length = buf.getInt();
+                if (length < 0 || length > buf.remaining()) {
+                    throw new IOException("Corrupt map file: bad name length at territory " + i);
+                }
+                byte[] bytes = new byte[length];
+                buf.get(bytes);
+                names[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+            int[] sizes = getInts(buf, n);
+            int[] offsets = getInts(buf, n + 1);
+            int[] adjacency = getInts(buf, adjacencyLength);
+            float[] x = null;
+            float[] y = null;
+            if ((flags & LAYOUT) != 0) {
+                x = getFloats(buf, n);
+                y = getFloats(buf, n);
+            }
+            if (offsets[0] != 0) {
+                throw new IOException("Corrupt map file: bad row offsets");
+            }
+            for (int i = 0; i < n; i++) {
+                if (offsets[i + 1] < offsets[i] || sizes[i] < 1) {
+                    throw new IOException("Corrupt map file at territory " + i);
+                }
+            }
+            if (offsets[n] != adjacencyLength) {
+                throw new IOException("Corrupt map file: row offsets end at " + offsets[n]
+                        + ", not at the adjacency length " + adjacencyLength);
+            }
+            for (int id : adjacency) {
+                if (id < 0 || id >= n) {
+                    throw new IOException("Corrupt map file: neighbor " + id + " out of range");
+                }
+            }
+            return new MapTopology(names, sizes, offsets, adjacency, x, y);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt map file", e);
+        }
+    }
+
+    private static int[] getInts(ByteBuffer buf, int count) {
+        int[] values = new int[count];
+        IntBuffer view = buf.asIntBuffer();
+        view.get(values);
+        buf.position(buf.position() + 4 * count);
+        return values;
+    }
+
+    private static float[] getFloats(ByteBuffer buf, int count) {
+        float[] values = new float[count];
+        FloatBuffer view = buf.asFloatBuffer();
+        view.get(values);
+        buf.position(buf.position() + 4 * count);
+        return values;
+    }
+
+    private static String hash(ByteBuffer content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(content);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
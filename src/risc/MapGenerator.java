@@ -0,0 +1,268 @@
+package risc;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Seeded generator of large connected maps. Territories sit on a jittered grid and may only
+ * border grid neighbors plus one diagonal per grid square, so the map stays planar. Every
+ * territory belongs to a region (a Voronoi cell around jittered region centers); a random
+ * spanning tree that prefers borders inside regions keeps the map connected, then further
+ * borders are added until the requested average degree is reached, with borders between
+ * regions kept rarer than borders inside them. Sizes are drawn around a per-region base.
+ *
+ * The same seed and settings always give the same map.
+ */
+public class MapGenerator {
+    private final long seed;
+    private double averageDegree = 4.0;
+    private int regionSize = 25;
+    private double regionIsolation = 0.75;
+    private int maxTerritorySize = 3;
+
+    public MapGenerator(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Target mean number of neighbors; clamped to what a connected planar grid map allows
+     * (from just above 2 for a tree up to about 6).
+     */
+    public MapGenerator setAverageDegree(double averageDegree) {
+        this.averageDegree = averageDegree;
+        return this;
+    }
+
+    /**
+     * Approximate number of territories per region; 1 or less disables regions.
+     */
+    public MapGenerator setRegionSize(int regionSize) {
+        this.regionSize = regionSize;
+        return this;
+    }
+
+    /**
+     * Probability of skipping an extra border between two regions, from 0 (regions do not
+     * matter) to 1 (regions are joined only by the spanning tree).
+     */
+    public MapGenerator setRegionIsolation(double regionIsolation) {
+        this.regionIsolation = regionIsolation;
+        return this;
+    }
+
+    /**
+     * Territory sizes are drawn from 1..maxTerritorySize.
+     */
+    public MapGenerator setMaxTerritorySize(int maxTerritorySize) {
+        this.maxTerritorySize = maxTerritorySize;
+        return this;
+    }
+
+    public MapTopology generate(int territories) {
+        if (territories < 2) {
+            throw new IllegalArgumentException("A map needs at least 2 territories");
+        }
+        if (maxTerritorySize < 1) {
+            throw new IllegalArgumentException("Territory sizes start at 1");
+        }
+        int n = territories;
+        SplittableRandom rnd = new SplittableRandom(seed);
+        int w = (int) Math.ceil(Math.sqrt(n));
+        int h = (n + w - 1) / w;
+
+        // Jittered grid positions
+        float[] x = new float[n];
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = (float) (i % w + 0.5 + (rnd.nextDouble() - 0.5) * 0.7);
+            y[i] = (float) (i / w + 0.5 + (rnd.nextDouble() - 0.5) * 0.7);
+        }
+
+        int[] region = assignRegions(x, y, w, h, rnd);
+
+        // Candidate borders: right, down and one diagonal per grid square
+        int[] ea = new int[3 * n];
+        int[] eb = new int[3 * n];
+        int m = 0;
+        for (int i = 0; i < n; i++) {
+            int col = i % w;
+            boolean right = col + 1 < w && i + 1 < n;
+            if (right) {
+                ea[m] = i;
+                eb[m++] = i + 1;
+            }
+            if (i + w < n) {
+                ea[m] = i;
+                eb[m++] = i + w;
+            }
+            if (right && i + w + 1 < n) {
+                if (rnd.nextBoolean()) {
+                    ea[m] = i;
+                    eb[m++] = i + w + 1;
+                } else {
+                    ea[m] = i + 1;
+                    eb[m++] = i + w;
+                }
+            }
+        }
+
+        // Kruskal over a random order, borders inside a region first
+        int[] order = new int[m];
+        int intra = 0;
+        for (int e = 0; e < m; e++) {
+            if (region[ea[e]] == region[eb[e]]) order[intra++] = e;
+        }
+        int inter = intra;
+        for (int e = 0; e < m; e++) {
+            if (region[ea[e]] != region[eb[e]]) order[inter++] = e;
+        }
+        shuffle(order, 0, intra, rnd);
+        shuffle(order, intra, m, rnd);
+        boolean[] used = new boolean[m];
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) {
+            parent[i] = i;
+        }
+        int edges = 0;
+        for (int k = 0; k < m && edges < n - 1; k++) {
+            int e = order[k];
+            int ra = find(parent, ea[e]);
+            int rb = find(parent, eb[e]);
+            if (ra != rb) {
+                parent[ra] = rb;
+                used[e] = true;
+                edges++;
+            }
+        }
+
+        // Extra borders up to the target degree, in fresh random order
+        int target = (int) Math.min(m, Math.max(n - 1, Math.round(averageDegree * n / 2)));
+        int spare = 0;
+        for (int e = 0; e < m; e++) {
+            if (!used[e]) order[spare++] = e;
+        }
+        shuffle(order, 0, spare, rnd);
+        for (int pass = 0; pass < 2 && edges < target; pass++) {
+            for (int k = 0; k < spare && edges < target; k++) {
+                int e = order[k];
+                if (used[e]) continue;
+                // Second pass takes whatever the first one skipped
+                if (pass == 0 && region[ea[e]] != region[eb[e]] && rnd.nextDouble() < regionIsolation) continue;
+                used[e] = true;
+                edges++;
+            }
+        }
+
+        // Compressed adjacency rows, sorted by neighbor id
+        int[] offsets = new int[n + 1];
+        for (int e = 0; e < m; e++) {
+            if (used[e]) {
+                offsets[ea[e] + 1]++;
+                offsets[eb[e] + 1]++;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            offsets[i + 1] += offsets[i];
+        }
+        int[] adjacency = new int[offsets[n]];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < m; e++) {
+            if (used[e]) {
+                adjacency[fill[ea[e]]++] = eb[e];
+                adjacency[fill[eb[e]]++] = ea[e];
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            Arrays.sort(adjacency, offsets[i], offsets[i + 1]);
+        }
+
+        // Sizes vary around a base drawn per region
+        int regions = 0;
+        for (int r : region) {
+            regions = Math.max(regions, r + 1);
+        }
+        int[] base = new int[regions];
+        for (int r = 0; r < regions; r++) {
+            base[r] = 1 + rnd.nextInt(maxTerritorySize);
+        }
+        int[] sizes = new int[n];
+        String[] names = new String[n];
+        for (int i = 0; i < n; i++) {
+            int s = base[region[i]] + rnd.nextInt(3) - 1;
+            sizes[i] = Math.max(1, Math.min(maxTerritorySize, s));
+            names[i] = name(i);
+        }
+        return new MapTopology(names, sizes, offsets, adjacency, x, y);
+    }
+
+    /**
+     * Nearest jittered region center, searched among the 3x3 centers around the territory.
+     */
+    private int[] assignRegions(float[] x, float[] y, int w, int h, SplittableRandom rnd) {
+        int n = x.length;
+        int[] region = new int[n];
+        if (regionSize <= 1) {
+            return region;
+        }
+        int side = Math.max(1, (int) Math.round(Math.sqrt(regionSize)));
+        int cw = (w + side - 1) / side;
+        int ch = (h + side - 1) / side;
+        float[] cx = new float[cw * ch];
+        float[] cy = new float[cw * ch];
+        for (int c = 0; c < cw * ch; c++) {
+            cx[c] = (float) ((c % cw + 0.5 + (rnd.nextDouble() - 0.5) * 0.8) * side);
+            cy[c] = (float) ((c / cw + 0.5 + (rnd.nextDouble() - 0.5) * 0.8) * side);
+        }
+        for (int i = 0; i < n; i++) {
+            int gx = Math.min(cw - 1, (int) (x[i] / side));
+            int gy = Math.min(ch - 1, (int) (y[i] / side));
+            int best = -1;
+            float bestDist = Float.MAX_VALUE;
+            for (int dy = -1; dy <= 1; dy++) {
+                for (int dx = -1; dx <= 1; dx++) {
+                    int ax = gx + dx;
+                    int ay = gy + dy;
+                    if (ax < 0 || ay < 0 || ax >= cw || ay >= ch) continue;
+                    int c = ay * cw + ax;
+                    float ddx = x[i] - cx[c];
+                    float ddy = y[i] - cy[c];
+                    float d = ddx * ddx + ddy * ddy;
+                    if (d < bestDist) {
+                        bestDist = d;
+                        best = c;
+                    }
+                }
+            }
+            region[i] = best;
+        }
+        return region;
+    }
+
+    private static void shuffle(int[] a, int from, int to, SplittableRandom rnd) {
+        for (int i = to - 1; i > from; i--) {
+            int j = from + rnd.nextInt(i - from + 1);
+            int tmp = a[i];
+            a[i] = a[j];
+            a[j] = tmp;
+        }
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * A, B, ..., Z, AA, AB, ...: the naming of the built-in maps, extended.
+     */
+    static String name(int index) {
+        StringBuilder sb = new StringBuilder();
+        for (int v = index + 1; v > 0; v = (v - 1) / 26) {
+            sb.append((char) ('A' + (v - 1) % 26));
+        }
+        return sb.reverse().toString();
+    }
+}
@@ -24,6 +24,13 @@ public class MapPanel extends JPanel {
         territoryPositions.put("J", new Point(300, 500));
     }
 
+    // Pixels per map unit and margins when positions come from a map file's layout
+    static final int LAYOUT_SCALE = 90;
+    static final int LAYOUT_MARGIN_X = 60;
+    static final int LAYOUT_MARGIN_Y = 100;
+
+    // Positions from a loaded map layout; when null, the fixed layout above is used
+    private Map<String, Point> layoutPositions;
     private Map<String, ClientTerritoryData> terrs = new HashMap<>();
     private final java.util.List<MoveOrder> moves = new ArrayList<>();
     private static final Font NAME_FONT = new Font("SansSerif", Font.BOLD, 16);
@@ -39,8 +46,7 @@ public class MapPanel extends JPanel {
      */
     public void updateMapData(Map<String, ClientTerritoryData> data) {
         data.forEach((n, d) -> {
-            Point p = territoryPositions.getOrDefault(n,
-                    new Point(50, 50 + terrs.size() * 20));
+            Point p = positionOf(n);
             d.x = p.x; d.y = p.y;
         });
         this.terrs = data;
@@ -48,6 +54,39 @@ public class MapPanel extends JPanel {
         repaint();
     }
 
+    /**
+     * Places territories by the layout coordinates of map (if it has any) instead of the
+     * fixed layout, and sizes the panel to fit.
+     */
+    public void useLayout(MapTopology map) {
+        if (!map.hasLayout()) {
+            return;
+        }
+        Map<String, Point> positions = new HashMap<>();
+        int maxX = 0, maxY = 0;
+        for (int i = 0; i < map.getTerritoryCount(); i++) {
+            int x = LAYOUT_MARGIN_X + Math.round(map.getX(i) * LAYOUT_SCALE);
+            int y = LAYOUT_MARGIN_Y + Math.round(map.getY(i) * LAYOUT_SCALE);
+            positions.put(map.getName(i), new Point(x, y));
+            maxX = Math.max(maxX, x);
+            maxY = Math.max(maxY, y);
+        }
+        this.layoutPositions = positions;
+        setPreferredSize(new Dimension(maxX + LAYOUT_MARGIN_X, maxY + LAYOUT_MARGIN_X));
+        revalidate();
+    }
+
+    /**
+     * Center of the named territory under the current layout.
+     */
+    Point positionOf(String name) {
+        Point p = layoutPositions == null ? null : layoutPositions.get(name);
+        if (p == null) {
+            p = territoryPositions.getOrDefault(name, new Point(50, 50 + terrs.size() * 20));
+        }
+        return p;
+    }
+
     /**
      * Add a move order to render
      */
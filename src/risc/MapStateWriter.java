@@ -0,0 +1,36 @@
+package risc;
+
+import java.io.Flushable;
+import java.io.IOException;
+
+/**
+ * Streams a map-state message (header line plus Game.getMapState() text) into an output sink
+ * such as a client's PrintWriter or the server log. Cached territory blocks are written one by
+ * one and the sink is flushed every CHUNK_CHARS, so a broadcast never builds the whole text
+ * and the memory it holds does not grow with the map.
+ */
+public final class MapStateWriter {
+    static final int CHUNK_CHARS = 8192;
+
+    private MapStateWriter() {}
+
+    /**
+     * Writes the same characters as println(header + snapshot.getMapState()).
+     */
+    public static <T extends Appendable & Flushable> void write(String header, GameSnapshot snapshot, T out)
+            throws IOException {
+        out.append(header).append(Game.MAP_STATE_HEADER);
+        int pending = header.length() + Game.MAP_STATE_HEADER.length();
+        for (GameSnapshot.TerritoryState t : snapshot.getTerritories()) {
+            String block = t.renderState();
+            out.append(block);
+            pending += block.length();
+            if (pending >= CHUNK_CHARS) {
+                out.flush();
+                pending = 0;
+            }
+        }
+        out.append(Game.MAP_STATE_FOOTER).append(System.lineSeparator());
+        out.flush();
+    }
+}
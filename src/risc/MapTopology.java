@@ -0,0 +1,149 @@
+package risc;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable description of a map: territory names, sizes and adjacency, plus optional layout
+ * coordinates. Adjacency is kept in compressed rows (the neighbors of territory i are
+ * adjacency[offsets[i] .. offsets[i + 1])), so a map with many thousands of territories is a
+ * handful of arrays rather than a graph of objects.
+ */
+public final class MapTopology {
+    private final String[] names;
+    private final int[] sizes;
+    private final int[] offsets;
+    private final int[] adjacency;
+    // Layout in map units, or null when the map has none
+    private final float[] x;
+    private final float[] y;
+    // Lower-cased name -> id, built on first lookup; racing builders produce equal maps
+    private volatile Map<String, Integer> byName;
+
+    MapTopology(String[] names, int[] sizes, int[] offsets, int[] adjacency, float[] x, float[] y) {
+        if (sizes.length != names.length || offsets.length != names.length + 1
+                || offsets[names.length] != adjacency.length) {
+            throw new IllegalArgumentException("Inconsistent map arrays");
+        }
+        if ((x == null) != (y == null) || (x != null && (x.length != names.length || y.length != names.length))) {
+            throw new IllegalArgumentException("Layout must give both coordinates for every territory");
+        }
+        this.names = names;
+        this.sizes = sizes;
+        this.offsets = offsets;
+        this.adjacency = adjacency;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Captures the topology of a hand-built map; territories are numbered by list position.
+     */
+    public static MapTopology of(List<Territory> map) {
+        int n = map.size();
+        String[] names = new String[n];
+        int[] sizes = new int[n];
+        int[] offsets = new int[n + 1];
+        IdentityHashMap<Territory, Integer> index = new IdentityHashMap<>();
+        for (int i = 0; i < n; i++) {
+            Territory t = map.get(i);
+            names[i] = t.getName();
+            sizes[i] = t.getSize();
+            offsets[i + 1] = offsets[i] + t.getNeighbors().size();
+            index.put(t, i);
+        }
+        int[] adjacency = new int[offsets[n]];
+        for (int i = 0; i < n; i++) {
+            int k = offsets[i];
+            for (Territory nb : map.get(i).getNeighbors()) {
+                Integer id = index.get(nb);
+                if (id == null) {
+                    throw new IllegalArgumentException(names[i] + " borders a territory outside the map");
+                }
+                adjacency[k++] = id;
+            }
+        }
+        return new MapTopology(names, sizes, offsets, adjacency, null, null);
+    }
+
+    public int getTerritoryCount() {
+        return names.length;
+    }
+
+    public String getName(int id) {
+        return names[id];
+    }
+
+    public int getSize(int id) {
+        return sizes[id];
+    }
+
+    public int getNeighborCount(int id) {
+        return offsets[id + 1] - offsets[id];
+    }
+
+    public int getNeighbor(int id, int k) {
+        return adjacency[offsets[id] + k];
+    }
+
+    /**
+     * Number of borders, each counted once.
+     */
+    public int getEdgeCount() {
+        return adjacency.length / 2;
+    }
+
+    public boolean hasLayout() {
+        return x != null;
+    }
+
+    public float getX(int id) {
+        return x[id];
+    }
+
+    public float getY(int id) {
+        return y[id];
+    }
+
+    /**
+     * Copy of this topology with one more (directed) border from one territory to another.
+     */
+    MapTopology withNeighbor(int from, int to) {
+        int[] grownOffsets = offsets.clone();
+        for (int i = from + 1; i < grownOffsets.length; i++) {
+            grownOffsets[i]++;
+        }
+        int at = offsets[from + 1];
+        int[] grown = new int[adjacency.length + 1];
+        System.arraycopy(adjacency, 0, grown, 0, at);
+        grown[at] = to;
+        System.arraycopy(adjacency, at, grown, at + 1, adjacency.length - at);
+        return new MapTopology(names, sizes, grownOffsets, grown, x, y);
+    }
+
+    /**
+     * Builds the territories of a fresh room on this map; they share this topology.
+     */
+    public List<Territory> toTerritories() {
+        return new RoomState(this).territories();
+    }
+
+    /**
+     * Id of the territory with the given name, ignoring case, or -1.
+     */
+    public int indexOf(String name) {
+        Map<String, Integer> index = byName;
+        if (index == null) {
+            index = new HashMap<>(names.length * 2);
+            for (int i = 0; i < names.length; i++) {
+                index.putIfAbsent(names[i].toLowerCase(Locale.ROOT), i);
+            }
+            byName = index;
+        }
+        Integer id = index.get(name.toLowerCase(Locale.ROOT));
+        return id == null ? -1 : id;
+    }
+}
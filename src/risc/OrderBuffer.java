@@ -0,0 +1,102 @@
+package risc;
+
+import java.util.Arrays;
+
+/**
+ * One turn's orders packed into a growable long[], two words per order, with territory and
+ * player names already resolved to ids:
+ *
+ *   word 0: type (8 bits) | player (8) | target level (8) | level (8) | count (32)
+ *   word 1: source id (32) | destination id (32)
+ *
+ * Ids are -1 when a name did not resolve. An alliance order keeps the target player's id in
+ * the destination field. Player ids (0 to MAX_PLAYER) and levels (-128 to 127) are stored as
+ * signed bytes; add() rejects anything that would not read back as given.
+ */
+final class OrderBuffer {
+    static final int MOVE = 1;
+    static final int ATTACK = 2;
+    static final int UPGRADE = 3;
+    static final int TECH = 4;
+    static final int ALLIANCE = 5;
+    static final int MAX_PLAYER = Byte.MAX_VALUE;
+
+    private long[] words = new long[64];
+    private int size;
+
+    /**
+     * Appends an order and returns its index.
+     */
+    int add(int type, int player, int source, int dest, int level, int targetLevel, int count) {
+        if (player < 0 || player > MAX_PLAYER) {
+            throw new IllegalArgumentException("Player id " + player + " is outside 0.." + MAX_PLAYER);
+        }
+        if (level != (byte) level || targetLevel != (byte) targetLevel) {
+            throw new IllegalArgumentException("Unit level " + (level != (byte) level ? level : targetLevel)
+                    + " is outside " + Byte.MIN_VALUE + ".." + Byte.MAX_VALUE);
+        }
+        if (2 * size + 2 > words.length) {
+            words = Arrays.copyOf(words, words.length * 2);
+        }
+        words[2 * size] = (long) (type & 0xFF) << 56 | (long) (player & 0xFF) << 48
+                | (long) (targetLevel & 0xFF) << 40 | (long) (level & 0xFF) << 32 | (count & 0xFFFFFFFFL);
+        words[2 * size + 1] = (long) source << 32 | (dest & 0xFFFFFFFFL);
+        return size++;
+    }
+
+    /**
+     * Packs a submitted order; names must already be resolved to the given ids.
+     */
+    int add(Order o, int source, int dest) {
+        if (o instanceof MoveOrder) {
+            return add(MOVE, o.getPlayerID(), source, dest, ((MoveOrder) o).getLevel(), 0, o.getNumUnits());
+        } else if (o instanceof AttackOrder) {
+            return add(ATTACK, o.getPlayerID(), source, dest, ((AttackOrder) o).getLevel(), 0, o.getNumUnits());
+        } else if (o instanceof UpgradeUnitOrder) {
+            UpgradeUnitOrder u = (UpgradeUnitOrder) o;
+            return add(UPGRADE, o.getPlayerID(), source, source, u.getCurrentLevel(), u.getTargetLevel(),
+                    o.getNumUnits());
+        } else if (o instanceof TechUpgradeOrder) {
+            return add(TECH, o.getPlayerID(), -1, -1, 0, 0, 0);
+        } else if (o instanceof AllianceOrder) {
+            return add(ALLIANCE, o.getPlayerID(), -1, ((AllianceOrder) o).getTargetPlayerID(), 0, 0, 0);
+        }
+        throw new IllegalArgumentException("Unknown order type " + o.getClass().getSimpleName());
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    int type(int i) {
+        return (int) (words[2 * i] >>> 56);
+    }
+
+    int player(int i) {
+        return (byte) (words[2 * i] >>> 48);
+    }
+
+    int targetLevel(int i) {
+        return (byte) (words[2 * i] >>> 40);
+    }
+
+    int level(int i) {
+        return (byte) (words[2 * i] >>> 32);
+    }
+
+    int count(int i) {
+        return (int) words[2 * i];
+    }
+
+    int source(int i) {
+        return (int) (words[2 * i + 1] >> 32);
+    }
+
+    int dest(int i) {
+        return (int) words[2 * i + 1];
+    }
+}
@@ -1,49 +1,42 @@
 package risc;
 
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 public class OrderExecutor {
     private final Game game;
 
-    // Example data for unit upgrade costs and combat bonuses
-    private static final int[] UNIT_TOTAL_COST = {0, 3, 8, 19, 25, 35, 50};
-    private static final int[] UNIT_BONUS      = {0, 1, 3,  5,  8, 11, 15};
-
-    private static final Map<Integer, Integer> TECH_UPGRADE_COST = new HashMap<>();
-    static {
-        TECH_UPGRADE_COST.put(1, 50);
-        TECH_UPGRADE_COST.put(2, 75);
-        TECH_UPGRADE_COST.put(3, 125);
-        TECH_UPGRADE_COST.put(4, 200);
-        TECH_UPGRADE_COST.put(5, 300);
-    }
+    // Below this many independent attack groups the fork-join hand-off costs more than it saves
+    private static final int PARALLEL_GROUPS = 4;
 
     public OrderExecutor(Game game) {
         this.game = game;
     }
 
+
     // ===================================
     // 1) Move Orders
     // ===================================
     public void executeMoveOrders() {
-        List<MoveOrder> moves = new ArrayList<>();
-        for (Order o : game.getAllOrders()) {
-            if (o instanceof MoveOrder) {
-                moves.add((MoveOrder) o);
+        OrderBuffer orders = game.getOrderBuffer();
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.type(i) != OrderBuffer.MOVE) {
+                continue;
             }
-        }
-        for (MoveOrder m : moves) {
-            if (!validateMove(m)) {
+            Player p = game.getPlayer(orders.player(i));
+            Territory src = territory(orders.source(i));
+            Territory dest = territory(orders.dest(i));
+            int level = orders.level(i);
+            int units = orders.count(i);
+            if (!validateMove(p, src, dest, level, units)) {
                 continue;
             }
-            Player p = game.getPlayer(m.getPlayerID());
-            Territory src = game.getTerritoryByName(m.getSourceName());
-            Territory dest = game.getTerritoryByName(m.getDestName());
-            int level = m.getLevel();
-            int units = m.getNumUnits();
 
             // Calculate movement cost
-            int pathCost = findMinPathSizeSum(src, dest, p);
+            int pathCost = game.getPathCost().minSizeSum(game, src, dest, p);
             if (pathCost < 0) {
                 continue;
             }
@@ -57,120 +50,81 @@ public class OrderExecutor {
             }
             // Add units to destination
             dest.addUnits(p.getId(), level, units);
-            game.broadcast(p.getName() + " moves " + units + " L" + level + " from "
-                    + src.getName() + " to " + dest.getName());
+            game.publish(new GameEvent.Moved(p.getId(), level, units, src.getId(), dest.getId()));
         }
     }
 
-    private boolean validateMove(MoveOrder m) {
-        Player p = game.getPlayer(m.getPlayerID());
-        Territory src = game.getTerritoryByName(m.getSourceName());
-        Territory dest = game.getTerritoryByName(m.getDestName());
+    /**
+     * The territory with the given id, or null for an order whose name did not resolve.
+     */
+    private Territory territory(int id) {
+        return id < 0 ? null : game.getRoom().territory(id);
+    }
+
+    private boolean validateMove(Player p, Territory src, Territory dest, int level, int units) {
         if (src == null || dest == null) return false;
 
         // Only allow moves within territories owned by the player or their allies
-        if (!isOwnedOrAllied(src, p)) return false;
-        if (!isOwnedOrAllied(dest, p)) return false;
+        long[] passable = game.getPassable(p.getId());
+        if (!isPassable(passable, src)) return false;
+        if (!isPassable(passable, dest)) return false;
 
         // Check if source has enough units
-        Map<Integer,Integer> srcMap = src.getStationedUnitsMap(p.getId());
-        int have = srcMap.getOrDefault(m.getLevel(), 0);
-        return have >= m.getNumUnits();
+        int have = src.getUnits(p.getId(), level);
+        return have >= units;
     }
 
-    private boolean isOwnedOrAllied(Territory t, Player p) {
-        if (t.getOwner() == p) return true;
-        if (t.getOwner() != null && p.isAlliedWith(t.getOwner().getId())) {
-            return true;
-        }
-        return false;
-    }
-
-    /**
-     * Uses BFS to find the minimum sum of territory sizes along a path through
-     * territories owned by the player or their allies.
-     * Returns the sum of sizes, or -1 if no valid path exists.
-     */
-    private int findMinPathSizeSum(Territory start, Territory end, Player p) {
-        Queue<PathNode> queue = new LinkedList<>();
-        queue.offer(new PathNode(start, start.getSize()));
-        Set<Territory> visited = new HashSet<>();
-        visited.add(start);
-
-        while (!queue.isEmpty()) {
-            PathNode cur = queue.poll();
-            if (cur.terr == end) {
-                return cur.costSum;
-            }
-            for (Territory nbr : cur.terr.getNeighbors()) {
-                if (!visited.contains(nbr)) {
-                    if (isOwnedOrAllied(nbr, p)) {
-                        visited.add(nbr);
-                        queue.offer(new PathNode(nbr, cur.costSum + nbr.getSize()));
-                    }
-                }
-            }
-        }
-        return -1;
-    }
-
-    private static class PathNode {
-        Territory terr;
-        int costSum;
-        public PathNode(Territory t, int cost) {
-            this.terr = t;
-            this.costSum = cost;
-        }
+    private static boolean isPassable(long[] passable, Territory t) {
+        int id = t.getId();
+        return (passable[id >>> 6] & (1L << id)) != 0;
     }
 
     // ===================================
     // 2) Alliance Orders
     // ===================================
     public void executeAllianceOrders() {
-        // Collect alliance requests: initiator -> list of target names
-        Map<Integer, List<String>> allianceRequests = new HashMap<>();
-        for (Order o : game.getAllOrders()) {
-            if (o instanceof AllianceOrder) {
-                AllianceOrder ao = (AllianceOrder) o;
-                allianceRequests
-                        .computeIfAbsent(ao.getPlayerID(), k -> new ArrayList<>())
-                        .add(ao.getTargetPlayerName());
-            }
+        // Requests as a bit matrix (initiator row, target column); duplicates collapse into one bit
+        int n = game.getAllPlayers().size();
+        long[][] requested = new long[n][(n + 63) >>> 6];
+        // Distinct targets per initiator, in submission order
+        List<List<Integer>> targets = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            targets.add(new ArrayList<>());
         }
-
-        // Map usernames to player IDs
-        Map<String, Integer> nameToId = new HashMap<>();
-        for (Player p : game.getAllPlayers()) {
-            nameToId.put(p.getName(), p.getId());
+        OrderBuffer orders = game.getOrderBuffer();
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.type(i) != OrderBuffer.ALLIANCE) {
+                continue;
+            }
+            int pA = orders.player(i);
+            int pB = orders.dest(i);   // target resolved at submission
+            // Skip invalid or self-targeted requests
+            if (pA < 0 || pA >= n || pB < 0 || pB >= n || pB == pA) {
+                continue;
+            }
+            long bit = 1L << pB;
+            if ((requested[pA][pB >>> 6] & bit) == 0) {
+                requested[pA][pB >>> 6] |= bit;
+                targets.get(pA).add(pB);
+            }
         }
 
         // Match requests bidirectionally
-        for (Map.Entry<Integer, List<String>> entry : allianceRequests.entrySet()) {
-            int pA = entry.getKey();
+        for (int pA = 0; pA < n; pA++) {
             Player playerA = game.getPlayer(pA);
             if (!playerA.isAlive()) continue;
 
-            for (String targetName : entry.getValue()) {
-                Integer pB = nameToId.get(targetName);
-                // Skip invalid or self-targeted requests
-                if (pB == null || pB == pA) {
-                    continue;
-                }
-
+            for (int pB : targets.get(pA)) {
                 Player playerB = game.getPlayer(pB);
                 if (!playerB.isAlive()) continue;
 
                 // Check if B also requested alliance with A
-                List<String> bRequests = allianceRequests.get(pB);
-                if (bRequests != null && bRequests.contains(playerA.getName())) {
+                if ((requested[pB][pA >>> 6] & (1L << pA)) != 0) {
                     // Form alliance if not already allied
-                    if (!playerA.isAlliedWith(pB)) {
-                        playerA.addAlly(pB);
-                        playerB.addAlly(pA);
+                    if (game.formAlliance(pA, pB)) {
                         System.out.println("Alliance formed between "
                                 + playerA.getName() + " and " + playerB.getName());
-                        game.broadcast("Alliance formed between "
-                                + playerA.getName() + " and " + playerB.getName() + "!");
+                        game.publish(new GameEvent.AllianceFormed(pA, pB));
                     }
                 }
             }
@@ -181,209 +135,279 @@ public class OrderExecutor {
     // 3) Attack Orders
     // ===================================
     public void executeAttackOrders() {
-        List<AttackOrder> attacks = new ArrayList<>();
-        for (Order o : game.getAllOrders()) {
-            if (o instanceof AttackOrder) {
-                attacks.add((AttackOrder) o);
+        OrderBuffer orders = game.getOrderBuffer();
+        int[] attacks = new int[orders.size()];
+        int count = 0;
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.type(i) == OrderBuffer.ATTACK) {
+                attacks[count++] = i;
             }
         }
+        attacks = Arrays.copyOf(attacks, count);
 
         // First, handle alliance breaking and recall troops
-        for (AttackOrder ao : attacks) {
-            Player attacker = game.getPlayer(ao.getPlayerID());
-            Territory dest = game.getTerritoryByName(ao.getDestName());
+        for (int i : attacks) {
+            Player attacker = game.getPlayer(orders.player(i));
+            Territory dest = territory(orders.dest(i));
             if (dest == null) continue;
 
             Player defender = dest.getOwner();
-            if (defender != null && attacker.isAlliedWith(defender.getId())) {
+            if (defender != null && game.getAlliances().isAllied(attacker.getId(), defender.getId())) {
                 // Break alliance and recall defender's troops
                 breakAllianceAndRecall(attacker, defender);
             }
         }
 
-        // Then process standard attacks
-        for (AttackOrder ao : attacks) {
-            if (!validateAttack(ao)) {
-                continue;
+        // Then resolve standard attacks, independent destinations in parallel
+        List<AttackGroup> groups = groupAttacks(orders, attacks);
+        if (groups.size() < PARALLEL_GROUPS) {
+            for (AttackGroup g : groups) g.run();
+        } else {
+            List<Callable<Object>> tasks = new ArrayList<>();
+            for (AttackGroup g : groups) tasks.add(Executors.callable(g));
+            for (Future<Object> f : game.getAttackPool().invokeAll(tasks)) {
+                awaitGroup(f);
             }
-            Player attacker = game.getPlayer(ao.getPlayerID());
-            Territory src = game.getTerritoryByName(ao.getSourceName());
-            Territory dest = game.getTerritoryByName(ao.getDestName());
-            int level = ao.getLevel();
-            int units = ao.getNumUnits();
-
-            // Spend food for attack
-            int costFood = units;
-            if (!attacker.spendFood(costFood)) {
-                continue;
+        }
+        // Apply shared side effects in a fixed order, whatever order the groups finished in
+        for (AttackGroup g : groups) {
+            g.commit();
+        }
+    }
+
+    /**
+     * Rethrows whatever a battle group threw, so that no group is committed after a failure.
+     */
+    private static void awaitGroup(Future<?> f) {
+        try {
+            f.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new IllegalStateException("Battle group failed", cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while resolving battles", e);
+        }
+    }
+
+    /**
+     * Splits attacks into groups that can be resolved independently. Attacks are linked when
+     * they touch a common territory (as source or destination), and all attacks of a player
+     * whose total food cost exceeds their food are linked, since then order decides which fail.
+     * Groups and the attacks inside them keep submission order.
+     */
+    private List<AttackGroup> groupAttacks(OrderBuffer orders, int[] attacks) {
+        int n = attacks.length;
+        int[] parent = new int[n];
+        for (int i = 0; i < n; i++) parent[i] = i;
+
+        Map<Integer, Integer> lastTouch = new HashMap<>();
+        Map<Integer, Integer> foodNeeded = new HashMap<>();
+        Map<Integer, Integer> firstOfPlayer = new HashMap<>();
+        for (int i = 0; i < n; i++) {
+            int a = attacks[i];
+            for (int id : new int[]{orders.source(a), orders.dest(a)}) {
+                if (id < 0) continue;
+                Integer prev = lastTouch.put(id, i);
+                if (prev != null) union(parent, prev, i);
             }
-            // Remove units from source
-            if (!src.removeUnits(attacker.getId(), level, units)) {
-                continue;
+            foodNeeded.merge(orders.player(a), orders.count(a), Integer::sum);
+            firstOfPlayer.putIfAbsent(orders.player(a), i);
+        }
+        for (int i = 0; i < n; i++) {
+            int pid = orders.player(attacks[i]);
+            if (foodNeeded.get(pid) > game.getPlayer(pid).getFood()) {
+                union(parent, firstOfPlayer.get(pid), i);
+            }
+        }
+
+        Map<Integer, AttackGroup> byRoot = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            byRoot.computeIfAbsent(find(parent, i), r -> new AttackGroup(orders)).add(attacks[i]);
+        }
+        return new ArrayList<>(byRoot.values());
+    }
+
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int ra = find(parent, a), rb = find(parent, b);
+        // Keep the earliest attack as root so groups come out in submission order
+        if (ra < rb) parent[rb] = ra;
+        else if (rb < ra) parent[ra] = rb;
+    }
+
+    /**
+     * Attacks that must be resolved in order. While groups run concurrently a group only writes
+     * to its own territories; food, player territory lists and events are deferred to commit().
+     * Each battle draws from its own stream keyed by turn and territory, so outcomes do not
+     * depend on how groups are scheduled.
+     */
+    private class AttackGroup implements Runnable {
+        final OrderBuffer orders;
+        int[] attacks = new int[4];   // indices into orders
+        int size;
+        final CombatEngine engine = new CombatEngine(game.getRules().getUnitBonus());
+        final int[] foodSpent = new int[game.getAllPlayers().size()];
+        final List<GameEvent> events = new ArrayList<>();
+        final List<Territory> conquered = new ArrayList<>();
+        final List<Player> losers = new ArrayList<>();
+        final List<Player> winners = new ArrayList<>();
+        final Map<Territory, Integer> battlesAt = new HashMap<>();
+
+        AttackGroup(OrderBuffer orders) {
+            this.orders = orders;
+        }
+
+        void add(int order) {
+            if (size == attacks.length) attacks = Arrays.copyOf(attacks, size * 2);
+            attacks[size++] = order;
+        }
+
+        @Override
+        public void run() {
+            engine.setMode(game.getCombatMode());
+            for (int k = 0; k < size; k++) {
+                int i = attacks[k];
+                Player attacker = game.getPlayer(orders.player(i));
+                Territory src = territory(orders.source(i));
+                Territory dest = territory(orders.dest(i));
+                int level = orders.level(i);
+                int units = orders.count(i);
+                if (!validateAttack(attacker, src, dest, level, units)) {
+                    continue;
+                }
+
+                // Spend food for attack
+                int costFood = units;
+                if (attacker.getFood() - foodSpent[attacker.getId()] < costFood) {
+                    continue;
+                }
+                // Remove units from source
+                if (!src.removeUnits(attacker.getId(), level, units)) {
+                    continue;
+                }
+                foodSpent[attacker.getId()] += costFood;
+                // Resolve combat
+                int seq = battlesAt.merge(dest, 1, Integer::sum);
+                engine.reset(game.getRandom().forBattle(game.getTurn(), dest.getId(), seq));
+                resolveCombat(this, dest, attacker, level, units);
+            }
+        }
+
+        void commit() {
+            for (GameEvent e : events) {
+                game.publish(e);
+            }
+            for (int i = 0; i < conquered.size(); i++) {
+                Territory t = conquered.get(i);
+                losers.get(i).removeTerritory(t);
+                winners.get(i).addTerritory(t);
+                game.conquered(losers.get(i), winners.get(i));
+            }
+            for (int pid = 0; pid < foodSpent.length; pid++) {
+                if (foodSpent[pid] > 0) game.getPlayer(pid).spendFood(foodSpent[pid]);
             }
-            // Resolve combat
-            resolveCombat(dest, attacker, level, units);
         }
     }
 
-    private boolean validateAttack(AttackOrder ao) {
-        Player p = game.getPlayer(ao.getPlayerID());
-        Territory src = game.getTerritoryByName(ao.getSourceName());
-        Territory dest = game.getTerritoryByName(ao.getDestName());
+    private boolean validateAttack(Player p, Territory src, Territory dest, int level, int units) {
         if (src == null || dest == null) return false;
         if (src.getOwner() != p) return false;
         if (dest.getOwner() == p) return false;
         if (!src.getNeighbors().contains(dest)) return false;
 
-        Map<Integer,Integer> srcMap = src.getStationedUnitsMap(p.getId());
-        int have = srcMap.getOrDefault(ao.getLevel(), 0);
-        return have >= ao.getNumUnits();
+        int have = src.getUnits(p.getId(), level);
+        return have >= units;
     }
 
     /**
      * Simplified combat resolution: handles combat between the attacker and the current territory owner.
      * Additional third-party garrisons are not considered here but can be added if needed.
      */
-    private void resolveCombat(Territory dest, Player attacker, int attLevel, int attCount) {
+    private void resolveCombat(AttackGroup g, Territory dest, Player attacker, int attLevel, int attCount) {
         Player defender = dest.getOwner();
-        List<UnitInfo> defUnits = gatherUnits(dest, defender.getId());
-        List<UnitInfo> attUnits = new ArrayList<>();
-        attUnits.add(new UnitInfo(attLevel, UNIT_BONUS[attLevel], attCount));
+        CombatEngine combat = g.engine;
+        combat.addAttackers(attLevel, attCount);
+        combat.addDefenders(dest.getStationedUnitsMap(defender.getId()));
 
         // Conduct D20-based combat with bonuses
-        while (!attUnits.isEmpty() && !defUnits.isEmpty()) {
-            UnitInfo aHigh = getHighestBonus(attUnits);
-            UnitInfo dLow = getLowestBonus(defUnits);
-            if (aHigh != null && dLow != null) {
-                int atkRoll = DiceRoller.rollD20() + aHigh.bonus;
-                int defRoll = DiceRoller.rollD20() + dLow.bonus;
-                if (atkRoll > defRoll) {
-                    dLow.count--;
-                    if (dLow.count <= 0) defUnits.remove(dLow);
-                } else {
-                    aHigh.count--;
-                    if (aHigh.count <= 0) attUnits.remove(aHigh);
-                }
-            }
-            if (attUnits.isEmpty() || defUnits.isEmpty()) break;
-
-            UnitInfo aLow = getLowestBonus(attUnits);
-            UnitInfo dHigh = getHighestBonus(defUnits);
-            if (aLow != null && dHigh != null) {
-                int atkRoll = DiceRoller.rollD20() + aLow.bonus;
-                int defRoll = DiceRoller.rollD20() + dHigh.bonus;
-                if (atkRoll > defRoll) {
-                    dHigh.count--;
-                    if (dHigh.count <= 0) defUnits.remove(dHigh);
-                } else {
-                    aLow.count--;
-                    if (aLow.count <= 0) attUnits.remove(aLow);
-                }
-            }
-        }
-
-        if (defUnits.isEmpty()) {
+        if (combat.resolve()) {
             // Attacker conquers the territory
-            game.broadcast(attacker.getName() + " conquered " + dest.getName());
+            g.events.add(new GameEvent.Conquered(attacker.getId(), defender.getId(), dest.getId()));
             dest.setOwner(attacker);
             dest.removeAllUnitsOfPlayer(defender.getId());
-            for (UnitInfo info : attUnits) {
-                if (info.count > 0) dest.addUnits(attacker.getId(), info.level, info.count);
+            for (int lvl = 0; lvl < CombatEngine.LEVELS; lvl++) {
+                dest.addUnits(attacker.getId(), lvl, combat.getAttackerCount(lvl));
             }
-            defender.removeTerritory(dest);
-            attacker.addTerritory(dest);
+            g.conquered.add(dest);
+            g.losers.add(defender);
+            g.winners.add(attacker);
         } else {
             // Defender holds the territory
-            game.broadcast(defender.getName() + " defends " + dest.getName() + " successfully");
+            g.events.add(new GameEvent.Defended(defender.getId(), attacker.getId(), dest.getId()));
             dest.removeAllUnitsOfPlayer(attacker.getId());
             dest.removeAllUnitsOfPlayer(defender.getId());
-            for (UnitInfo info : defUnits) {
-                if (info.count > 0) dest.addUnits(defender.getId(), info.level, info.count);
+            for (int lvl = 0; lvl < CombatEngine.LEVELS; lvl++) {
+                dest.addUnits(defender.getId(), lvl, combat.getDefenderCount(lvl));
             }
         }
     }
 
-    // Gather all stationed units of a specific player in a territory
-    private List<UnitInfo> gatherUnits(Territory terr, int playerID) {
-        List<UnitInfo> list = new ArrayList<>();
-        Map<Integer,Integer> map = terr.getStationedUnitsMap(playerID);
-        for (Map.Entry<Integer,Integer> e : map.entrySet()) {
-            int lvl = e.getKey();
-            int cnt = e.getValue();
-            list.add(new UnitInfo(lvl, UNIT_BONUS[lvl], cnt));
-        }
-        return list;
-    }
-
-    private UnitInfo getHighestBonus(List<UnitInfo> list) {
-        UnitInfo best = null;
-        for (UnitInfo u : list) {
-            if (best == null || u.bonus > best.bonus) best = u;
-        }
-        return best;
-    }
-    private UnitInfo getLowestBonus(List<UnitInfo> list) {
-        UnitInfo worst = null;
-        for (UnitInfo u : list) {
-            if (worst == null || u.bonus < worst.bonus) worst = u;
-        }
-        return worst;
-    }
-
-    private static class UnitInfo {
-        int level;
-        int bonus;
-        int count;
-        public UnitInfo(int level, int bonus, int count) {
-            this.level = level;
-            this.bonus = bonus;
-            this.count = count;
-        }
-    }
-
     // ===================================
     // 4) Upgrade Orders
     // ===================================
     public void executeUpgradeOrders() {
-        for (Order o : game.getAllOrders()) {
-            if (o instanceof UpgradeUnitOrder) {
-                UpgradeUnitOrder uo = (UpgradeUnitOrder) o;
-                Player p = game.getPlayer(uo.getPlayerID());
-                Territory t = game.getTerritoryByName(uo.getSourceName());
-                if (t.getOwner() != p) continue;
-                if (uo.getTargetLevel() > p.getMaxTechLevel()) continue;
-
-                int needUnits = uo.getNumUnits();
-                Map<Integer,Integer> map = t.getStationedUnitsMap(p.getId());
-                int have = map.getOrDefault(uo.getCurrentLevel(), 0);
-                if (have < needUnits) continue;
-
-                int cost = (UNIT_TOTAL_COST[uo.getTargetLevel()] - UNIT_TOTAL_COST[uo.getCurrentLevel()]) * needUnits;
-                if (cost < 0) continue;
-                if (!p.spendTech(cost)) continue;
-
-                // Remove old-level units and add upgraded units
-                if (!t.removeUnits(p.getId(), uo.getCurrentLevel(), needUnits)) continue;
-                t.addUnits(p.getId(), uo.getTargetLevel(), needUnits);
+        OrderBuffer orders = game.getOrderBuffer();
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.type(i) != OrderBuffer.UPGRADE) {
+                continue;
             }
+            Player p = game.getPlayer(orders.player(i));
+            Territory t = territory(orders.source(i));
+            int currentLevel = orders.level(i);
+            int targetLevel = orders.targetLevel(i);
+            if (t == null || t.getOwner() != p) continue;
+            if (currentLevel < 0 || targetLevel > p.getMaxTechLevel()) continue;
+
+            int needUnits = orders.count(i);
+            int have = t.getUnits(p.getId(), currentLevel);
+            if (have < needUnits) continue;
+
+            int cost = game.getRules().unitUpgradeCost(currentLevel, targetLevel, needUnits);
+            if (cost < 0 || cost == Ruleset.UNREACHABLE) continue;
+            if (!p.spendTech(cost)) continue;
+
+            // Remove old-level units and add upgraded units
+            if (!t.removeUnits(p.getId(), currentLevel, needUnits)) continue;
+            t.addUnits(p.getId(), targetLevel, needUnits);
         }
     }
 
     public void executeTechUpgradeOrders() {
+        OrderBuffer orders = game.getOrderBuffer();
         Set<Player> upgradedThisTurn = new HashSet<>();
-        for (Order o : game.getAllOrders()) {
-            if (o instanceof TechUpgradeOrder) {
-                TechUpgradeOrder to = (TechUpgradeOrder) o;
-                Player p = game.getPlayer(to.getPlayerID());
-                if (upgradedThisTurn.contains(p)) continue;
-                int curr = p.getMaxTechLevel();
-                if (curr >= 6) continue;
-                int next = curr + 1;
-                int cost = TECH_UPGRADE_COST.getOrDefault(curr, 99999);
-                if (p.spendTech(cost)) {
-                    p.startTechUpgrade(next);
-                    upgradedThisTurn.add(p);
-                }
+        for (int i = 0; i < orders.size(); i++) {
+            if (orders.type(i) != OrderBuffer.TECH) {
+                continue;
+            }
+            Player p = game.getPlayer(orders.player(i));
+            if (upgradedThisTurn.contains(p)) continue;
+            int curr = p.getMaxTechLevel();
+            if (curr >= game.getRules().getMaxTechLevel()) continue;
+            int next = curr + 1;
+            int cost = game.getRules().techUpgradeCost(curr);
+            if (p.spendTech(cost)) {
+                p.startTechUpgrade(next);
+                upgradedThisTurn.add(p);
             }
         }
     }
@@ -392,10 +416,8 @@ public class OrderExecutor {
     // Break Alliance & Recall Troops
     // ===================================
     private void breakAllianceAndRecall(Player attacker, Player defender) {
-        attacker.removeAlly(defender.getId());
-        defender.removeAlly(attacker.getId());
-        game.broadcast("Alliance broken due to attack! ("
-                + attacker.getName() + " -> " + defender.getName() + ")");
+        game.breakAlliance(attacker.getId(), defender.getId());
+        game.publish(new GameEvent.AllianceBroken(attacker.getId(), defender.getId()));
         // Recall defender's units stationed on attacker's territories
         recallAlliedUnits(defender, attacker);
     }
@@ -404,21 +426,21 @@ public class OrderExecutor {
         List<Territory> betrayerLands = betrayer.getTerritories();
         List<Territory> allyLands = ally.getTerritories();
         if (allyLands.isEmpty()) {
-            game.broadcast("No territory to recall for " + ally.getName() + ", skipping...");
+            game.publish(new GameEvent.NoRecall(ally.getId()));
             return;
         }
 
+        SplittableRandom rd = game.getRandom().forRecall(game.getTurn(), ally.getId(), betrayer.getId());
         for (Territory t : betrayerLands) {
             Map<Integer,Integer> removedMap = t.removeAllUnitsOfPlayer(ally.getId());
             if (removedMap != null && !removedMap.isEmpty()) {
-                Territory target = pickOneTerritory(allyLands);
+                Territory target = pickOneTerritory(allyLands, rd);
                 for (Map.Entry<Integer,Integer> e : removedMap.entrySet()) {
                     int lvl = e.getKey();
                     int cnt = e.getValue();
                     target.addUnits(ally.getId(), lvl, cnt);
                 }
-                game.broadcast("Recalled " + ally.getName() + "'s troops from "
-                        + betrayer.getName() + "'s land [" + t.getName() + "] to [" + target.getName() + "]");
+                game.publish(new GameEvent.Recalled(ally.getId(), betrayer.getId(), t.getId(), target.getId()));
             }
         }
     }
@@ -426,9 +448,8 @@ public class OrderExecutor {
     /**
      * Picks a random territory from the given list
      */
-    private Territory pickOneTerritory(List<Territory> lands) {
+    private Territory pickOneTerritory(List<Territory> lands, SplittableRandom rd) {
         if (lands.isEmpty()) return null;
-        Random rd = game.getRandom();
         return lands.get(rd.nextInt(lands.size()));
     }
 }
\ No newline at end of file
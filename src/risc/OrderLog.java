@@ -0,0 +1,340 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Write-ahead log of the orders accepted in one room.
+ * Game.addOrder appends to an in-memory batch; when the order phase closes, the batch is
+ * written as one record and forced to disk (group commit), so there is one fsync per turn.
+ * Together with the latest snapshot this is enough to rebuild the room after a crash: every
+ * turn is a pure function of the game seed, the turn number and that turn's orders.
+ *
+ * Record: int payload length, int CRC32 of the payload, then the payload:
+ *   int turn, long seed, int orders, each: byte kind, int playerID, kind-specific fields.
+ * A torn record at the end of the file (crash mid-write) fails its length or CRC check and
+ * is ignored along with anything after it; opening the log cuts it off so later turns land
+ * after the last intact record.
+ *
+ * Once a snapshot is on disk, rotate moves the turns it covers out of the live file into the
+ * optional history file, so a restart reads only the turns since the last snapshot while the
+ * history still holds the whole game for ReplayEngine.
+ */
+public class OrderLog implements AutoCloseable {
+    private static final byte MOVE = 1;
+    private static final byte ATTACK = 2;
+    private static final byte UPGRADE = 3;
+    private static final byte TECH = 4;
+    private static final byte ALLIANCE = 5;
+
+    /**
+     * The orders committed for one turn.
+     */
+    public static final class Turn {
+        private final int turn;
+        private final long seed;
+        private final List<Order> orders;
+
+        Turn(int turn, long seed, List<Order> orders) {
+            this.turn = turn;
+            this.seed = seed;
+            this.orders = Collections.unmodifiableList(orders);
+        }
+
+        /** Completed turns of the game when these orders were issued. */
+        public int getTurn() { return turn; }
+        public long getSeed() { return seed; }
+        public List<Order> getOrders() { return orders; }
+    }
+
+    private final Path file;
+    private final FileChannel history;   // null: rotated turns are dropped
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private int pendingOrders = 0;
+
+    public OrderLog(Path file) throws IOException {
+        this(file, null);
+    }
+
+    /**
+     * @param history file that receives the turns rotated out of file, or null to drop them
+     */
+    public OrderLog(Path file, Path history) throws IOException {
+        this.file = file;
+        this.history = history == null ? null : openForAppend(history);
+        this.channel = openForAppend(file);
+    }
+
+    /**
+     * Buffers an accepted order; nothing reaches the disk until commitTurn.
+     */
+    public synchronized void append(Order o) {
+        if (o instanceof MoveOrder || o instanceof AttackOrder) {
+            put(o instanceof MoveOrder ? MOVE : ATTACK, o.getPlayerID());
+            putString(o.getSourceName());
+            putString(o.getDestName());
+            putInt(o instanceof MoveOrder ? ((MoveOrder) o).getLevel() : ((AttackOrder) o).getLevel());
+            putInt(o.getNumUnits());
+        } else if (o instanceof UpgradeUnitOrder) {
+            UpgradeUnitOrder u = (UpgradeUnitOrder) o;
+            put(UPGRADE, o.getPlayerID());
+            putString(u.getSourceName());
+            putInt(u.getCurrentLevel());
+            putInt(u.getTargetLevel());
+            putInt(u.getNumUnits());
+        } else if (o instanceof TechUpgradeOrder) {
+            put(TECH, o.getPlayerID());
+        } else if (o instanceof AllianceOrder) {
+            put(ALLIANCE, o.getPlayerID());
+            putString(((AllianceOrder) o).getTargetPlayerName());
+        } else {
+            throw new IllegalArgumentException("Cannot log order type " + o.getClass().getSimpleName());
+        }
+        pendingOrders++;
+    }
+
+    /**
+     * Writes the buffered orders as the record for turn and forces it to disk.
+     */
+    public synchronized void commitTurn(int turn, long seed) throws IOException {
+        int payload = 16 + pending.position();
+        ByteBuffer record = ByteBuffer.allocate(8 + payload);
+        record.putInt(payload);
+        record.putInt(0);   // CRC, filled in below
+        record.putInt(turn);
+        record.putLong(seed);
+        record.putInt(pendingOrders);
+        pending.flip();
+        record.put(pending);
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 8, payload);
+        record.putInt(4, (int) crc.getValue());
+        record.flip();
+        writeFully(channel, record);
+        channel.force(false);
+        pending.clear();
+        pendingOrders = 0;
+    }
+
+    /**
+     * Moves the records of turns before turn out of the live file, into the history file if
+     * there is one. Call it only once a snapshot taken at turn is durably written: the history
+     * is forced before the live file is replaced, so a crash in between leaves those turns in
+     * both files rather than in neither.
+     */
+    public synchronized void rotate(int turn) throws IOException {
+        if (!channel.isOpen()) return;
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel kept = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            scan(file, (crc, payload) -> {
+                FileChannel out = payload.getInt(0) < turn ? history : kept;
+                if (out == null) return;
+                header.clear();
+                header.putInt(payload.remaining()).putInt(crc).flip();
+                writeFully(out, header);
+                writeFully(out, payload);
+            });
+            if (history != null) history.force(false);
+            kept.force(false);
+        }
+        channel.close();
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+        channel = openForAppend(file);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        channel.close();
+        if (history != null) history.close();
+    }
+
+    /**
+     * Reads every intact turn record of the log at file, in order; a missing file is empty.
+     * The file is streamed a record at a time rather than loaded whole.
+     */
+    public static List<Turn> read(Path file) throws IOException {
+        List<Turn> turns = new ArrayList<>();
+        scan(file, (crc, rec) -> {
+            try {
+                int turn = rec.getInt();
+                long seed = rec.getLong();
+                int count = rec.getInt();
+                List<Order> orders = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    orders.add(readOrder(rec));
+                }
+                turns.add(new Turn(turn, seed, orders));
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                throw new IOException("Corrupt order record in " + file, e);
+            }
+        });
+        return turns;
+    }
+
+    private interface RecordVisitor {
+        /** payload holds exactly the record's payload and may be reused after the call. */
+        void visit(int crc, ByteBuffer payload) throws IOException;
+    }
+
+    /**
+     * Hands each intact record of file to visitor and returns the offset just past the last
+     * one; reading stops at the first record that fails its length or CRC check.
+     */
+    private static long scan(Path file, RecordVisitor visitor) throws IOException {
+        if (!Files.exists(file)) return 0;
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(8);
+            ByteBuffer payload = ByteBuffer.allocate(4096);
+            long end = 0;
+            while (true) {
+                header.clear();
+                if (!readFully(in, header)) break;
+                int length = header.getInt(0);
+                int crc = header.getInt(4);
+                if (length < 16 || length > in.size() - in.position()) break;
+                if (payload.capacity() < length) {
+                    payload = ByteBuffer.allocate(Math.max(length, payload.capacity() * 2));
+                }
+                payload.clear().limit(length);
+                if (!readFully(in, payload)) break;
+                CRC32 check = new CRC32();
+                check.update(payload.array(), 0, length);
+                if ((int) check.getValue() != crc) break;
+                payload.flip();
+                visitor.visit(crc, payload);
+                end = in.position();
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Opens file for writing after its last intact record, cutting off any torn tail.
+     */
+    private static FileChannel openForAppend(Path file) throws IOException {
+        long end = scan(file, (crc, payload) -> { });
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        ch.truncate(end);
+        ch.position(end);
+        return ch;
+    }
+
+    private static boolean readFully(FileChannel in, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0) return false;
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            out.write(buf);
+        }
+    }
+
+    /**
+     * Re-executes the logged turns that follow game's current turn, as RiscServer runs them.
+     * The game must not have an order log attached. Returns the number of turns replayed.
+     */
+    public static int replay(Game game, List<Turn> turns) throws IOException {
+        int replayed = 0;
+        for (Turn t : turns) {
+            if (t.getTurn() < game.getTurn()) continue;
+            if (t.getTurn() > game.getTurn()) {
+                throw new IOException("Order log skips from turn " + game.getTurn() + " to " + t.getTurn());
+            }
+            if (t.getSeed() != game.getSeed()) {
+                throw new IOException("Order log belongs to a game with seed " + t.getSeed());
+            }
+            if (game.hasWinner()) break;
+            playTurn(game, t);
+            replayed++;
+        }
+        return replayed;
+    }
+
+    /**
+     * Plays one logged turn on game: its orders, the order phases, production and status.
+     */
+    static void playTurn(Game game, Turn t) {
+        for (Order o : t.getOrders()) {
+            game.addOrder(o);
+        }
+        game.executeAllOrders();
+        game.endTurn();
+        game.updatePlayerStatus();
+    }
+
+    private static Order readOrder(ByteBuffer rec) {
+        byte kind = rec.get();
+        int playerID = rec.getInt();
+        switch (kind) {
+            case MOVE:
+                return new MoveOrder(playerID, getString(rec), getString(rec), rec.getInt(), rec.getInt());
+            case ATTACK:
+                return new AttackOrder(playerID, getString(rec), getString(rec), rec.getInt(), rec.getInt());
+            case UPGRADE:
+                return new UpgradeUnitOrder(playerID, getString(rec), rec.getInt(), rec.getInt(), rec.getInt());
+            case TECH:
+                return new TechUpgradeOrder(playerID);
+            case ALLIANCE:
+                return new AllianceOrder(playerID, getString(rec));
+            default:
+                throw new IllegalArgumentException("Unknown order kind " + kind);
+        }
+    }
+
+    private void put(byte kind, int playerID) {
+        ensure(5);
+        pending.put(kind);
+        pending.putInt(playerID);
+    }
+
+    private void putInt(int v) {
+        ensure(4);
+        pending.putInt(v);
+    }
+
+    private void putString(String s) {
+        byte[] bytes = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        ensure(4 + bytes.length);
+        pending.putInt(bytes.length);
+        pending.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        int len = buf.getInt();
+        if (len < 0 || len > buf.remaining()) throw new BufferUnderflowException();
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private void ensure(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            grown.put(pending);
+            pending = grown;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package risc;
+
+import java.util.List;
+
+/**
+ * Source of one player's decisions in a headless Simulation. Implementations submit orders
+ * through Game.submitOrder, exactly as a ClientHandler or the AIController would, so they are
+ * validated and reserved against the player's budget like any other player's.
+ */
+public interface OrderProvider {
+
+    /**
+     * Distributes the player's initial units over its territories. The default spreads them
+     * evenly, giving the remainder to the first territories, like the AI placement.
+     */
+    default void placeInitialUnits(Game game, Player player, int units) {
+        List<Territory> lands = player.getTerritories();
+        if (lands.isEmpty()) return;
+        int per = units / lands.size();
+        int extra = units % lands.size();
+        for (Territory t : lands) {
+            t.addUnits(player.getId(), 0, per + (extra-- > 0 ? 1 : 0));
+        }
+    }
+
+    /**
+     * Submits this turn's orders for the player.
+     */
+    void issueOrders(Game game, Player player);
+
+    /**
+     * A provider that never issues orders.
+     */
+    static OrderProvider idle() {
+        return (game, player) -> { };
+    }
+}
@@ -0,0 +1,237 @@
+package risc;
+
+/**
+ * Checks orders when they are submitted, so a player hears at once why an order cannot run
+ * instead of losing it silently at execution.
+ *
+ * Each player has a speculative view of the board: the current garrisons, food and tech less
+ * what the orders they already placed this turn have reserved in the ledger. Moves take units
+ * from the source and give them to the destination, attacks and upgrades take units from the
+ * source. Upgraded units only arrive in the upgrade phase, so they can be upgraded again but
+ * not moved or sent to attack.
+ *
+ * The view is a prediction; OrderExecutor still confirms every order when it runs, since
+ * battles and other players' orders can change the board in between.
+ */
+public class OrderValidator {
+    private final Game game;
+    private final ReservationLedger ledger = new ReservationLedger();
+    // Path cost of the move order last accepted by check(), so accept() need not search again
+    private Order checkedMove;
+    private int checkedPathCost;
+
+    public OrderValidator(Game game) {
+        this.game = game;
+    }
+
+    /**
+     * Returns null if the order can be accepted, otherwise the reason it is rejected.
+     */
+    public String check(Order o) {
+        // The room size is capped at Game.MAX_PLAYERS, so every known id also fits an OrderBuffer
+        if (o.getPlayerID() < 0 || o.getPlayerID() >= game.getAllPlayers().size()
+                || o.getPlayerID() > OrderBuffer.MAX_PLAYER) {
+            return "Unknown player #" + o.getPlayerID();
+        }
+        Player p = game.getPlayer(o.getPlayerID());
+        if (!p.isAlive()) {
+            return p.getName() + " has been eliminated";
+        }
+        if (o instanceof MoveOrder) {
+            return checkMove(p, (MoveOrder) o);
+        } else if (o instanceof AttackOrder) {
+            return checkAttack(p, (AttackOrder) o);
+        } else if (o instanceof UpgradeUnitOrder) {
+            return checkUpgrade(p, (UpgradeUnitOrder) o);
+        } else if (o instanceof TechUpgradeOrder) {
+            return checkTechUpgrade(p);
+        } else if (o instanceof AllianceOrder) {
+            return checkAlliance(p, (AllianceOrder) o);
+        }
+        return "Unknown order type";
+    }
+
+    private String checkMove(Player p, MoveOrder o) {
+        String reason = checkUnits(o.getLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        Territory src = game.getTerritoryByName(o.getSourceName());
+        Territory dest = game.getTerritoryByName(o.getDestName());
+        if (src == null) return "Unknown territory " + o.getSourceName();
+        if (dest == null) return "Unknown territory " + o.getDestName();
+        if (!isYoursOrAllied(p, src)) return src.getName() + " is not yours or an ally's";
+        if (!isYoursOrAllied(p, dest)) return dest.getName() + " is not yours or an ally's";
+
+        int cost = game.getPathCost().minSizeSum(game, src, dest, p);
+        if (cost < 0) {
+            return "No path from " + src.getName() + " to " + dest.getName()
+                    + " through your or allied territory";
+        }
+        reason = checkAvailable(p, src, o.getLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        reason = checkFood(p, "move", cost * o.getNumUnits());
+        if (reason == null) {
+            checkedMove = o;
+            checkedPathCost = cost;
+        }
+        return reason;
+    }
+
+    private String checkAttack(Player p, AttackOrder o) {
+        String reason = checkUnits(o.getLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        Territory src = game.getTerritoryByName(o.getSourceName());
+        Territory dest = game.getTerritoryByName(o.getDestName());
+        if (src == null) return "Unknown territory " + o.getSourceName();
+        if (dest == null) return "Unknown territory " + o.getDestName();
+        if (src.getOwner() != p) return "You do not own " + src.getName();
+        if (dest.getOwner() == p) return "You already own " + dest.getName();
+        if (!src.getNeighbors().contains(dest)) {
+            return dest.getName() + " is not adjacent to " + src.getName();
+        }
+        reason = checkAvailable(p, src, o.getLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        return checkFood(p, "attack", o.getNumUnits());
+    }
+
+    private String checkUpgrade(Player p, UpgradeUnitOrder o) {
+        String reason = checkUnits(o.getCurrentLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        reason = checkUnits(o.getTargetLevel(), o.getNumUnits());
+        if (reason != null) return reason;
+        Territory t = game.getTerritoryByName(o.getSourceName());
+        if (t == null) return "Unknown territory " + o.getSourceName();
+        if (t.getOwner() != p) return "You do not own " + t.getName();
+        if (o.getTargetLevel() <= o.getCurrentLevel()) {
+            return "Target level must be above the current level";
+        }
+        if (o.getTargetLevel() > p.getMaxTechLevel()) {
+            return "Level " + o.getTargetLevel() + " is above your max tech level " + p.getMaxTechLevel();
+        }
+        int have = available(p, t, o.getCurrentLevel()) + ledger.upgraded(p.getId(), t.getId(), o.getCurrentLevel());
+        if (have < o.getNumUnits()) {
+            return notEnoughUnits(t, o.getCurrentLevel(), have, o.getNumUnits());
+        }
+        int cost = game.getRules().unitUpgradeCost(o.getCurrentLevel(), o.getTargetLevel(), o.getNumUnits());
+        if (cost == Ruleset.UNREACHABLE) {
+            return "Upgrading " + o.getNumUnits() + " units costs more tech than can ever be held";
+        }
+        return checkTech(p, "upgrade", cost);
+    }
+
+    private String checkTechUpgrade(Player p) {
+        if (p.getMaxTechLevel() >= game.getRules().getMaxTechLevel()) {
+            return "Already at the highest tech level";
+        }
+        if (ledger.hasTechUpgrade(p.getId())) {
+            return "Tech upgrade already ordered this turn";
+        }
+        return checkTech(p, "tech upgrade", game.getRules().techUpgradeCost(p.getMaxTechLevel()));
+    }
+
+    private String checkAlliance(Player p, AllianceOrder o) {
+        int target = game.getPlayerIDByName(o.getTargetPlayerName());
+        if (target < 0) return "Unknown player " + o.getTargetPlayerName();
+        if (target == p.getId()) return "You cannot ally with yourself";
+        if (!game.getPlayer(target).isAlive()) return o.getTargetPlayerName() + " has been eliminated";
+        return null;
+    }
+
+    private static String checkUnits(int level, int units) {
+        if (level < 0 || level >= CombatEngine.LEVELS) {
+            return "Invalid unit level " + level;
+        }
+        if (units <= 0) {
+            return "Number of units must be positive";
+        }
+        return null;
+    }
+
+    private String checkAvailable(Player p, Territory t, int level, int units) {
+        int have = available(p, t, level);
+        return have < units ? notEnoughUnits(t, level, have, units) : null;
+    }
+
+    private static String notEnoughUnits(Territory t, int level, int have, int need) {
+        return "Not enough level " + level + " units in " + t.getName() + ": " + have
+                + " available, " + need + " ordered";
+    }
+
+    private boolean isYoursOrAllied(Player p, Territory t) {
+        int id = t.getId();
+        return (game.getPassable(p.getId())[id >>> 6] & (1L << id)) != 0;
+    }
+
+    /**
+     * Units of a level the player can still order out of t this turn.
+     */
+    private int available(Player p, Territory t, int level) {
+        return t.getUnits(p.getId(), level) + ledger.unitDelta(p.getId(), t.getId(), level);
+    }
+
+    private String checkFood(Player p, String what, int cost) {
+        int left = p.getFood() - ledger.reservedFood(p.getId());
+        return left < cost ? "Not enough food: the " + what + " costs " + cost + ", you have " + left + " left" : null;
+    }
+
+    private String checkTech(Player p, String what, int cost) {
+        int left = p.getTech() - ledger.reservedTech(p.getId());
+        return left < cost ? "Not enough tech: the " + what + " costs " + cost + ", you have " + left + " left" : null;
+    }
+
+    /**
+     * Debits an order's food, tech and units from its player's budget. Orders that do not
+     * resolve are ignored.
+     */
+    public void accept(Order o) {
+        int pid = o.getPlayerID();
+        if (pid < 0 || pid >= game.getAllPlayers().size()) {
+            return;
+        }
+        Player p = game.getPlayer(pid);
+        if (o instanceof TechUpgradeOrder) {
+            int cost = game.getRules().techUpgradeCost(p.getMaxTechLevel());
+            ledger.reserveTechUpgrade(pid, cost == Ruleset.UNREACHABLE ? 0 : cost);
+            return;
+        }
+        if (o instanceof AllianceOrder) {
+            return;
+        }
+        Territory src = game.getTerritoryByName(o.getSourceName());
+        Territory dest = game.getTerritoryByName(o.getDestName());
+        if (src == null || dest == null) {
+            return;
+        }
+        int n = o.getNumUnits();
+        if (o instanceof MoveOrder) {
+            ledger.moveUnits(pid, src.getId(), dest.getId(), ((MoveOrder) o).getLevel(), n);
+            int cost = o == checkedMove ? checkedPathCost : game.getPathCost().minSizeSum(game, src, dest, p);
+            checkedMove = null;
+            ledger.reserveFood(pid, Math.max(0, cost) * n);
+        } else if (o instanceof AttackOrder) {
+            ledger.takeUnits(pid, src.getId(), ((AttackOrder) o).getLevel(), n);
+            ledger.reserveFood(pid, n);
+        } else if (o instanceof UpgradeUnitOrder) {
+            UpgradeUnitOrder u = (UpgradeUnitOrder) o;
+            ledger.upgradeUnits(pid, src.getId(), u.getCurrentLevel(), u.getTargetLevel(), n);
+            if (checkUnits(u.getCurrentLevel(), n) == null && checkUnits(u.getTargetLevel(), n) == null) {
+                int cost = game.getRules().unitUpgradeCost(u.getCurrentLevel(), u.getTargetLevel(), n);
+                ledger.reserveTech(pid, cost == Ruleset.UNREACHABLE ? 0 : Math.max(0, cost));
+            }
+        }
+    }
+
+    /**
+     * The player's food and tech left after this turn's orders, and the garrisons they change.
+     */
+    public String budget(int playerID) {
+        return ledger.budget(game.getPlayer(playerID), game.getRoom());
+    }
+
+    /**
+     * Forgets all reservations, for the next turn.
+     */
+    public void clear() {
+        ledger.clear();
+        checkedMove = null;
+    }
+}
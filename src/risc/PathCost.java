@@ -0,0 +1,69 @@
+package risc;
+
+import java.util.Arrays;
+
+/**
+ * Food cost of moving one unit between two territories: the sum of territory sizes along a
+ * path through territories the player or their allies own. Shared by OrderExecutor, which
+ * charges it, and OrderValidator, which reserves it when the order is submitted.
+ *
+ * Each room keeps one instance, whose queue and cost arrays are reused from search to search;
+ * a territory counts as visited when its stamp equals the current search's, so nothing has
+ * to be cleared between searches.
+ */
+final class PathCost {
+    private int[] queue = new int[0];
+    private int[] cost = new int[0];
+    private int[] stamp = new int[0];
+    private int search;
+
+    /**
+     * Uses BFS to find the minimum sum of territory sizes along a path through
+     * territories owned by the player or their allies.
+     * Returns the sum of sizes, or -1 if no valid path exists.
+     */
+    int minSizeSum(Game game, Territory start, Territory end, Player p) {
+        return minSizeSum(game.getRoom(), game.getPassable(p.getId()), start.getId(), end.getId());
+    }
+
+    /**
+     * @param passable bit set of the territory ids the path may cross
+     */
+    synchronized int minSizeSum(RoomState room, long[] passable, int startId, int endId) {
+        int n = room.size();
+        if (stamp.length < n) {
+            queue = new int[n];
+            cost = new int[n];
+            stamp = new int[n];
+            search = 0;
+        }
+        if (++search == 0) {
+            Arrays.fill(stamp, 0);
+            search = 1;
+        }
+        int head = 0;
+        int tail = 0;
+
+        stamp[startId] = search;
+        cost[startId] = room.getSize(startId);
+        queue[tail++] = startId;
+
+        MapTopology map = room.getTopology();
+        while (head < tail) {
+            int cur = queue[head++];
+            if (cur == endId) {
+                return cost[cur];
+            }
+            for (int k = 0, deg = map.getNeighborCount(cur); k < deg; k++) {
+                int id = map.getNeighbor(cur, k);
+                // unvisited and owned by p or an ally
+                if (stamp[id] != search && (passable[id >>> 6] & (1L << id)) != 0) {
+                    stamp[id] = search;
+                    cost[id] = cost[cur] + room.getSize(id);
+                    queue[tail++] = id;
+                }
+            }
+        }
+        return -1;
+    }
+}
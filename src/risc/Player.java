@@ -9,7 +9,7 @@ public class Player {
     private final int id;
     private String name;
     private boolean alive;
-    private final List<Territory> territories;
+    private final TerritorySet territories;
 
     private int food;
     private int tech;
@@ -25,7 +25,7 @@ public class Player {
         this.id = id;
         this.name = name;
         this.alive = true;
-        this.territories = new ArrayList<>();
+        this.territories = new TerritorySet();
         this.food = 100;
         this.tech = 0;
         this.allies = new HashSet<>();
@@ -44,8 +44,10 @@ public class Player {
     public void setAlive(boolean alive) { this.alive = alive; }
 
     public List<Territory> getTerritories() { return territories; }
-    public void addTerritory(Territory t) { if (!territories.contains(t)) territories.add(t); }
-    public void removeTerritory(Territory t) { territories.remove(t); }
+    public void addTerritory(Territory t) { territories.add(t); }
+    public void removeTerritory(Territory t) { territories.removeTerritory(t); }
+    public boolean ownsTerritory(Territory t) { return territories.contains(t); }
+    public int getTerritoryCount() { return territories.size(); }
 
     /* ---------- Resources ---------- */
     public int getFood() { return food; }
@@ -58,12 +60,32 @@ public class Player {
     /* ---------- Technology ---------- */
     public int getMaxTechLevel() { return maxTechLevel; }
     public boolean isTechUpgrading() { return isTechUpgrading; }
+    public int getNextTechLevel() { return nextTechLevel; }
     public void startTechUpgrade(int nextLevel) { isTechUpgrading = true; nextTechLevel = nextLevel; }
     public void finishTechUpgrade() {
         isTechUpgrading = false;
         maxTechLevel = nextTechLevel;
     }
 
+    /**
+     * Sets the starting food and tech of a new player.
+     */
+    void setResources(int food, int tech) {
+        this.food = food;
+        this.tech = tech;
+    }
+
+    /**
+     * Sets resources and technology state wholesale, when a game is restored from a snapshot.
+     */
+    void restoreState(int food, int tech, int maxTechLevel, boolean upgrading, int nextTechLevel) {
+        this.food = food;
+        this.tech = tech;
+        this.maxTechLevel = maxTechLevel;
+        this.isTechUpgrading = upgrading;
+        this.nextTechLevel = nextTechLevel;
+    }
+
     /* ---------- Alliances ---------- */
     public void addAlly(int otherID) { allies.add(otherID); }
     public void removeAlly(int otherID) { allies.remove(otherID); }
@@ -0,0 +1,78 @@
+package risc;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * End-of-turn production over flat per-territory arrays (owner id, food and tech yield).
+ * Every territory held by a living player yields its production, scaled by the room's rules,
+ * to the owner and gains the rules' level-0 reinforcements. Resources are summed in bulk per
+ * player, with no per-player list walks or boxed lookups; the arrays are reused from turn to
+ * turn.
+ */
+final class ProductionStage {
+    private int[] owner = new int[0];
+    private int[] food = new int[0];
+    private int[] tech = new int[0];
+    private int[] foodByPlayer = new int[0];
+    private int[] techByPlayer = new int[0];
+
+    void run(List<Territory> territories, List<Player> players, Ruleset rules) {
+        int n = territories.size();
+        int m = players.size();
+        if (owner.length < n) {
+            owner = new int[n];
+            food = new int[n];
+            tech = new int[n];
+        }
+        if (foodByPlayer.length < m) {
+            foodByPlayer = new int[m];
+            techByPlayer = new int[m];
+        }
+
+        // Gather: owner id if the owner is a living player of this game, else -1
+        for (int i = 0; i < n; i++) {
+            Territory t = territories.get(i);
+            Player p = t.getOwner();
+            int id = p == null ? -1 : p.getId();
+            boolean producing = id >= 0 && id < m && players.get(id) == p && p.isAlive();
+            owner[i] = producing ? id : -1;
+            food[i] = t.getFoodProduction() * rules.getFoodPerSize();
+            tech[i] = t.getTechProduction() * rules.getTechPerSize();
+        }
+
+        Arrays.fill(foodByPlayer, 0, m, 0);
+        Arrays.fill(techByPlayer, 0, m, 0);
+        accumulate(owner, food, foodByPlayer, n);
+        accumulate(owner, tech, techByPlayer, n);
+
+        for (int id = 0; id < m; id++) {
+            Player p = players.get(id);
+            if (!p.isAlive()) continue;
+            p.addFood(foodByPlayer[id]);
+            p.addTech(techByPlayer[id]);
+        }
+
+        // Reinforcements go into each garrison
+        int reinforcements = rules.getUnitsPerTurn();
+        for (int i = 0; reinforcements > 0 && i < n; i++) {
+            if (owner[i] >= 0) {
+                territories.get(i).addUnits(owner[i], 0, reinforcements);
+            }
+        }
+    }
+
+    /**
+     * out[owner[i]] += yield[i] for every producing territory. Kept branch-light over plain
+     * int arrays so the JIT can unroll it; the JDK Vector API would need incubator modules on
+     * every launch, which this build does not use.
+     */
+    static void accumulate(int[] owner, int[] yield, int[] out, int n) {
+        for (int i = 0; i < n; i++) {
+            int o = owner[i];
+            if (o >= 0) {
+                out[o] += yield[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package risc;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Exact samplers for the distributions used by aggregate combat resolution.
+ */
+final class RandomSampling {
+    // Below this many trials it is cheaper to flip each coin
+    private static final int DIRECT_TRIALS = 16;
+
+    private RandomSampling() {}
+
+    /**
+     * Samples Binomial(n, p) in O(log n) expected time.
+     * Uses Knuth's order-statistic splitting: the a-th smallest of n uniforms is Beta(a, n+1-a),
+     * and comparing it with p tells how many successes fall on each side of it.
+     */
+    static int binomial(RandomGenerator rng, int n, double p) {
+        if (n <= 0 || p <= 0.0) return 0;
+        if (p >= 1.0) return n;
+        int successes = 0;
+        while (n > DIRECT_TRIALS) {
+            int a = 1 + n / 2;
+            int b = n + 1 - a;
+            double x = beta(rng, a, b);
+            if (x >= p) {
+                n = a - 1;
+                p = p / x;
+            } else {
+                successes += a;
+                n = b - 1;
+                p = (p - x) / (1.0 - x);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (rng.nextDouble() < p) successes++;
+        }
+        return successes;
+    }
+
+    static double beta(RandomGenerator rng, double a, double b) {
+        double x = gamma(rng, a);
+        double y = gamma(rng, b);
+        return x / (x + y);
+    }
+
+    /**
+     * Marsaglia-Tsang sampler for Gamma(shape, 1), shape >= 1.
+     */
+    static double gamma(RandomGenerator rng, double shape) {
+        double d = shape - 1.0 / 3.0;
+        double c = 1.0 / Math.sqrt(9.0 * d);
+        while (true) {
+            double x = rng.nextGaussian();
+            double v = 1.0 + c * x;
+            if (v <= 0.0) continue;
+            v = v * v * v;
+            double u = rng.nextDouble();
+            double x2 = x * x;
+            if (u < 1.0 - 0.0331 * x2 * x2) return d * v;
+            if (Math.log(u) < 0.5 * x2 + d * (1.0 - v + Math.log(v))) return d * v;
+        }
+    }
+}
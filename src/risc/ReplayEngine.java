@@ -0,0 +1,151 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Plays back a recorded game (starting state plus the per-turn order log) with the real
+ * OrderExecutor. Opening a recording plays it through once and keeps the state every
+ * keyframeInterval turns as an encoded snapshot, so seeking to any turn, even the first seek,
+ * replays at most keyframeInterval - 1 turns, and stepping forward from the current position
+ * replays one. Broadcasts of a replayed turn are captured
+ * and handed back instead of being sent anywhere.
+ */
+public class ReplayEngine {
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 10;
+
+    private final int keyframeInterval;
+    private final int firstTurn;
+    private final List<OrderLog.Turn> turns;              // turns.get(i) is turn firstTurn + i
+    private final TreeMap<Integer, ByteBuffer> keyframes = new TreeMap<>();
+    private final List<String> captured = new ArrayList<>();
+    private Game game;
+    private int turnsPlayed;
+
+    /**
+     * @param start encoded state the log starts from, normally taken right after placement
+     */
+    public ReplayEngine(ByteBuffer start, List<OrderLog.Turn> log, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframe interval must be positive");
+        }
+        this.keyframeInterval = keyframeInterval;
+        this.game = load(start.duplicate());
+        this.firstTurn = game.getTurn();
+        this.turns = new ArrayList<>();
+        for (OrderLog.Turn t : log) {
+            if (t.getTurn() < firstTurn) continue;
+            if (t.getTurn() != firstTurn + turns.size()) {
+                throw new IOException("Order log skips to turn " + t.getTurn());
+            }
+            if (t.getSeed() != game.getSeed()) {
+                throw new IOException("Order log belongs to a game with seed " + t.getSeed());
+            }
+            turns.add(t);
+        }
+        keyframes.put(firstTurn, start.duplicate());
+        while (game.getTurn() < getLastTurn()) {
+            playNext();
+        }
+        game = load(start.duplicate());
+        captured.clear();
+        turnsPlayed = 0;
+    }
+
+    /**
+     * Opens the recording of room gameID kept in dataDir by RiscServer.
+     */
+    public static ReplayEngine open(Path dataDir, String gameID) throws IOException {
+        Path start = RiscServer.startFile(dataDir, gameID);
+        if (!Files.exists(start)) {
+            throw new IOException("No recording of game " + gameID);
+        }
+        List<OrderLog.Turn> log = OrderLog.read(RiscServer.historyFile(dataDir, gameID));
+        for (OrderLog.Turn t : OrderLog.read(RiscServer.logFile(dataDir, gameID))) {
+            // A crash mid-rotation can leave a turn in both files
+            if (log.isEmpty() || t.getTurn() > log.get(log.size() - 1).getTurn()) log.add(t);
+        }
+        return new ReplayEngine(ByteBuffer.wrap(Files.readAllBytes(start)), log, DEFAULT_KEYFRAME_INTERVAL);
+    }
+
+    public int getFirstTurn() {
+        return firstTurn;
+    }
+
+    /**
+     * Last turn that can be reached: the recording's length.
+     */
+    public int getLastTurn() {
+        return firstTurn + turns.size();
+    }
+
+    /**
+     * Game at the current position; its turn is the number of turns completed.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * Moves to the state after turn completed turns and returns it.
+     */
+    public Game seek(int turn) throws IOException {
+        if (turn < firstTurn || turn > getLastTurn()) {
+            throw new IllegalArgumentException("Turn " + turn + " is outside " + firstTurn + ".." + getLastTurn());
+        }
+        Map.Entry<Integer, ByteBuffer> key = keyframes.floorEntry(turn);
+        // Continue from where we are if that is closer than the nearest keyframe
+        if (game.getTurn() > turn || game.getTurn() < key.getKey()) {
+            game = load(key.getValue().duplicate());
+        }
+        while (game.getTurn() < turn) {
+            playNext();
+        }
+        captured.clear();
+        return game;
+    }
+
+    /**
+     * Plays the next turn and returns the broadcasts it produced; empty at the end.
+     */
+    public List<String> step() {
+        captured.clear();
+        if (game.getTurn() < getLastTurn() && !game.hasWinner()) {
+            playNext();
+        }
+        return new ArrayList<>(captured);
+    }
+
+    private void playNext() {
+        OrderLog.playTurn(game, turns.get(game.getTurn() - firstTurn));
+        turnsPlayed++;
+        int turn = game.getTurn();
+        if ((turn - firstTurn) % keyframeInterval == 0 && !keyframes.containsKey(turn)) {
+            keyframes.put(turn, SnapshotWriter.encode(game.getSnapshot()));
+        }
+    }
+
+    private Game load(ByteBuffer buf) throws IOException {
+        Game g = SnapshotReader.decode(buf, null);
+        g.setBroadcastSink(captured::add);
+        return g;
+    }
+
+    int getKeyframeCount() {
+        return keyframes.size();
+    }
+
+    /**
+     * Turns replayed since the recording was opened, not counting the pass that built the
+     * keyframes.
+     */
+    int getTurnsPlayed() {
+        return turnsPlayed;
+    }
+}
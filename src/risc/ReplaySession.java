@@ -0,0 +1,73 @@
+package risc;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Text front end of a ReplayEngine, driven line by line like a game connection.
+ * Commands: n (next turn), s <turn> (seek), m (map), q (quit).
+ */
+public class ReplaySession {
+    private final ReplayEngine engine;
+    private final BufferedReader in;
+    private final PrintWriter out;
+
+    public ReplaySession(ReplayEngine engine, BufferedReader in, PrintWriter out) {
+        this.engine = engine;
+        this.in = in;
+        this.out = out;
+    }
+
+    public void run() throws IOException {
+        out.println("Replay covers turns " + engine.getFirstTurn() + " to " + engine.getLastTurn() + ".");
+        printState();
+        while (true) {
+            out.println("Replay command: (n)ext, (s)eek <turn>, (m)ap, (q)uit");
+            String line = in.readLine();
+            if (line == null) return;
+            String[] parts = line.trim().split("\\s+");
+            String cmd = parts[0].toLowerCase();
+
+            if (cmd.equals("q")) {
+                out.println("Leaving replay.");
+                return;
+            } else if (cmd.equals("n")) {
+                if (engine.getGame().getTurn() >= engine.getLastTurn() || engine.getGame().hasWinner()) {
+                    out.println("End of recording.");
+                    continue;
+                }
+                for (String msg : engine.step()) {
+                    out.println(msg);
+                }
+                printState();
+            } else if (cmd.equals("s") && parts.length == 2) {
+                try {
+                    engine.seek(Integer.parseInt(parts[1]));
+                    printState();
+                } catch (NumberFormatException e) {
+                    out.println("Invalid turn number.");
+                } catch (IllegalArgumentException e) {
+                    out.println(e.getMessage());
+                }
+            } else if (cmd.equals("m")) {
+                engine.getGame().writeMapState(out);
+                out.flush();
+            } else {
+                out.println("Unknown replay command.");
+            }
+        }
+    }
+
+    private void printState() {
+        Game g = engine.getGame();
+        out.println("--- Turn " + g.getTurn() + " ---");
+        for (Player p : g.getAllPlayers()) {
+            out.println(p.getName() + (p.isAlive() ? "" : " (eliminated)") + " - territories: "
+                    + p.getTerritoryCount() + ", food: " + p.getFood() + ", tech: " + p.getTech());
+        }
+        if (g.hasWinner()) {
+            out.println("Winner: " + g.getWinner().getName());
+        }
+    }
+}
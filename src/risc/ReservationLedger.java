@@ -0,0 +1,127 @@
+package risc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * What each player has committed with the orders accepted so far this turn: food for moves and
+ * attacks, tech for unit and tech upgrades, and units per territory and level. Debited as
+ * orders are accepted and cleared with the turn's orders, so an order that the player cannot
+ * pay for on top of their earlier ones is refused before it is queued.
+ */
+final class ReservationLedger {
+    private final Map<Integer, Account> accounts = new HashMap<>();
+
+    private static final class Account {
+        int food;
+        int tech;
+        boolean techUpgrade;
+        // (territory id, level) -> units added (positive) or taken (negative) before battle
+        final Map<Long, Integer> units = new HashMap<>();
+        // (territory id, level) -> units that only arrive in the upgrade phase
+        final Map<Long, Integer> upgraded = new HashMap<>();
+    }
+
+    private Account account(int playerID) {
+        return accounts.computeIfAbsent(playerID, k -> new Account());
+    }
+
+    private static long key(int territoryID, int level) {
+        return (long) territoryID << 8 | (level & 0xFF);
+    }
+
+    int reservedFood(int playerID) {
+        Account a = accounts.get(playerID);
+        return a == null ? 0 : a.food;
+    }
+
+    int reservedTech(int playerID) {
+        Account a = accounts.get(playerID);
+        return a == null ? 0 : a.tech;
+    }
+
+    boolean hasTechUpgrade(int playerID) {
+        Account a = accounts.get(playerID);
+        return a != null && a.techUpgrade;
+    }
+
+    /**
+     * Net units of a level the player's orders add to (or take from) a territory before battle.
+     */
+    int unitDelta(int playerID, int territoryID, int level) {
+        Account a = accounts.get(playerID);
+        return a == null ? 0 : a.units.getOrDefault(key(territoryID, level), 0);
+    }
+
+    /**
+     * Units of a level the player's upgrade orders produce in a territory.
+     */
+    int upgraded(int playerID, int territoryID, int level) {
+        Account a = accounts.get(playerID);
+        return a == null ? 0 : a.upgraded.getOrDefault(key(territoryID, level), 0);
+    }
+
+    void reserveFood(int playerID, int amount) {
+        account(playerID).food += amount;
+    }
+
+    void reserveTech(int playerID, int amount) {
+        account(playerID).tech += amount;
+    }
+
+    void reserveTechUpgrade(int playerID, int cost) {
+        Account a = account(playerID);
+        a.techUpgrade = true;
+        a.tech += cost;
+    }
+
+    void moveUnits(int playerID, int from, int to, int level, int count) {
+        Account a = account(playerID);
+        a.units.merge(key(from, level), -count, Integer::sum);
+        a.units.merge(key(to, level), count, Integer::sum);
+    }
+
+    void takeUnits(int playerID, int territoryID, int level, int count) {
+        account(playerID).units.merge(key(territoryID, level), -count, Integer::sum);
+    }
+
+    /**
+     * Upgrades count units, spending units that were themselves upgraded this turn first.
+     */
+    void upgradeUnits(int playerID, int territoryID, int level, int targetLevel, int count) {
+        Account a = account(playerID);
+        int fromUpgraded = Math.min(count, Math.max(0, a.upgraded.getOrDefault(key(territoryID, level), 0)));
+        a.upgraded.merge(key(territoryID, level), -fromUpgraded, Integer::sum);
+        a.units.merge(key(territoryID, level), fromUpgraded - count, Integer::sum);
+        a.upgraded.merge(key(territoryID, targetLevel), count, Integer::sum);
+    }
+
+    void clear() {
+        accounts.clear();
+    }
+
+    /**
+     * The player's remaining food and tech and the garrisons their orders change, e.g.
+     * "Food 88/100, Tech 0/0; A L0 4/10, B L0 6/0".
+     */
+    String budget(Player p, RoomState room) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Food ").append(p.getFood() - reservedFood(p.getId())).append('/').append(p.getFood())
+                .append(", Tech ").append(p.getTech() - reservedTech(p.getId())).append('/').append(p.getTech());
+        Account a = accounts.get(p.getId());
+        if (a != null && room != null) {
+            String sep = "; ";
+            for (Map.Entry<Long, Integer> e : new TreeMap<>(a.units).entrySet()) {
+                if (e.getValue() == 0) continue;
+                int id = (int) (e.getKey() >>> 8);
+                int level = (int) (e.getKey() & 0xFF);
+                int have = room.getUnits(id, p.getId(), level);
+                sb.append(sep).append(room.territory(id).getName()).append(" L").append(level).append(' ')
+                        .append(have + e.getValue()).append('/').append(have);
+                sep = ", ";
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -5,6 +5,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.Socket;
+import java.nio.file.Paths;
 
 /**
  * Simple text-based client that connects to the RISC server
@@ -49,8 +50,27 @@ public class RiscClient {
         }
     }
 
+    /**
+     * Replays a recorded game from the local data directory, without a server.
+     */
+    public static void runReplay(String dataDir, String gameID) {
+        BufferedReader userIn = new BufferedReader(new InputStreamReader(System.in));
+        PrintWriter out = new PrintWriter(System.out, true);
+        try {
+            ReplayEngine engine = ReplayEngine.open(Paths.get(dataDir), gameID);
+            new ReplaySession(engine, userIn, out).run();
+        } catch (IOException e) {
+            System.out.println("Cannot replay game " + gameID + ": " + e.getMessage());
+        }
+    }
+
     // Usage: java risc.RiscClient <hostname> <port>
+    //    or: java risc.RiscClient replay <gameID>   (reads the -Drisc.data directory)
     public static void main(String[] args) {
+        if (args.length == 2 && args[0].equalsIgnoreCase("replay")) {
+            runReplay(System.getProperty("risc.data", "rooms"), args[1]);
+            return;
+        }
         BufferedReader userInput = new BufferedReader(new InputStreamReader(System.in));
         String host = "localhost";
         int port = 12345;
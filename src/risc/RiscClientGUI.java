@@ -5,6 +5,7 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.*;
 import java.net.Socket;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.List;
 import java.util.regex.*;
@@ -75,6 +76,14 @@ public class RiscClientGUI extends JFrame {
 
         /* ----- Map & message display ----- */
         mapPanel = new MapPanel();
+        String mapFile = System.getProperty("risc.map");
+        if (mapFile != null) {
+            try {
+                mapPanel.useLayout(MapFile.load(Paths.get(mapFile)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
         JScrollPane mapScr = new JScrollPane(mapPanel);
         mapScr.setBorder(BorderFactory.createTitledBorder("Game Map"));
 
@@ -208,8 +217,7 @@ public class RiscClientGUI extends JFrame {
                     if (mTerr.matches()) {
                         String name  = mTerr.group(1);
                         String owner = mTerr.group(2);
-                        Point pos = MapPanel.territoryPositions
-                                .getOrDefault(name, new Point(50, 50));
+                        Point pos = mapPanel.positionOf(name);
                         cur = tmp.computeIfAbsent(name,
                                 k -> new ClientTerritoryData(k, pos.x, pos.y));
                         cur.ownerName  = owner;
@@ -1,7 +1,10 @@
 package risc;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
 
 /**
@@ -17,14 +20,161 @@ public class RiscServer {
     private static final String BOT_NAME = "DeepSeekBot";
     private boolean started = false;
 
+    // Crash recovery: latest snapshot plus order log in dataDir; all null when not persisted
+    private final Path dataDir;
+    private final boolean restored;
+    private OrderLog orderLog;
+    private SnapshotWriter snapshotWriter;
+
     public RiscServer(int desiredHumanPlayers, String gameID, boolean includeAI) {
+        this(desiredHumanPlayers, gameID, includeAI, null);
+    }
+
+    /**
+     * @param dataDir directory for the room's snapshot and order log, or null to keep nothing
+     */
+    public RiscServer(int desiredHumanPlayers, String gameID, boolean includeAI, Path dataDir) {
+        this(desiredHumanPlayers, gameID, includeAI, dataDir, null);
+    }
+
+    /**
+     * @param map the room's map, or null for the standard map for its number of players
+     */
+    public RiscServer(int desiredHumanPlayers, String gameID, boolean includeAI, Path dataDir, MapTopology map) {
+        this(desiredHumanPlayers, gameID, includeAI, dataDir, map, Ruleset.STANDARD);
+    }
+
+    /**
+     * @param rules the rules the room is played by
+     */
+    public RiscServer(int desiredHumanPlayers, String gameID, boolean includeAI, Path dataDir, MapTopology map,
+                      Ruleset rules) {
+        Game.checkPlayerCount(desiredHumanPlayers + (includeAI ? 1 : 0));
         this.desiredHumanPlayers = desiredHumanPlayers;
         this.gameID = gameID;
         this.includeAI = includeAI;
         this.clientHandlers = new ArrayList<>();
         this.game = new Game(this);
+        this.dataDir = dataDir;
+        this.restored = false;
+        game.setRules(rules);
         int totalSlots = desiredHumanPlayers + (includeAI ? 1 : 0);
-        game.setUpMap(totalSlots);
+        if (map == null) {
+            game.setUpMap(totalSlots);
+        } else {
+            game.setUpMap(map);
+        }
+        System.out.println("[RiscServer-" + gameID + "] game seed: " + game.getSeed());
+        if (dataDir != null) {
+            try {
+                Files.createDirectories(dataDir);
+                // A fresh room must not append to the log of an older room with the same ID
+                Files.deleteIfExists(logFile(dataDir, gameID));
+                Files.deleteIfExists(historyFile(dataDir, gameID));
+                openPersistence();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds a room from its latest snapshot and order log; its seats wait for the same
+     * accounts to reconnect.
+     */
+    private RiscServer(String gameID, Path dataDir) throws IOException {
+        this.gameID = gameID;
+        this.dataDir = dataDir;
+        this.restored = true;
+        this.clientHandlers = new ArrayList<>();
+        this.game = SnapshotReader.read(snapshotFile(dataDir, gameID), this);
+        game.setBroadcastSink(null);   // replayed turns were already broadcast before the crash
+        int replayed = OrderLog.replay(game, OrderLog.read(logFile(dataDir, gameID)));
+        game.setBroadcastSink(this::broadcastMessage);
+
+        int humans = 0;
+        boolean ai = false;
+        for (Player p : game.getAllPlayers()) {
+            if (p.isAI()) {
+                ai = true;
+                if (p.isAlive()) aiController = new AIController(game, (AIPlayer) p);
+            } else if (p.isAlive()) {
+                humans++;
+            }
+        }
+        this.desiredHumanPlayers = humans;
+        this.includeAI = ai;
+        openPersistence();
+        System.out.println("[RiscServer-" + gameID + "] restored at turn " + game.getTurn()
+                + " (" + replayed + " turns replayed from the order log)");
+    }
+
+    /**
+     * Restores the room gameID from dataDir, or returns null if it has already finished.
+     */
+    public static RiscServer restore(Path dataDir, String gameID) throws IOException {
+        RiscServer rs = new RiscServer(gameID, dataDir);
+        if (rs.game.hasWinner()) {
+            rs.closePersistence();
+            return null;
+        }
+        return rs;
+    }
+
+    static Path snapshotFile(Path dataDir, String gameID) {
+        return dataDir.resolve(gameID + ".snap");
+    }
+
+    static Path logFile(Path dataDir, String gameID) {
+        return dataDir.resolve(gameID + ".wal");
+    }
+
+    /**
+     * Logged turns already covered by a snapshot, kept for replaying the whole game.
+     */
+    static Path historyFile(Path dataDir, String gameID) {
+        return dataDir.resolve(gameID + ".wal.history");
+    }
+
+    /**
+     * State right after initial placement; with the order log it lets the game be replayed.
+     */
+    static Path startFile(Path dataDir, String gameID) {
+        return dataDir.resolve(gameID + ".start");
+    }
+
+    private void openPersistence() throws IOException {
+        orderLog = new OrderLog(logFile(dataDir, gameID), historyFile(dataDir, gameID));
+        snapshotWriter = new SnapshotWriter();
+        game.setOrderLog(orderLog);
+    }
+
+    /**
+     * Hands the current state to the background snapshot writer; once it is on disk the turns
+     * it covers are rotated out of the order log.
+     */
+    private void persistSnapshot() {
+        if (snapshotWriter != null) {
+            int turn = game.getTurn();
+            snapshotWriter.writeAsync(game.getSnapshot(), snapshotFile(dataDir, gameID))
+                    .thenRun(() -> rotateLog(turn))
+                    .exceptionally(e -> { e.printStackTrace(); return null; });
+        }
+    }
+
+    private void rotateLog(int turn) {
+        try {
+            orderLog.rotate(turn);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void closePersistence() {
+        if (snapshotWriter != null) {
+            snapshotWriter.close();
+            try { orderLog.close(); } catch (IOException ignored) {}
+        }
     }
 
     /* ================================================= */
@@ -36,13 +186,33 @@ public class RiscServer {
             try { socket.close(); } catch (IOException ignored) {}
             return;
         }
-        int newPlayerID = clientHandlers.size();
+        int newPlayerID = restored ? findSeat(account.getUsername()) : clientHandlers.size();
+        if (newPlayerID < 0) {
+            System.out.println("No seat for " + account.getUsername() + " in restored game " + gameID);
+            try { socket.close(); } catch (IOException ignored) {}
+            return;
+        }
         ClientHandler ch = new ClientHandler(socket, this, newPlayerID, account);
         clientHandlers.add(ch);
         ch.start();
         synchronized (clientHandlers) { clientHandlers.notifyAll(); }
     }
 
+    /**
+     * Seat of a restored game that belongs to username and is still free, or -1.
+     */
+    private int findSeat(String username) {
+        for (Player p : game.getAllPlayers()) {
+            if (p.isAI() || !p.isAlive() || !p.getName().equals(username)) continue;
+            boolean taken = false;
+            for (ClientHandler ch : clientHandlers) {
+                if (ch.getPlayerID() == p.getId()) taken = true;
+            }
+            if (!taken) return p.getId();
+        }
+        return -1;
+    }
+
     /* ================================================= */
     /*                Main Loop Startup                 */
     /* ================================================= */
@@ -56,8 +226,13 @@ public class RiscServer {
                 }
             }
             started = true;
-            System.out.println("[RiscServer-" + gameID + "] humans ready, adding AI bot...");
-            startGame();
+            if (restored) {
+                System.out.println("[RiscServer-" + gameID + "] players reconnected, resuming...");
+                resumeGame();
+            } else {
+                System.out.println("[RiscServer-" + gameID + "] humans ready, adding AI bot...");
+                startGame();
+            }
         });
         t.start();
     }
@@ -80,12 +255,14 @@ public class RiscServer {
             int botID = totalPlayers - 1;
             Player prev = game.getPlayer(botID);
             AIPlayer bot = new AIPlayer(botID, BOT_NAME);
+            bot.setResources(prev.getFood(), prev.getTech());
             for (Territory terr : prev.getTerritories()) {
                 terr.setOwner(bot);
                 bot.addTerritory(terr);
             }
             game.getAllPlayers().set(botID, bot);
             aiController = new AIController(game, bot);
+            game.publishSnapshot("players");
             broadcastMessage("AI player [" + BOT_NAME + "] has joined the game!\n");
         }
 
@@ -95,8 +272,23 @@ public class RiscServer {
 
         /* ---------- Initial Placement Phase ---------- */
         gamePhaseInitialPlacement();
+        if (snapshotWriter != null) {
+            snapshotWriter.writeAsync(game.getSnapshot(), startFile(dataDir, gameID))
+                    .exceptionally(e -> { e.printStackTrace(); return null; });
+        }
+        persistSnapshot();
+
+        runTurns();
+    }
+
+    private void resumeGame() {
+        broadcastMessage("Game restored after a server restart at turn " + game.getTurn() + ".\n");
+        broadcastMapState("Current map state:\n", game.getSnapshot());
+        runTurns();
+    }
 
-        /* ---------- Main Turn Loop ---------- */
+    /* ---------- Main Turn Loop ---------- */
+    private void runTurns() {
         while (!game.hasWinner()) {
             broadcastMessage("\n=== New Turn Begins ===\n");
             for (ClientHandler ch : clientHandlers) {
@@ -110,11 +302,8 @@ public class RiscServer {
 
             issueOrdersPhase();
 
-            // Execute phases in fixed order
-            game.executeAllMoveOrders();
-            game.executeAllAttackOrders();
-            game.executeAllAlliances();
-            game.executeAllUpgrades();
+            // Execute phases in fixed order; commits the turn's orders to the log first
+            game.executeAllOrders();
 
             /* ------- New: Broadcast AI resources ------- */
             Player aiPlayer = game.getAllPlayers()
@@ -128,12 +317,11 @@ public class RiscServer {
             }
             /* ------------------------------------------ */
 
-            game.clearAllOrders();
-
             game.endTurn();
-            broadcastMessage("Map state after endTurn:\n" + game.getMapState());
+            broadcastMapState("Map state after endTurn:\n", game.getSnapshot());
 
             game.updatePlayerStatus();
+            persistSnapshot();
             removeDeadPlayers();
 
             if (game.hasWinner()) {
@@ -143,6 +331,7 @@ public class RiscServer {
         }
         broadcastMessage("Game over.\n");
         closeAllConnections();
+        closePersistence();
     }
 
     /* ---------- Initial Placement Phase ---------- */
@@ -170,12 +359,13 @@ public class RiscServer {
         for (Thread th : threads) {
             try { th.join(); } catch (InterruptedException ignored) {}
         }
-        broadcastMessage("Initial placement completed.\nCurrent map state:\n" + game.getMapState());
+        game.publishSnapshot("placement");
+        broadcastMapState("Initial placement completed.\nCurrent map state:\n", game.getSnapshot());
     }
 
     /* ---------- Order Issuing Phase ---------- */
     private void issueOrdersPhase() {
-        broadcastMessage("Enter command: (M)ove, (A)ttack, (U)pgrade, (T)ech, (D)one, (C)hat, (FA)lliance.\n");
+        broadcastMessage("Enter command: (M)ove, (A)ttack, (U)pgrade, (T)ech, (B)udget, (D)one, (C)hat, (FA)lliance.\n");
         List<Thread> threads = new ArrayList<>();
 
         // Human players issue orders
@@ -220,6 +410,21 @@ public class RiscServer {
         System.out.println("[Broadcast-" + gameID + "]: " + msg);
     }
 
+    /**
+     * Broadcasts header followed by the map state without concatenating them into one String;
+     * each connection and the log receive the text in bounded chunks.
+     */
+    public void broadcastMapState(String header, GameSnapshot snapshot) {
+        for (ClientHandler ch : clientHandlers) {
+            ch.sendMapState(header, snapshot);
+        }
+        try {
+            MapStateWriter.write("[Broadcast-" + gameID + "]: " + header, snapshot, System.out);
+        } catch (IOException e) {
+            // PrintStream does not throw
+        }
+    }
+
     public void closeAllConnections() {
         for (ClientHandler ch : clientHandlers) {
             try { ch.sendMessage("Connection closing..."); ch.closeConnection(); } catch (Exception ignored) {}
@@ -0,0 +1,386 @@
+package risc;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+
+/**
+ * Per-room mutable state of a map, held in flat arrays indexed by territory id: owners,
+ * garrisons, versions and the rendered map-state cache. Names, sizes and adjacency stay in
+ * the shared, immutable MapTopology, so rooms on the same map only pay for this state plus
+ * one small Territory handle per territory.
+ *
+ * A garrison is a packed int[] of (key, count) pairs sorted by key, where
+ * key = playerID << LEVEL_BITS | level, or null when the territory is empty.
+ */
+final class RoomState {
+    static final int LEVEL_BITS = 16;
+    private static final int LEVEL_MASK = (1 << LEVEL_BITS) - 1;
+
+    // Shared with other rooms until this room adds a border of its own
+    private MapTopology topology;
+    private final Territory[] territories;
+    private final List<Territory> territoryList;
+    private final Player[] owner;
+    private final int[][] garrison;
+    private final int[] version;
+    // Copied from the topology on the first size change, so unchanged rooms share the sizes
+    private int[] sizes;
+    private final String[] rendered;
+    private final int[] renderedVersion;
+    private final String[] renderedOwner;
+    private Territory.OwnerListener ownerListener;
+
+    RoomState(MapTopology topology) {
+        this(topology, null);
+    }
+
+    /**
+     * @param single a standalone territory to use as the only handle of a one-territory room
+     */
+    private RoomState(MapTopology topology, Territory single) {
+        int n = topology.getTerritoryCount();
+        this.topology = topology;
+        this.territories = new Territory[n];
+        this.owner = new Player[n];
+        this.garrison = new int[n][];
+        this.version = new int[n];
+        this.rendered = new String[n];
+        this.renderedVersion = new int[n];
+        this.renderedOwner = new String[n];
+        if (single != null) {
+            territories[0] = single;
+        } else {
+            for (int i = 0; i < n; i++) {
+                territories[i] = new Territory(this, i);
+            }
+        }
+        this.territoryList = Collections.unmodifiableList(Arrays.asList(territories));
+    }
+
+    /**
+     * State for a territory created on its own, outside any room.
+     */
+    static RoomState standalone(String name, int size, Territory t) {
+        MapTopology one = new MapTopology(new String[] {name}, new int[] {size}, new int[] {0, 0},
+                new int[0], null, null);
+        return new RoomState(one, t);
+    }
+
+    MapTopology getTopology() {
+        return topology;
+    }
+
+    int size() {
+        return territories.length;
+    }
+
+    Territory territory(int id) {
+        return territories[id];
+    }
+
+    /**
+     * All territories of the room in id order; the list cannot be modified.
+     */
+    List<Territory> territories() {
+        return territoryList;
+    }
+
+    void setOwnerListener(Territory.OwnerListener listener) {
+        this.ownerListener = listener;
+    }
+
+    /* ---------- Owner, size and version ---------- */
+
+    Player getOwner(int id) {
+        return owner[id];
+    }
+
+    void setOwner(int id, Player p) {
+        Player previous = owner[id];
+        owner[id] = p;
+        version[id]++;
+        if (ownerListener != null && previous != p) {
+            ownerListener.ownerChanged(territories[id], previous);
+        }
+    }
+
+    int getSize(int id) {
+        return sizes == null ? topology.getSize(id) : sizes[id];
+    }
+
+    void setSize(int id, int size) {
+        if (sizes == null) {
+            sizes = new int[territories.length];
+            for (int i = 0; i < sizes.length; i++) {
+                sizes[i] = topology.getSize(i);
+            }
+        }
+        sizes[id] = size;
+        version[id]++;
+    }
+
+    int getVersion(int id) {
+        return version[id];
+    }
+
+    void touch(int id) {
+        version[id]++;
+    }
+
+    /* ---------- Neighbors ---------- */
+
+    /**
+     * Read-only view of a territory's neighbors in this room.
+     */
+    List<Territory> neighborsOf(int id) {
+        return new Neighbors(id);
+    }
+
+    private final class Neighbors extends AbstractList<Territory> implements RandomAccess {
+        private final int id;
+
+        Neighbors(int id) {
+            this.id = id;
+        }
+
+        @Override
+        public Territory get(int k) {
+            if (k < 0 || k >= size()) {
+                throw new IndexOutOfBoundsException(k);
+            }
+            return territories[topology.getNeighbor(id, k)];
+        }
+
+        @Override
+        public int size() {
+            return topology.getNeighborCount(id);
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Territory) || ((Territory) o).room() != RoomState.this) {
+                return false;
+            }
+            int other = ((Territory) o).slot();
+            for (int k = 0; k < topology.getNeighborCount(id); k++) {
+                if (topology.getNeighbor(id, k) == other) return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Adds a border from one territory to another for this room only; the room switches to a
+     * private copy of its topology.
+     */
+    void addBorder(int from, int to) {
+        topology = topology.withNeighbor(from, to);
+        version[from]++;
+    }
+
+    /* ---------- Garrisons ---------- */
+
+    private static int key(int playerID, int level) {
+        return playerID << LEVEL_BITS | (level & LEVEL_MASK);
+    }
+
+    private static int find(int[] row, int key) {
+        if (row != null) {
+            for (int i = 0; i < row.length; i += 2) {
+                if (row[i] == key) return i;
+            }
+        }
+        return -1;
+    }
+
+    int getUnits(int id, int playerID, int level) {
+        int[] row = garrison[id];
+        int i = find(row, key(playerID, level));
+        return i < 0 ? 0 : row[i + 1];
+    }
+
+    void addUnits(int id, int playerID, int level, int count) {
+        int key = key(playerID, level);
+        int[] row = garrison[id];
+        int i = find(row, key);
+        if (i >= 0) {
+            row[i + 1] += count;
+        } else {
+            int len = row == null ? 0 : row.length;
+            int at = 0;
+            while (at < len && row[at] < key) at += 2;
+            int[] grown = new int[len + 2];
+            if (row != null) {
+                System.arraycopy(row, 0, grown, 0, at);
+                System.arraycopy(row, at, grown, at + 2, len - at);
+            }
+            grown[at] = key;
+            grown[at + 1] = count;
+            garrison[id] = grown;
+        }
+        version[id]++;
+    }
+
+    boolean removeUnits(int id, int playerID, int level, int count) {
+        int[] row = garrison[id];
+        int i = find(row, key(playerID, level));
+        if (i < 0) {
+            // Removing nothing succeeds as long as the player has some units here
+            if (count > 0 || !hasUnitsOf(row, playerID)) {
+                return false;
+            }
+            version[id]++;
+            return true;
+        }
+        if (row[i + 1] < count) {
+            return false;
+        }
+        row[i + 1] -= count;
+        if (row[i + 1] == 0) {
+            garrison[id] = without(row, i, i + 2);
+        }
+        version[id]++;
+        return true;
+    }
+
+    private static boolean hasUnitsOf(int[] row, int playerID) {
+        for (int i = 0; row != null && i < row.length; i += 2) {
+            if (row[i] >> LEVEL_BITS == playerID) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes a player's units; returns level -> count in ascending level order, or null if
+     * the player had none here.
+     */
+    Map<Integer, Integer> removeAllUnitsOf(int id, int playerID) {
+        int[] row = garrison[id];
+        int from = -1;
+        int to = -1;
+        Map<Integer, Integer> removed = null;
+        for (int i = 0; row != null && i < row.length; i += 2) {
+            if (row[i] >> LEVEL_BITS == playerID) {
+                if (removed == null) {
+                    removed = new LinkedHashMap<>();
+                    from = i;
+                }
+                removed.put(row[i] & LEVEL_MASK, row[i + 1]);
+                to = i + 2;
+            }
+        }
+        if (removed != null) {
+            garrison[id] = without(row, from, to);
+            version[id]++;
+        }
+        return removed;
+    }
+
+    private static int[] without(int[] row, int from, int to) {
+        if (to - from == row.length) {
+            return null;
+        }
+        int[] shrunk = new int[row.length - (to - from)];
+        System.arraycopy(row, 0, shrunk, 0, from);
+        System.arraycopy(row, to, shrunk, from, row.length - to);
+        return shrunk;
+    }
+
+    /**
+     * A fresh level -> count map of a player's units here.
+     */
+    Map<Integer, Integer> unitsOf(int id, int playerID) {
+        Map<Integer, Integer> units = new HashMap<>();
+        int[] row = garrison[id];
+        for (int i = 0; row != null && i < row.length; i += 2) {
+            if (row[i] >> LEVEL_BITS == playerID) {
+                units.put(row[i] & LEVEL_MASK, row[i + 1]);
+            }
+        }
+        return units;
+    }
+
+    Set<Integer> stationedPlayers(int id) {
+        Set<Integer> ids = new LinkedHashSet<>();
+        int[] row = garrison[id];
+        for (int i = 0; row != null && i < row.length; i += 2) {
+            ids.add(row[i] >> LEVEL_BITS);
+        }
+        return Collections.unmodifiableSet(ids);
+    }
+
+    int totalUnits(int id) {
+        int sum = 0;
+        int[] row = garrison[id];
+        for (int i = 1; row != null && i < row.length; i += 2) {
+            sum += row[i];
+        }
+        return sum;
+    }
+
+    String unitsString(int id) {
+        return unitsString(garrison[id]);
+    }
+
+    /**
+     * Copy of a territory's packed garrison, or null when it is empty.
+     */
+    int[] copyGarrison(int id) {
+        int[] row = garrison[id];
+        return row == null ? null : row.clone();
+    }
+
+    /**
+     * "P0->{0=5, 1=2}; P1->{0=3}; " in player then level order, or "No units", for a packed
+     * garrison.
+     */
+    static String unitsString(int[] row) {
+        if (row == null) {
+            return "No units";
+        }
+        StringBuilder sb = new StringBuilder();
+        int current = Integer.MIN_VALUE;
+        for (int i = 0; i < row.length; i += 2) {
+            int pid = playerOf(row[i]);
+            if (pid != current) {
+                if (current != Integer.MIN_VALUE) sb.append("}; ");
+                sb.append('P').append(pid).append("->{");
+                current = pid;
+            } else {
+                sb.append(", ");
+            }
+            sb.append(levelOf(row[i])).append('=').append(row[i + 1]);
+        }
+        return sb.append("}; ").toString();
+    }
+
+    static int playerOf(int key) {
+        return key >> LEVEL_BITS;
+    }
+
+    static int levelOf(int key) {
+        return key & LEVEL_MASK;
+    }
+
+    /* ---------- Rendered map-state cache ---------- */
+
+    String cachedRender(int id, String ownerName) {
+        String block = rendered[id];
+        return block != null && renderedVersion[id] == version[id] && ownerName.equals(renderedOwner[id])
+                ? block : null;
+    }
+
+    void cacheRender(int id, String ownerName, String block) {
+        rendered[id] = block;
+        renderedVersion[id] = version[id];
+        renderedOwner[id] = ownerName;
+    }
+}
@@ -0,0 +1,242 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A room's game rules compiled into flat int tables: unit costs and combat bonuses per level,
+ * tech upgrade costs, starting resources and per-turn production. Immutable, so rooms on the
+ * same rules can share one instance, and every lookup on the turn path is an array load.
+ *
+ * The number of unit levels is not a rule: it is fixed at CombatEngine.LEVELS (7, levels 0 to
+ * 6), which also sizes the unit tables of territories, combat and the order validator. So
+ * unit.cost and unit.bonus must list exactly that many values, and tech.cost at most
+ * LEVELS - 2. A rules file can change what each level costs and how it fights, not how many
+ * levels there are.
+ *
+ * Rules files are lines of "key = values", with '#' starting a comment. Keys left out keep
+ * their standard value, so a variant only lists what it changes:
+ *
+ *   unit.cost     = 0 3 8 19 25 35 50   # total tech to train a level-0 unit up to each level
+ *   unit.bonus    = 0 1 3 5 8 11 15     # combat roll bonus per level
+ *   tech.cost     = 50 75 125 200 300   # tech to raise max tech level 1 -> 2, 2 -> 3, ...
+ *   start.food    = 100
+ *   start.tech    = 0
+ *   start.units   = 10                  # units each player places before the first turn
+ *   produce.food  = 1                   # food per point of territory size each turn
+ *   produce.tech  = 1                   # tech per point of territory size each turn
+ *   produce.units = 1                   # level-0 units each held territory gains each turn
+ */
+public final class Ruleset {
+    static final String EXTENSION = ".rules";
+    // Bounds each value in a rules file; a cost times a unit count can still pass int range,
+    // so totals go through unitUpgradeCost(current, target, units)
+    static final int MAX_VALUE = 1_000_000;
+    // Cost of a tech upgrade past the highest level, or of a total too large for an int;
+    // never affordable
+    static final int UNREACHABLE = Integer.MAX_VALUE;
+
+    private static final String STANDARD_TEXT = String.join("\n",
+            "unit.cost     = 0 3 8 19 25 35 50",
+            "unit.bonus    = 0 1 3 5 8 11 15",
+            "tech.cost     = 50 75 125 200 300",
+            "start.food    = 100",
+            "start.tech    = 0",
+            "start.units   = 10",
+            "produce.food  = 1",
+            "produce.tech  = 1",
+            "produce.units = 1");
+
+    public static final Ruleset STANDARD = compile(STANDARD_TEXT, null);
+
+    private final int[] unitCost;
+    private final int[] unitBonus;
+    // Indexed by current max tech level; UNREACHABLE from the highest level on
+    private final int[] techCost;
+    private final int maxTechLevel;
+    private final int startFood;
+    private final int startTech;
+    private final int startUnits;
+    private final int foodPerSize;
+    private final int techPerSize;
+    private final int unitsPerTurn;
+
+    private Ruleset(Map<String, int[]> values) {
+        this.unitCost = values.get("unit.cost");
+        this.unitBonus = values.get("unit.bonus");
+        int[] tech = values.get("tech.cost");
+        this.maxTechLevel = tech.length + 1;
+        this.techCost = new int[CombatEngine.LEVELS];
+        Arrays.fill(techCost, UNREACHABLE);
+        System.arraycopy(tech, 0, techCost, 1, tech.length);
+        this.startFood = values.get("start.food")[0];
+        this.startTech = values.get("start.tech")[0];
+        this.startUnits = values.get("start.units")[0];
+        this.foodPerSize = values.get("produce.food")[0];
+        this.techPerSize = values.get("produce.tech")[0];
+        this.unitsPerTurn = values.get("produce.units")[0];
+    }
+
+    /**
+     * Loads and validates a rules file.
+     */
+    public static Ruleset load(Path file) throws IOException {
+        return parse(Files.readString(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses and validates rules text; keys not given keep their standard values.
+     */
+    public static Ruleset parse(String text) throws IOException {
+        try {
+            return compile(text, STANDARD);
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    private static Ruleset compile(String text, Ruleset base) {
+        Map<String, int[]> values = base == null ? new HashMap<>() : base.values();
+        Map<String, Integer> seen = new HashMap<>();
+        String[] lines = text.split("\\R");
+        for (int n = 0; n < lines.length; n++) {
+            String line = lines[n];
+            int hash = line.indexOf('#');
+            if (hash >= 0) line = line.substring(0, hash);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            int eq = line.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Line " + (n + 1) + ": expected key = values");
+            }
+            String key = line.substring(0, eq).trim();
+            if (!values.containsKey(key) && base != null) {
+                throw new IllegalArgumentException("Line " + (n + 1) + ": unknown rule " + key);
+            }
+            if (seen.put(key, n + 1) != null) {
+                throw new IllegalArgumentException("Line " + (n + 1) + ": " + key + " is given twice");
+            }
+            String[] parts = line.substring(eq + 1).trim().split("\\s+");
+            int[] ints = new int[parts.length];
+            for (int i = 0; i < parts.length; i++) {
+                try {
+                    ints[i] = Integer.parseInt(parts[i]);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Line " + (n + 1) + ": " + key + " must be whole numbers");
+                }
+                if (ints[i] < 0 || ints[i] > MAX_VALUE) {
+                    throw new IllegalArgumentException("Line " + (n + 1) + ": " + key
+                            + " values must be between 0 and " + MAX_VALUE);
+                }
+            }
+            values.put(key, ints);
+        }
+        validate(values);
+        return new Ruleset(values);
+    }
+
+    private static void validate(Map<String, int[]> values) {
+        int[] cost = values.get("unit.cost");
+        int[] bonus = values.get("unit.bonus");
+        int[] tech = values.get("tech.cost");
+        if (cost == null || cost.length != CombatEngine.LEVELS || cost[0] != 0) {
+            throw new IllegalArgumentException("unit.cost needs " + CombatEngine.LEVELS + " values starting at 0");
+        }
+        if (bonus == null || bonus.length != CombatEngine.LEVELS) {
+            throw new IllegalArgumentException("unit.bonus needs " + CombatEngine.LEVELS + " values");
+        }
+        for (int level = 1; level < CombatEngine.LEVELS; level++) {
+            if (cost[level] < cost[level - 1]) {
+                throw new IllegalArgumentException("unit.cost must not decrease with level");
+            }
+            if (bonus[level] < bonus[level - 1]) {
+                throw new IllegalArgumentException("unit.bonus must not decrease with level");
+            }
+        }
+        if (tech == null || tech.length < 1 || tech.length > CombatEngine.LEVELS - 2) {
+            throw new IllegalArgumentException("tech.cost needs 1 to " + (CombatEngine.LEVELS - 2) + " values");
+        }
+        for (String key : new String[] {"start.food", "start.tech", "start.units",
+                "produce.food", "produce.tech", "produce.units"}) {
+            int[] v = values.get(key);
+            if (v == null || v.length != 1) {
+                throw new IllegalArgumentException(key + " needs a single value");
+            }
+        }
+    }
+
+    private Map<String, int[]> values() {
+        Map<String, int[]> values = new LinkedHashMap<>();
+        values.put("unit.cost", unitCost.clone());
+        values.put("unit.bonus", unitBonus.clone());
+        values.put("tech.cost", Arrays.copyOfRange(techCost, 1, maxTechLevel));
+        values.put("start.food", new int[] {startFood});
+        values.put("start.tech", new int[] {startTech});
+        values.put("start.units", new int[] {startUnits});
+        values.put("produce.food", new int[] {foodPerSize});
+        values.put("produce.tech", new int[] {techPerSize});
+        values.put("produce.units", new int[] {unitsPerTurn});
+        return values;
+    }
+
+    /**
+     * The rules as a complete rules file, which parses back to equal tables.
+     */
+    public String toText() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, int[]> e : values().entrySet()) {
+            sb.append(e.getKey()).append(" =");
+            for (int v : e.getValue()) {
+                sb.append(' ').append(v);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+
+    /* ---------- Lookups ---------- */
+
+    /**
+     * Tech cost of upgrading one unit from one level to another.
+     */
+    public int unitUpgradeCost(int currentLevel, int targetLevel) {
+        return unitCost[targetLevel] - unitCost[currentLevel];
+    }
+
+    /**
+     * Tech cost of upgrading units units from one level to another, or UNREACHABLE if the
+     * total does not fit in an int.
+     */
+    public int unitUpgradeCost(int currentLevel, int targetLevel, int units) {
+        long total = (long) unitUpgradeCost(currentLevel, targetLevel) * units;
+        return total < UNREACHABLE ? (int) total : UNREACHABLE;
+    }
+
+    /**
+     * Copy of the combat bonus per level, for CombatEngine and CombatOdds.
+     */
+    public int[] getUnitBonus() {
+        return unitBonus.clone();
+    }
+
+    /**
+     * Tech cost of raising the max tech level from the given level; UNREACHABLE at the top.
+     */
+    public int techUpgradeCost(int level) {
+        return level >= 0 && level < techCost.length ? techCost[level] : UNREACHABLE;
+    }
+
+    public int getMaxTechLevel() { return maxTechLevel; }
+    public int getStartingFood() { return startFood; }
+    public int getStartingTech() { return startTech; }
+    public int getInitialUnits() { return startUnits; }
+    public int getFoodPerSize() { return foodPerSize; }
+    public int getTechPerSize() { return techPerSize; }
+    public int getUnitsPerTurn() { return unitsPerTurn; }
+}
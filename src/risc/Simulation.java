@@ -0,0 +1,136 @@
+package risc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Headless game runtime: drives a Game through the same phases as RiscServer, with each
+ * player's orders coming from an OrderProvider instead of a socket. Broadcasts are dropped
+ * unless a sink is set, so turns run at CPU speed. A simulation is single-threaded apart from
+ * the game's own attack pool; independent simulations can run in parallel (see runAll), and
+ * a given seed and set of providers always plays out the same way.
+ */
+public class Simulation {
+
+    /**
+     * Outcome of one simulated game.
+     */
+    public static final class Result {
+        private final long seed;
+        private final int turns;
+        private final int winnerID;
+        private final GameSnapshot finalState;
+
+        Result(long seed, int turns, int winnerID, GameSnapshot finalState) {
+            this.seed = seed;
+            this.turns = turns;
+            this.winnerID = winnerID;
+            this.finalState = finalState;
+        }
+
+        public long getSeed() { return seed; }
+        public int getTurns() { return turns; }
+        /** ID of the winner, or -1 if the turn limit was reached first. */
+        public int getWinnerID() { return winnerID; }
+        public GameSnapshot getFinalState() { return finalState; }
+    }
+
+    private final Game game;
+    private final List<OrderProvider> providers;
+    private int maxTurns = 1000;
+    private int turnsPlayed = 0;
+    private boolean placed = false;
+
+    /**
+     * Sets up a game with one player per provider on the standard map for that many players.
+     */
+    public Simulation(long seed, List<OrderProvider> providers) {
+        this(seed, providers, null);
+    }
+
+    /**
+     * Sets up a game with one player per provider on the given map, e.g. a generated one for
+     * benchmarking; null picks the standard map for that many players.
+     */
+    public Simulation(long seed, List<OrderProvider> providers, MapTopology map) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("A simulation needs at least one player");
+        }
+        this.providers = new ArrayList<>(providers);
+        this.game = new Game(null, seed);
+        if (map == null) {
+            game.setUpMap(providers.size());
+        } else {
+            game.setUpMap(map);
+        }
+        game.initPlayers(providers.size());
+    }
+
+    /**
+     * The simulated game, e.g. to change the combat mode or attack pool before running.
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    public void setMaxTurns(int maxTurns) {
+        this.maxTurns = maxTurns;
+    }
+
+    /**
+     * Captures the game's broadcasts; null (the default) drops them.
+     */
+    public void setBroadcastSink(Consumer<String> sink) {
+        game.setBroadcastSink(sink);
+    }
+
+    public int getTurnsPlayed() {
+        return turnsPlayed;
+    }
+
+    /**
+     * Plays until there is a winner or the turn limit is reached.
+     */
+    public Result run() {
+        while (!game.hasWinner() && turnsPlayed < maxTurns) {
+            step();
+        }
+        return new Result(game.getSeed(), turnsPlayed,
+                game.hasWinner() ? game.getWinner().getId() : -1, game.getSnapshot());
+    }
+
+    /**
+     * Plays one turn: orders, the four execution phases, production and status update.
+     * Initial placement is done before the first turn.
+     */
+    public void step() {
+        if (!placed) {
+            for (Player p : game.getAllPlayers()) {
+                providers.get(p.getId()).placeInitialUnits(game, p, game.getInitialUnits());
+            }
+            game.publishSnapshot("placement");
+            placed = true;
+        }
+
+        for (Player p : game.getAllPlayers()) {
+            if (p.isAlive()) {
+                providers.get(p.getId()).issueOrders(game, p);
+            }
+        }
+        game.executeAllOrders();
+        game.endTurn();
+        game.updatePlayerStatus();
+        turnsPlayed++;
+    }
+
+    /**
+     * Runs independent simulations in parallel on all cores; results are in input order.
+     */
+    public static List<Result> runAll(List<Simulation> simulations) {
+        return simulations.parallelStream()
+                .map(Simulation::run)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,173 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rebuilds a Game from the binary snapshot format written by SnapshotWriter.
+ * Large files are memory-mapped rather than copied onto the heap.
+ */
+public class SnapshotReader {
+    // Files at least this large are mapped instead of read
+    static final long MMAP_THRESHOLD = 1 << 20;
+
+    private SnapshotReader() {}
+
+    /**
+     * Reads the snapshot in file into a new game attached to server (which may be null).
+     */
+    public static Game read(Path file, RiscServer server) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            ByteBuffer buf;
+            if (size >= MMAP_THRESHOLD) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            } else {
+                buf = ByteBuffer.allocate((int) size);
+                while (buf.hasRemaining() && ch.read(buf) >= 0) {
+                    // keep reading
+                }
+                buf.flip();
+            }
+            return decode(buf, server);
+        }
+    }
+
+    /**
+     * Decodes a snapshot from buf (read from its position) into a new game.
+     */
+    public static Game decode(ByteBuffer buf, RiscServer server) throws IOException {
+        try {
+            if (buf.getInt() != SnapshotWriter.MAGIC) {
+                throw new IOException("Not a RISC snapshot");
+            }
+            short version = buf.getShort();
+            if (version != SnapshotWriter.VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int header = buf.getShort();
+            long seed = buf.getLong();
+            int turn = buf.getInt();
+            int winnerID = buf.getInt();
+            int initialUnits = buf.getInt();
+            CombatEngine.Mode mode = CombatEngine.Mode.values()[buf.get()];
+
+            int playerCount = buf.getInt();
+            if (playerCount < 1 || playerCount > Game.MAX_PLAYERS) {
+                throw new IOException("Corrupt snapshot: " + playerCount + " players");
+            }
+            List<Player> players = new ArrayList<>(playerCount);
+            int[][] owned = new int[playerCount][];
+            for (int id = 0; id < playerCount; id++) {
+                String name = getString(buf);
+                int flags = buf.get();
+                Player p = (flags & SnapshotWriter.AI) != 0 ? new AIPlayer(id, name) : new Player(id, name);
+                p.setAlive((flags & SnapshotWriter.ALIVE) != 0);
+                int food = buf.getInt();
+                int tech = buf.getInt();
+                int maxTech = buf.get();
+                int nextTech = buf.get();
+                p.restoreState(food, tech, maxTech, (flags & SnapshotWriter.UPGRADING) != 0, nextTech);
+                owned[id] = new int[buf.getInt()];
+                for (int k = 0; k < owned[id].length; k++) {
+                    owned[id][k] = buf.getInt();
+                }
+                players.add(p);
+            }
+
+            int[][] pairs = new int[buf.getInt()][];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = new int[] {buf.getInt(), buf.getInt()};
+            }
+
+            int territoryCount = buf.getInt();
+            String[] names = new String[territoryCount];
+            int[] sizes = new int[territoryCount];
+            int[] owners = new int[territoryCount];
+            int[][] neighbors = new int[territoryCount][];
+            int[][] units = new int[territoryCount][];
+            int[] offsets = new int[territoryCount + 1];
+            for (int i = 0; i < territoryCount; i++) {
+                names[i] = getString(buf);
+                sizes[i] = buf.getInt();
+                owners[i] = buf.getInt();
+                int[] nbrs = new int[buf.getInt()];
+                for (int k = 0; k < nbrs.length; k++) {
+                    nbrs[k] = buf.getInt();
+                }
+                neighbors[i] = nbrs;
+                offsets[i + 1] = offsets[i] + nbrs.length;
+                // (player, level, count) triples
+                int[] garrison = new int[0];
+                int garrisons = buf.getInt();
+                for (int g = 0; g < garrisons; g++) {
+                    int pid = buf.getInt();
+                    int levels = buf.get();
+                    int at = garrison.length;
+                    garrison = Arrays.copyOf(garrison, at + 3 * levels);
+                    for (int l = 0; l < levels; l++) {
+                        garrison[at + 3 * l] = pid;
+                        garrison[at + 3 * l + 1] = buf.get();
+                        garrison[at + 3 * l + 2] = buf.getInt();
+                    }
+                }
+                units[i] = garrison;
+            }
+            int[] adjacency = new int[offsets[territoryCount]];
+            for (int i = 0; i < territoryCount; i++) {
+                System.arraycopy(neighbors[i], 0, adjacency, offsets[i], neighbors[i].length);
+            }
+
+            Ruleset rules = (header & SnapshotWriter.RULES) != 0 ? Ruleset.parse(getString(buf)) : null;
+            float[] x = null;
+            float[] y = null;
+            if ((header & SnapshotWriter.LAYOUT) != 0) {
+                x = new float[territoryCount];
+                y = new float[territoryCount];
+                for (int i = 0; i < territoryCount; i++) x[i] = buf.getFloat();
+                for (int i = 0; i < territoryCount; i++) y[i] = buf.getFloat();
+            }
+
+            // Rooms restored on the same map share one topology, as they did before the restart
+            RoomState room = new RoomState(MapFile.intern(new MapTopology(names, sizes, offsets, adjacency, x, y)));
+            for (int i = 0; i < territoryCount; i++) {
+                Territory t = room.territory(i);
+                if (owners[i] >= 0) {
+                    t.setOwner(players.get(owners[i]));
+                }
+                for (int k = 0; k < units[i].length; k += 3) {
+                    t.addUnits(units[i][k], units[i][k + 1], units[i][k + 2]);
+                }
+            }
+            for (int id = 0; id < playerCount; id++) {
+                for (int tid : owned[id]) {
+                    players.get(id).addTerritory(room.territory(tid));
+                }
+            }
+
+            Game game = new Game(server, seed);
+            if (rules != null) {
+                game.setRules(rules);
+            }
+            game.restore(room, players, pairs, turn, winnerID, initialUnits, mode);
+            return game;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException
+                 | IllegalArgumentException e) {
+            throw new IOException("Truncated or corrupt snapshot", e);
+        }
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] bytes = new byte[buf.getInt()];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,237 @@
+package risc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encodes GameSnapshots in the compact binary snapshot format and writes them to disk on a
+ * background thread. Snapshots are immutable, so the turn thread only hands one over; encoding
+ * and file I/O never run on it. Files are written to a temporary sibling and then moved into
+ * place, so a crash mid-write leaves the previous snapshot intact.
+ *
+ * Format (version 1, big-endian):
+ *   int magic "RISC", short version, short flags (1: the room has its own rules,
+ *       2: the map has a layout),
+ *   long seed, int turn, int winnerID, int initialUnits, byte combatMode,
+ *   int players, each: string name, byte flags (1 alive, 2 AI, 4 upgrading),
+ *       int food, int tech, byte maxTechLevel, byte nextTechLevel,
+ *       int territories, each int id (in the player's own order, which later turns depend on),
+ *   int alliance pairs, each: int a, int b (a < b),
+ *   int territories, each: string name, int size, int ownerID (-1 for none),
+ *       int neighbours, each int id, int garrisons, each: int playerID, byte levels,
+ *       each: byte level, int count,
+ *   with the RULES flag: string rules text (see Ruleset),
+ *   with the LAYOUT flag: float x for each territory, then float y for each territory.
+ * Strings are an int byte length followed by UTF-8. The reader interns the map through
+ * MapFile.intern, so restored rooms on the same map share one topology again. The RNG needs no state beyond the seed and
+ * turn, since every stream is derived from them (see GameRandom).
+ */
+public class SnapshotWriter implements AutoCloseable {
+    static final int MAGIC = 0x52495343;   // "RISC"
+    static final short VERSION = 1;
+
+    static final int ALIVE = 1;
+    static final int AI = 2;
+    static final int UPGRADING = 4;
+
+    // Header flags
+    static final int RULES = 1;
+    static final int LAYOUT = 2;
+
+    private final ExecutorService io = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "snapshot-writer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Queues snapshot to be encoded and written to file; returns at once.
+     */
+    public CompletableFuture<Void> writeAsync(GameSnapshot snapshot, Path file) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                write(snapshot, file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, io);
+    }
+
+    /**
+     * Encodes and writes snapshot to file on the calling thread.
+     */
+    public static void write(GameSnapshot snapshot, Path file) throws IOException {
+        ByteBuffer buf = encode(snapshot);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(false);
+        }
+        try {
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Encodes snapshot; the returned buffer is flipped and ready to read.
+     */
+    public static ByteBuffer encode(GameSnapshot snapshot) {
+        Encoder out = new Encoder(estimateSize(snapshot));
+        out.putInt(MAGIC);
+        out.putShort(VERSION);
+        boolean ownRules = snapshot.getRules() != Ruleset.STANDARD;
+        MapTopology map = snapshot.getTopology();
+        boolean layout = map != null && map.hasLayout();
+        out.putShort((short) ((ownRules ? RULES : 0) | (layout ? LAYOUT : 0)));
+        out.putLong(snapshot.getSeed());
+        out.putInt(snapshot.getTurn());
+        out.putInt(snapshot.getWinnerID());
+        out.putInt(snapshot.getInitialUnits());
+        out.put((byte) snapshot.getCombatMode().ordinal());
+
+        List<GameSnapshot.PlayerState> players = snapshot.getPlayers();
+        out.putInt(players.size());
+        int pairs = 0;
+        for (GameSnapshot.PlayerState p : players) {
+            out.putString(p.getName());
+            int flags = (p.isAlive() ? ALIVE : 0) | (p.isAI() ? AI : 0) | (p.isTechUpgrading() ? UPGRADING : 0);
+            out.put((byte) flags);
+            out.putInt(p.getFood());
+            out.putInt(p.getTech());
+            out.put((byte) p.getMaxTechLevel());
+            out.put((byte) p.getNextTechLevel());
+            out.putInt(p.getTerritoryCount());
+            for (int i = 0; i < p.getTerritoryCount(); i++) {
+                out.putInt(p.getTerritoryId(i));
+            }
+            for (int ally : p.getAllies()) {
+                if (ally > p.getId()) pairs++;
+            }
+        }
+        out.putInt(pairs);
+        for (GameSnapshot.PlayerState p : players) {
+            for (int ally : p.getAllies()) {
+                if (ally > p.getId()) {
+                    out.putInt(p.getId());
+                    out.putInt(ally);
+                }
+            }
+        }
+
+        List<GameSnapshot.TerritoryState> territories = snapshot.getTerritories();
+        out.putInt(territories.size());
+        for (GameSnapshot.TerritoryState t : territories) {
+            out.putString(t.getName());
+            out.putInt(t.getSize());
+            out.putInt(t.getOwnerID());
+            out.putInt(t.getNeighborCount());
+            for (int i = 0; i < t.getNeighborCount(); i++) {
+                out.putInt(t.getNeighborId(i));
+            }
+            SortedMap<Integer, SortedMap<Integer, Integer>> units = t.getUnits();
+            out.putInt(units.size());
+            for (Map.Entry<Integer, SortedMap<Integer, Integer>> e : units.entrySet()) {
+                out.putInt(e.getKey());
+                out.put((byte) e.getValue().size());
+                for (Map.Entry<Integer, Integer> lvl : e.getValue().entrySet()) {
+                    out.put((byte) (int) lvl.getKey());
+                    out.putInt(lvl.getValue());
+                }
+            }
+        }
+        if (ownRules) {
+            out.putString(snapshot.getRules().toText());
+        }
+        if (layout) {
+            for (int i = 0; i < territories.size(); i++) {
+                out.putFloat(map.getX(i));
+            }
+            for (int i = 0; i < territories.size(); i++) {
+                out.putFloat(map.getY(i));
+            }
+        }
+        return out.finish();
+    }
+
+    private static int estimateSize(GameSnapshot snapshot) {
+        int size = 64 + snapshot.getPlayers().size() * 48;
+        for (GameSnapshot.PlayerState p : snapshot.getPlayers()) {
+            size += 4 * p.getTerritoryCount();
+        }
+        for (GameSnapshot.TerritoryState t : snapshot.getTerritories()) {
+            size += 40 + t.getName().length() + 4 * t.getNeighborCount() + 16 * t.getUnits().size();
+        }
+        return size;
+    }
+
+    /**
+     * Heap buffer that doubles when full.
+     */
+    private static final class Encoder {
+        private ByteBuffer buf;
+
+        Encoder(int capacity) {
+            buf = ByteBuffer.allocate(capacity);
+        }
+
+        private void ensure(int bytes) {
+            if (buf.remaining() < bytes) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + bytes));
+                buf.flip();
+                grown.put(buf);
+                buf = grown;
+            }
+        }
+
+        void put(byte b) { ensure(1); buf.put(b); }
+        void putShort(short v) { ensure(2); buf.putShort(v); }
+        void putInt(int v) { ensure(4); buf.putInt(v); }
+        void putLong(long v) { ensure(8); buf.putLong(v); }
+        void putFloat(float v) { ensure(4); buf.putFloat(v); }
+
+        void putString(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buf.putInt(bytes.length);
+            buf.put(bytes);
+        }
+
+        ByteBuffer finish() {
+            buf.flip();
+            return buf;
+        }
+    }
+
+    /**
+     * Waits for queued writes to finish and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        io.shutdown();
+        try {
+            io.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -5,54 +5,104 @@ import java.util.*;
 /**
  * Represents a territory on the game map, with an owner, neighbors, size,
  * and stationed units for multiple players at different levels.
+ *
+ * A territory is a handle into a RoomState: the room's arrays hold its owner and garrison,
+ * and the shared MapTopology its name, size and neighbors. A territory created with a
+ * constructor gets a one-territory state of its own and keeps its neighbors in a list.
  */
 public class Territory {
-    private final String name;
-    private Player owner; // Territory owner
+    private int id = -1; // index in the game's territory list, assigned at map setup
+    private final RoomState room;
+    private final int slot; // index into room
+    // Only for standalone territories; room territories take their neighbors from the topology
     private final List<Territory> neighbors;
-    private int size;
 
-    // Stationed units: playerID -> (unitLevel -> count)
-    private final Map<Integer, Map<Integer, Integer>> stationedUnits;
+    /**
+     * Notified after the territory changes hands; may be called from attack worker threads.
+     */
+    interface OwnerListener {
+        void ownerChanged(Territory t, Player previous);
+    }
 
     public Territory(String name) {
         this(name, 1);
     }
 
     public Territory(String name, int size) {
-        this.name = name;
-        this.size = size;
+        this.room = RoomState.standalone(name, size, this);
+        this.slot = 0;
         this.neighbors = new ArrayList<>();
-        this.stationedUnits = new HashMap<>();
+    }
+
+    /**
+     * Territory slot of a room; see RoomState.
+     */
+    Territory(RoomState room, int slot) {
+        this.room = room;
+        this.slot = slot;
+        this.id = slot;
+        this.neighbors = null;
+    }
+
+    RoomState room() {
+        return room;
+    }
+
+    int slot() {
+        return slot;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
     }
 
     public String getName() {
-        return name;
+        return room.getTopology().getName(slot);
     }
 
     public Player getOwner() {
-        return owner;
+        return room.getOwner(slot);
     }
 
     public void setOwner(Player owner) {
-        this.owner = owner;
+        room.setOwner(slot, owner);
     }
 
     public int getSize() {
-        return size;
+        return room.getSize(slot);
     }
 
     public void setSize(int size) {
-        this.size = size;
+        room.setSize(slot, size);
+    }
+
+    public int getVersion() {
+        return room.getVersion(slot);
     }
 
     public List<Territory> getNeighbors() {
-        return neighbors;
+        return neighbors != null ? neighbors : room.neighborsOf(slot);
     }
 
+    /**
+     * Adds a one-way border. In a room, the neighbor must belong to the same room, which then
+     * stops sharing its map's topology.
+     */
     public void addNeighbor(Territory t) {
-        if (!neighbors.contains(t)) {
+        if (getNeighbors().contains(t)) {
+            return;
+        }
+        if (neighbors != null) {
             neighbors.add(t);
+            room.touch(slot);
+        } else if (t.room == room) {
+            room.addBorder(slot, t.slot);
+        } else {
+            throw new IllegalArgumentException(t.getName() + " is not on the map of " + getName());
         }
     }
 
@@ -61,17 +111,31 @@ public class Territory {
      */
     public String neighborsString() {
         StringBuilder sb = new StringBuilder();
-        for (Territory t : neighbors) {
-            sb.append(t.name).append(" ");
+        for (Territory t : getNeighbors()) {
+            sb.append(t.getName()).append(" ");
         }
         return sb.toString().trim();
     }
 
     /**
-     * Returns the map of unit counts for a specific player.
+     * Number of a player's units of one level stationed here.
+     */
+    public int getUnits(int playerID, int level) {
+        return room.getUnits(slot, playerID, level);
+    }
+
+    /**
+     * Returns a copy of the map of unit counts (level -> count) for a specific player.
      */
     public Map<Integer,Integer> getStationedUnitsMap(int playerID) {
-        return stationedUnits.getOrDefault(playerID, new HashMap<>());
+        return room.unitsOf(slot, playerID);
+    }
+
+    /**
+     * Returns the IDs of all players with units stationed here.
+     */
+    public Set<Integer> getStationedPlayerIDs() {
+        return room.stationedPlayers(slot);
     }
 
     /**
@@ -79,9 +143,7 @@ public class Territory {
      */
     public void addUnits(int playerID, int level, int count) {
         if (count <= 0) return;
-        stationedUnits.putIfAbsent(playerID, new HashMap<>());
-        Map<Integer,Integer> levelMap = stationedUnits.get(playerID);
-        levelMap.put(level, levelMap.getOrDefault(level, 0) + count);
+        room.addUnits(slot, playerID, level, count);
     }
 
     /**
@@ -89,24 +151,7 @@ public class Territory {
      * @return true if removal succeeded, false otherwise.
      */
     public boolean removeUnits(int playerID, int level, int count) {
-        Map<Integer,Integer> levelMap = stationedUnits.get(playerID);
-        if (levelMap == null) {
-            return false;
-        }
-        int cur = levelMap.getOrDefault(level, 0);
-        if (cur < count) {
-            return false;
-        }
-        int remain = cur - count;
-        if (remain == 0) {
-            levelMap.remove(level);
-        } else {
-            levelMap.put(level, remain);
-        }
-        if (levelMap.isEmpty()) {
-            stationedUnits.remove(playerID);
-        }
-        return true;
+        return room.removeUnits(slot, playerID, level, count);
     }
 
     /**
@@ -114,48 +159,60 @@ public class Territory {
      * @return map of removed (level -> count) or null if none.
      */
     public Map<Integer,Integer> removeAllUnitsOfPlayer(int playerID) {
-        return stationedUnits.remove(playerID);
+        return room.removeAllUnitsOf(slot, playerID);
     }
 
     /**
      * Returns the total number of units from all players in this territory.
      */
     public int getTotalUnits() {
-        int sum = 0;
-        for (Map<Integer, Integer> levelMap : stationedUnits.values()) {
-            for (int c : levelMap.values()) {
-                sum += c;
-            }
-        }
-        return sum;
+        return room.totalUnits(slot);
     }
 
     /**
      * Food production per turn, equal to territory size.
      */
     public int getFoodProduction() {
-        return size;
+        return getSize();
     }
 
     /**
      * Tech production per turn, equal to territory size.
      */
     public int getTechProduction() {
-        return size;
+        return getSize();
     }
 
     /**
      * Returns a string representation of all stationed units for debugging.
-     * Example: "P0->{0=5,1=2}; P1->{0=3}".
+     * Example: "P0->{0=5, 1=2}; P1->{0=3}; ".
      */
     public String stationedUnitsString() {
-        StringBuilder sb = new StringBuilder();
-        for (Map.Entry<Integer, Map<Integer,Integer>> e : stationedUnits.entrySet()) {
-            sb.append("P").append(e.getKey()).append("->").append(e.getValue()).append("; ");
-        }
-        if (sb.length() == 0) {
-            sb.append("No units");
+        return room.unitsString(slot);
+    }
+
+    /**
+     * Returns this territory's block of Game.getMapState(). The block is rebuilt only after the
+     * owner (or the owner's name), size, neighbors or garrison changed.
+     */
+    public String renderState() {
+        Player owner = getOwner();
+        String ownerName = (owner == null ? "None" : owner.getName());
+        String block = room.cachedRender(slot, ownerName);
+        if (block == null) {
+            block = renderBlock(getName(), ownerName, getSize(), neighborsString(), stationedUnitsString());
+            room.cacheRender(slot, ownerName, block);
         }
+        return block;
+    }
+
+    static String renderBlock(String name, String ownerName, int size, String neighbors, String units) {
+        StringBuilder sb = new StringBuilder(48 + name.length() + ownerName.length()
+                + neighbors.length() + units.length());
+        sb.append(name).append(" (").append(ownerName).append(")\n");
+        sb.append("  Size: ").append(size)
+                .append(", Neighbors: ").append(neighbors).append("\n");
+        sb.append("  StationedUnits: ").append(units).append("\n\n");
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,138 @@
+package risc;
+
+import java.util.*;
+
+/**
+ * Territories owned by one player: a dense list for iteration plus a slot index keyed by
+ * territory id, so add, remove, contains and size are all O(1). Removal swaps the last
+ * territory into the freed slot, so iteration order is stable only between removals.
+ * Territories without an id (id < 0, e.g. built ad hoc in tests) or whose id is already taken
+ * by a territory of another map are indexed by identity instead.
+ * A territory's id must not change while it is in the set.
+ */
+final class TerritorySet extends AbstractList<Territory> implements RandomAccess {
+    private Territory[] items = new Territory[8];
+    private int size;
+    // territory id -> slot + 1 (0 means absent)
+    private int[] slotById = new int[8];
+    private Map<Territory, Integer> unindexed;
+
+    @Override
+    public Territory get(int index) {
+        Objects.checkIndex(index, size);
+        return items[index];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Territory && slotOf((Territory) o) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return o instanceof Territory ? slotOf((Territory) o) : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * Adds t unless already present; returns whether the set changed.
+     */
+    @Override
+    public boolean add(Territory t) {
+        if (slotOf(t) >= 0) return false;
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size * 2);
+        }
+        items[size] = t;
+        setSlot(t, size);
+        size++;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Removes t if present; returns whether the set changed.
+     */
+    public boolean removeTerritory(Territory t) {
+        int slot = slotOf(t);
+        if (slot < 0) return false;
+        clearSlot(t);
+        int last = --size;
+        if (slot != last) {
+            Territory moved = items[last];
+            items[slot] = moved;
+            setSlot(moved, slot);
+        }
+        items[last] = null;
+        modCount++;
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return o instanceof Territory && removeTerritory((Territory) o);
+    }
+
+    @Override
+    public Territory remove(int index) {
+        Territory t = get(index);
+        removeTerritory(t);
+        return t;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            clearSlot(items[i]);
+            items[i] = null;
+        }
+        size = 0;
+        modCount++;
+    }
+
+    private int slotOf(Territory t) {
+        int id = t.getId();
+        if (id >= 0 && id < slotById.length) {
+            int slot = slotById[id] - 1;
+            if (slot >= 0 && items[slot] == t) return slot;
+        }
+        if (unindexed == null) return -1;
+        Integer slot = unindexed.get(t);
+        return slot == null ? -1 : slot;
+    }
+
+    private void setSlot(Territory t, int slot) {
+        int id = t.getId();
+        if (id >= 0) {
+            if (id >= slotById.length) {
+                slotById = Arrays.copyOf(slotById, Math.max(id + 1, slotById.length * 2));
+            }
+            int current = slotById[id] - 1;
+            // the id slot may belong to an equal id from another map; index that one by identity
+            if (current < 0 || items[current] == t) {
+                slotById[id] = slot + 1;
+                return;
+            }
+        }
+        if (unindexed == null) unindexed = new IdentityHashMap<>();
+        unindexed.put(t, slot);
+    }
+
+    private void clearSlot(Territory t) {
+        int id = t.getId();
+        if (id >= 0 && id < slotById.length && slotById[id] > 0 && items[slotById[id] - 1] == t) {
+            slotById[id] = 0;
+        } else if (unindexed != null) {
+            unindexed.remove(t);
+        }
+    }
+}
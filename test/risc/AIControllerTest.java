@@ -1,5 +1,6 @@
 package risc;
 
+import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.List;
@@ -9,8 +10,10 @@ public class AIControllerTest {
         testDoInitialPlacement();
         testGenerateTurnOrdersSafely();
         testBuildPrompt();
+        testPromptReadsOneSnapshot();
         testParseContent();
         testApplyLine();
+        testApplyLineChecksBudget();
 
         System.out.println("All AIControllerTest tests passed!");
     }
@@ -30,12 +33,18 @@ public class AIControllerTest {
 
         game.getAllPlayers().set(0, ai);
 
+        List<GameEvent> events = new ArrayList<>();
+        List<String> text = new ArrayList<>();
+        game.getEvents().subscribe(events::add);
+        game.setBroadcastSink(text::add);
         AIController controller = new AIController(game, ai);
         controller.doInitialPlacement();
 
         for (Territory t : ai.getTerritories()) {
             assert !t.getStationedUnitsMap(ai.getId()).isEmpty() : "Territory " + t.getName() + " should have units";
         }
+        assert events.equals(List.of(new GameEvent.AiPlaced(0))) : "Placement should be a typed event, not a notice";
+        assert text.equals(List.of("DeepSeekBot has completed the initial placement.")) : text;
     }
 
     private static void testGenerateTurnOrdersSafely() {
@@ -112,6 +121,35 @@ public class AIControllerTest {
         }
     }
 
+    private static void testPromptReadsOneSnapshot() {
+        Game game = new Game(null);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        AIPlayer ai = new AIPlayer(1, "DeepSeekBot");
+        for (Territory t : new ArrayList<>(game.getPlayer(1).getTerritories())) {
+            t.setOwner(ai);
+            ai.addTerritory(t);
+        }
+        game.getAllPlayers().set(1, ai);
+        game.getTerritoryByName("E").addUnits(1, 0, 7);
+        game.publishSnapshot("test");
+
+        // Live changes after the snapshot must not leak into the prompt
+        ai.addTech(40);
+        game.getTerritoryByName("E").addUnits(1, 0, 5);
+
+        try {
+            Method buildPrompt = AIController.class.getDeclaredMethod("buildPrompt");
+            buildPrompt.setAccessible(true);
+            String prompt = (String) buildPrompt.invoke(new AIController(game, ai));
+            assert prompt.contains("Food=100 Tech=0 ") : "Status should come from the snapshot";
+            assert prompt.contains("A E B 0 7 -> ") : "Odds should use the snapshot's garrison";
+            assert !prompt.contains("A E B 0 12 -> ") : "Odds should not see units added after the snapshot";
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static void testParseContent() {
         Game game = new Game(null);
         AIPlayer ai = new AIPlayer(0, "DeepSeekBot");
@@ -183,4 +221,28 @@ public class AIControllerTest {
             assert false : "Exception shouldn't be thrown: " + e.getMessage();
         }
     }
-}
\ No newline at end of file
+
+    private static void testApplyLineChecksBudget() {
+        Game game = new Game(null);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        game.getTerritoryByName("A").addUnits(0, 0, 5);
+        AIController controller = new AIController(game, new AIPlayer(0, "DeepSeekBot"));
+
+        try {
+            Method applyLine = AIController.class.getDeclaredMethod("applyLine", String.class);
+            applyLine.setAccessible(true);
+            Field lastRejection = AIController.class.getDeclaredField("lastRejection");
+            lastRejection.setAccessible(true);
+
+            assert (Boolean) applyLine.invoke(controller, "M A B 0 5");
+            assert lastRejection.get(controller) == null : "An affordable move should be accepted";
+            assert (Boolean) applyLine.invoke(controller, "M A B 0 1");
+            assert String.valueOf(lastRejection.get(controller)).startsWith("Not enough level 0 units in A")
+                    : "Units already ordered away should be refused, got " + lastRejection.get(controller);
+            assert game.getAllOrders().size() == 1 : "Only the accepted order should be queued";
+        } catch (ReflectiveOperationException e) {
+            assert false : "Exception shouldn't be thrown: " + e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package risc;
+
+public class AllianceMatrixTest {
+    public static void main(String[] args) {
+        testSymmetry();
+        testGrowsPastOneWord();
+        testPassableFollowsAlliances();
+        testPassableFollowsOwnership();
+
+        System.out.println("All AllianceMatrixTest tests passed!");
+    }
+
+    private static void testSymmetry() {
+        AllianceMatrix m = new AllianceMatrix();
+        assert !m.isAllied(0, 1) : "Nobody is allied initially";
+        assert m.ally(0, 1) : "New alliance should be reported";
+        assert !m.ally(1, 0) : "Alliance already exists in the other direction";
+        assert m.isAllied(0, 1) && m.isAllied(1, 0) : "Alliances are symmetric";
+        assert !m.ally(2, 2) : "A player cannot ally with itself";
+
+        int v = m.getVersion();
+        assert m.breakAlliance(1, 0) : "Breaking should be reported";
+        assert !m.isAllied(0, 1) && !m.isAllied(1, 0) : "Both directions should be cleared";
+        assert m.getVersion() > v : "Version should advance on change";
+        assert !m.breakAlliance(0, 1) : "Nothing left to break";
+    }
+
+    private static void testGrowsPastOneWord() {
+        AllianceMatrix m = new AllianceMatrix();
+        m.ally(3, 130);
+        m.ally(64, 63);
+        assert m.isAllied(130, 3) && m.isAllied(63, 64) : "Ids past 64 should work";
+        assert !m.isAllied(3, 66) && !m.isAllied(200, 3) : "Unrelated and unknown ids are not allied";
+    }
+
+    private static int unitsAt(Game game, String name) {
+        return game.getTerritoryByName(name).getStationedUnitsMap(0).getOrDefault(0, 0);
+    }
+
+    private static void testPassableFollowsAlliances() {
+        Game game = TestGames.newGame(11L, 3);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.addOrder(new MoveOrder(0, "A", "D", 0, 2));
+        game.executeAllMoveOrders();
+        assert unitsAt(game, "D") == 0 : "Cannot move into a non-allied territory";
+
+        game.formAlliance(0, 1);
+        assert game.getPlayer(0).isAlliedWith(1) && game.getPlayer(1).isAlliedWith(0) : "Players see the alliance";
+        game.executeAllMoveOrders();
+        assert unitsAt(game, "D") == 2 : "Allied territory should become passable";
+
+        game.breakAlliance(0, 1);
+        game.executeAllMoveOrders();
+        assert unitsAt(game, "D") == 2 : "Passable set should shrink again after the break";
+    }
+
+    private static void testPassableFollowsOwnership() {
+        Game game = TestGames.newGame(11L, 3);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        Territory c = game.getTerritoryByName("C");
+        game.executeAllMoveOrders();   // builds the cache
+        c.setOwner(game.getPlayer(0));
+        game.addOrder(new MoveOrder(0, "A", "C", 0, 3));
+        game.executeAllMoveOrders();
+        assert unitsAt(game, "C") == 3 : "Conquered land should be passable without an explicit refresh";
+    }
+}
@@ -3,6 +3,7 @@ package risc;
 public class AllianceOrderTest {
     public static void main(String[] args) {
         testConstructorAndGetters();
+        testTargetResolvedOnSubmission();
     }
 
     private static void testConstructorAndGetters() {
@@ -13,5 +14,20 @@ public class AllianceOrderTest {
         assert order.getSourceName() == null : "Source name should be null";
         assert order.getDestName() == null : "Destination name should be null";
         assert order.getNumUnits() == 0 : "Number of units should be 0";
+        assert order.getTargetPlayerID() == -1 : "Target ID is unknown until submitted";
+    }
+
+    private static void testTargetResolvedOnSubmission() {
+        Game game = new Game(null);
+        game.setUpMap(3);
+        game.initPlayers(3);
+
+        AllianceOrder known = new AllianceOrder(0, "Player3");
+        AllianceOrder unknown = new AllianceOrder(0, "Nobody");
+        game.addOrder(known);
+        game.addOrder(unknown);
+
+        assert known.getTargetPlayerID() == 2 : "Player3 should resolve to ID 2";
+        assert unknown.getTargetPlayerID() == -1 : "Unknown names stay unresolved";
     }
 }
\ No newline at end of file
@@ -0,0 +1,142 @@
+package risc;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Statistical checks that AGGREGATE combat resolution matches the PER_ROLL loop.
+ * Every sample is drawn from fixed seeds, so the outcome of each check is reproducible.
+ */
+public class CombatAggregateTest {
+    private static final int[] BONUS = {0, 1, 3, 5, 8, 11, 15};
+    private static final int SAMPLES = 20000;
+    // Critical values at roughly 1e-4 significance; a real rules mismatch fails these by far
+    private static final double Z_LIMIT = 4.0;
+    private static final double KS_FACTOR = 2.1;
+
+    public static void main(String[] args) {
+        testBinomialMoments();
+        testEvenBattle();
+        testMixedGarrison();
+        testLargeArmies();
+        testUnderdogAgainstElite();
+        testHugeArmiesFinish();
+
+        System.out.println("All CombatAggregateTest tests passed!");
+    }
+
+    private static void testBinomialMoments() {
+        SplittableRandom rng = new SplittableRandom(11);
+        int n = 1000;
+        double p = 0.3;
+        int draws = 20000;
+        double sum = 0, sumSq = 0;
+        for (int i = 0; i < draws; i++) {
+            int x = RandomSampling.binomial(rng, n, p);
+            assert x >= 0 && x <= n : "Binomial sample out of range: " + x;
+            sum += x;
+            sumSq += (double) x * x;
+        }
+        double mean = sum / draws;
+        double var = sumSq / draws - mean * mean;
+        double expectedVar = n * p * (1 - p);
+        double z = (mean - n * p) / Math.sqrt(expectedVar / draws);
+        assert Math.abs(z) < Z_LIMIT : "Binomial mean off: " + mean;
+        assert Math.abs(var / expectedVar - 1) < 0.05 : "Binomial variance off: " + var;
+    }
+
+    private static void testEvenBattle() {
+        compareModes("30 L0 vs 30 L0", 0, 30, new int[]{30, 0, 0, 0, 0, 0, 0}, 101);
+    }
+
+    private static void testMixedGarrison() {
+        compareModes("50 L3 vs mixed", 3, 50, new int[]{40, 10, 0, 0, 5, 0, 0}, 202);
+    }
+
+    private static void testLargeArmies() {
+        compareModes("400 L1 vs 300 L0 + 60 L2", 1, 400, new int[]{300, 0, 60, 0, 0, 0, 0}, 303);
+    }
+
+    private static void testUnderdogAgainstElite() {
+        compareModes("25 L0 vs 4 L6", 0, 25, new int[]{0, 0, 0, 0, 0, 0, 4}, 404);
+    }
+
+    private static void testHugeArmiesFinish() {
+        CombatEngine engine = new CombatEngine(BONUS);
+        engine.setMode(CombatEngine.Mode.AGGREGATE);
+        SplittableRandom seeds = new SplittableRandom(5);
+        for (int i = 0; i < 50; i++) {
+            runOnce(engine, seeds.nextLong(), 0, 5000, new int[]{5000, 0, 0, 0, 0, 0, 0});
+            assert engine.getAttackerTotal() == 0 || engine.getDefenderTotal() == 0
+                    : "A 5000 vs 5000 battle must finish with one side wiped out";
+        }
+    }
+
+    /* ---------- Comparison helpers ---------- */
+
+    private static void compareModes(String label, int attLevel, int attCount, int[] garrison, long seed) {
+        int[] perRoll = sample(CombatEngine.Mode.PER_ROLL, attLevel, attCount, garrison, seed);
+        int[] aggregate = sample(CombatEngine.Mode.AGGREGATE, attLevel, attCount, garrison, seed + 1);
+
+        // Outcomes are encoded as attacker survivors minus defender survivors; > 0 means conquest
+        double winA = fraction(perRoll), winB = fraction(aggregate);
+        double pooled = (winA + winB) / 2;
+        double se = Math.sqrt(pooled * (1 - pooled) * 2.0 / SAMPLES);
+        if (se > 0) {
+            double z = (winA - winB) / se;
+            assert Math.abs(z) < Z_LIMIT : label + ": win rates differ, " + winA + " vs " + winB;
+        }
+
+        double ks = ksStatistic(perRoll, aggregate);
+        double critical = KS_FACTOR * Math.sqrt(2.0 / SAMPLES);
+        assert ks < critical : label + ": survivor distributions differ, KS=" + ks;
+    }
+
+    private static int[] sample(CombatEngine.Mode mode, int attLevel, int attCount, int[] garrison, long seed) {
+        CombatEngine engine = new CombatEngine(BONUS);
+        engine.setMode(mode);
+        SplittableRandom seeds = new SplittableRandom(seed);
+        int[] outcomes = new int[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            outcomes[i] = runOnce(engine, seeds.nextLong(), attLevel, attCount, garrison);
+        }
+        return outcomes;
+    }
+
+    private static int runOnce(CombatEngine engine, long seed, int attLevel, int attCount, int[] garrison) {
+        engine.reset(new SplittableRandom(seed));
+        engine.addAttackers(attLevel, attCount);
+        for (int lvl = 0; lvl < garrison.length; lvl++) {
+            engine.addDefenders(lvl, garrison[lvl]);
+        }
+        engine.resolve();
+        return engine.getAttackerTotal() - engine.getDefenderTotal();
+    }
+
+    private static double fraction(int[] outcomes) {
+        int wins = 0;
+        for (int o : outcomes) {
+            if (o > 0) wins++;
+        }
+        return wins / (double) outcomes.length;
+    }
+
+    /**
+     * Two-sample Kolmogorov-Smirnov statistic over the integer outcomes.
+     */
+    private static double ksStatistic(int[] a, int[] b) {
+        int[] x = a.clone();
+        int[] y = b.clone();
+        Arrays.sort(x);
+        Arrays.sort(y);
+        int i = 0, j = 0;
+        double max = 0;
+        while (i < x.length && j < y.length) {
+            int v = Math.min(x[i], y[j]);
+            while (i < x.length && x[i] == v) i++;
+            while (j < y.length && y[j] == v) j++;
+            max = Math.max(max, Math.abs(i / (double) x.length - j / (double) y.length));
+        }
+        return max;
+    }
+}
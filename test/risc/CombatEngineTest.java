@@ -0,0 +1,102 @@
+package risc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class CombatEngineTest {
+    private static final int[] BONUS = {0, 1, 3, 5, 8, 11, 15};
+
+    public static void main(String[] args) {
+        testEmptyDefenderLosesImmediately();
+        testOneSideAlwaysWipedOut();
+        testSingleDuelOdds();
+        testSameSeedSameOutcome();
+        testLargeBattle();
+
+        System.out.println("All CombatEngineTest tests passed!");
+    }
+
+    private static void testEmptyDefenderLosesImmediately() {
+        CombatEngine engine = new CombatEngine(BONUS);
+        engine.reset(new SplittableRandom(1));
+        engine.addAttackers(0, 3);
+
+        assert engine.resolve() : "Attacker should win against an empty territory";
+        assert engine.getAttackerCount(0) == 3 : "No attacker should be lost without a fight";
+    }
+
+    private static void testOneSideAlwaysWipedOut() {
+        CombatEngine engine = new CombatEngine(BONUS);
+        SplittableRandom seeds = new SplittableRandom(42);
+        for (int i = 0; i < 500; i++) {
+            Map<Integer, Integer> garrison = new HashMap<>();
+            garrison.put(0, 1 + seeds.nextInt(10));
+            garrison.put(2, seeds.nextInt(5));
+            garrison.put(5, seeds.nextInt(3));
+            int attackers = 1 + seeds.nextInt(15);
+
+            engine.reset(new SplittableRandom(seeds.nextLong()));
+            engine.addAttackers(3, attackers);
+            engine.addDefenders(garrison);
+            boolean won = engine.resolve();
+
+            if (won) {
+                assert engine.getDefenderTotal() == 0 : "Defenders should be wiped out on conquest";
+                assert engine.getAttackerTotal() > 0 : "A winning attacker keeps at least one unit";
+                assert engine.getAttackerTotal() <= attackers : "Survivors cannot exceed the attacking force";
+            } else {
+                assert engine.getAttackerTotal() == 0 : "Attackers should be wiped out on a failed attack";
+                assert engine.getDefenderCount(5) <= garrison.get(5) : "Defender counts only decrease";
+            }
+        }
+    }
+
+    private static void testSingleDuelOdds() {
+        // One L0 unit against one L0 unit: the attacker needs a strictly higher roll, p = 190/400
+        CombatEngine engine = new CombatEngine(BONUS);
+        SplittableRandom seeds = new SplittableRandom(7);
+        int trials = 40000;
+        int wins = 0;
+        for (int i = 0; i < trials; i++) {
+            engine.reset(new SplittableRandom(seeds.nextLong()));
+            engine.addAttackers(0, 1);
+            engine.addDefenders(0, 1);
+            if (engine.resolve()) wins++;
+        }
+        double rate = wins / (double) trials;
+        assert Math.abs(rate - 0.475) < 0.015 : "1v1 win rate should be about 0.475, got " + rate;
+    }
+
+    private static void testSameSeedSameOutcome() {
+        CombatEngine engine = new CombatEngine(BONUS);
+        int[] first = new int[2];
+        for (int run = 0; run < 2; run++) {
+            engine.reset(new SplittableRandom(99));
+            engine.addAttackers(1, 40);
+            engine.addDefenders(0, 30);
+            engine.addDefenders(4, 5);
+            engine.resolve();
+            if (run == 0) {
+                first[0] = engine.getAttackerTotal();
+                first[1] = engine.getDefenderTotal();
+            } else {
+                assert first[0] == engine.getAttackerTotal() : "Same seed should give same attacker survivors";
+                assert first[1] == engine.getDefenderTotal() : "Same seed should give same defender survivors";
+            }
+        }
+    }
+
+    private static void testLargeBattle() {
+        CombatEngine engine = new CombatEngine(BONUS);
+        SplittableRandom seeds = new SplittableRandom(3);
+        for (int i = 0; i < 1000; i++) {
+            engine.reset(new SplittableRandom(seeds.nextLong()));
+            engine.addAttackers(2, 500);
+            engine.addDefenders(0, 400);
+            engine.addDefenders(1, 100);
+            engine.resolve();
+            assert engine.getAttackerTotal() == 0 || engine.getDefenderTotal() == 0 : "Battle must finish";
+        }
+    }
+}
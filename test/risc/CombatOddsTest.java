@@ -0,0 +1,107 @@
+package risc;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+public class CombatOddsTest {
+    private static final int[] BONUS = {0, 1, 3, 5, 8, 11, 15};
+
+    public static void main(String[] args) {
+        testTrivialCases();
+        testOneOnOne();
+        testTableAgreesWithLargePath();
+        testMixedGarrisonMatchesSimulation();
+        testSingleLevelMatchesMixedPath();
+        testRepeatedQueriesAreStable();
+
+        System.out.println("All CombatOddsTest tests passed!");
+    }
+
+    private static void testTrivialCases() {
+        CombatOdds odds = new CombatOdds(BONUS);
+
+        CombatOdds.Odds empty = odds.attack(0, 5, new HashMap<>());
+        assert empty.getAttackerWinProbability() == 1.0 : "Empty territory is always conquered";
+        assert empty.getExpectedAttackerSurvivors() == 5 : "No losses against an empty territory";
+
+        CombatOdds.Odds none = odds.attack(0, 0, 0, 3);
+        assert none.getAttackerWinProbability() == 0.0 : "Zero attackers cannot win";
+        assert none.getExpectedDefenderSurvivors() == 3 : "Defenders keep everything against no attack";
+    }
+
+    private static void testOneOnOne() {
+        CombatOdds odds = new CombatOdds(BONUS);
+        double p = odds.attack(0, 1, 0, 1).getAttackerWinProbability();
+        assert Math.abs(p - 190.0 / 400.0) < 1e-12 : "1v1 L0 odds should be 190/400, got " + p;
+
+        // Two attackers against one defender: win unless both duels are lost
+        double q = 1 - 190.0 / 400.0;
+        double p2 = odds.attack(0, 2, 0, 1).getAttackerWinProbability();
+        assert Math.abs(p2 - (1 - q * q)) < 1e-12 : "2v1 L0 odds should be 1 - q^2, got " + p2;
+    }
+
+    private static void testTableAgreesWithLargePath() {
+        // 32 is served from the precomputed table, 33 by the row DP; they share one recurrence
+        CombatOdds odds = new CombatOdds(BONUS);
+        double inTable = odds.attack(1, 32, 0, 30).getAttackerWinProbability();
+        double beyond = odds.attack(1, 33, 0, 30).getAttackerWinProbability();
+        assert beyond >= inTable : "One more attacker should never lower the odds";
+
+        CombatOdds fresh = new CombatOdds(BONUS, 0);
+        double again = fresh.attack(1, 33, 0, 30).getAttackerWinProbability();
+        assert again == beyond : "Uncached query should give the same value";
+    }
+
+    private static void testMixedGarrisonMatchesSimulation() {
+        CombatOdds odds = new CombatOdds(BONUS);
+        Map<Integer, Integer> garrison = new HashMap<>();
+        garrison.put(0, 6);
+        garrison.put(2, 3);
+        garrison.put(5, 1);
+        CombatOdds.Odds exact = odds.attack(2, 14, garrison);
+
+        CombatEngine engine = new CombatEngine(BONUS);
+        SplittableRandom seeds = new SplittableRandom(17);
+        int trials = 40000;
+        int wins = 0;
+        double attLeft = 0;
+        for (int i = 0; i < trials; i++) {
+            engine.reset(new SplittableRandom(seeds.nextLong()));
+            engine.addAttackers(2, 14);
+            engine.addDefenders(garrison);
+            if (engine.resolve()) wins++;
+            attLeft += engine.getAttackerTotal();
+        }
+        double rate = wins / (double) trials;
+        double se = Math.sqrt(exact.getAttackerWinProbability() * (1 - exact.getAttackerWinProbability()) / trials);
+        assert Math.abs(rate - exact.getAttackerWinProbability()) < 5 * se + 1e-9
+                : "DP odds " + exact + " disagree with simulated win rate " + rate;
+        assert Math.abs(attLeft / trials - exact.getExpectedAttackerSurvivors()) < 0.15
+                : "DP survivors " + exact + " disagree with simulation " + attLeft / trials;
+    }
+
+    private static void testSingleLevelMatchesMixedPath() {
+        // A garrison with an empty extra level is still single-level; compare to the explicit DP
+        CombatOdds odds = new CombatOdds(BONUS);
+        CombatOdds.Odds table = odds.attack(3, 12, 1, 9);
+        int[] counts = new int[CombatEngine.LEVELS];
+        counts[1] = 9;
+        CombatOdds.Odds viaArray = odds.attack(3, 12, counts);
+        assert Math.abs(table.getAttackerWinProbability() - viaArray.getAttackerWinProbability()) < 1e-12
+                : "Single-level queries should agree regardless of entry point";
+    }
+
+    private static void testRepeatedQueriesAreStable() {
+        CombatOdds odds = new CombatOdds(BONUS, 2);
+        int[] big = new int[CombatEngine.LEVELS];
+        big[0] = 2000;
+        big[3] = 500;
+        CombatOdds.Odds first = odds.attack(4, 3000, big);
+        odds.attack(0, 40, 0, 50);
+        odds.attack(0, 41, 0, 50);   // evicts the first entry
+        CombatOdds.Odds second = odds.attack(4, 3000, big);
+        assert first.getAttackerWinProbability() == second.getAttackerWinProbability()
+                : "Simulated estimates are seeded by the query and must be reproducible";
+    }
+}
@@ -0,0 +1,102 @@
+package risc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+public class EventBusTest {
+    public static void main(String[] args) {
+        testTurnPublishesTypedEvents();
+        testTextMatchesBroadcasts();
+        testAllianceEvents();
+        testAiEventText();
+        testUnsubscribe();
+
+        System.out.println("All EventBusTest tests passed!");
+    }
+
+    private static void testTurnPublishesTypedEvents() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 1);
+        List<GameEvent> events = new ArrayList<>();
+        game.getEvents().subscribe(events::add);
+        game.submitOrder(new MoveOrder(0, "A", "B", 0, 20));
+        game.submitOrder(new AttackOrder(0, "B", "E", 0, 20));
+        game.executeAllMoveOrders();
+        game.executeAllAttackOrders();
+
+        int a = game.getTerritoryByName("A").getId();
+        int b = game.getTerritoryByName("B").getId();
+        int e = game.getTerritoryByName("E").getId();
+        assert events.size() == 2 : events;
+        assert events.get(0).equals(new GameEvent.Moved(0, 0, 20, a, b)) : events.get(0);
+        assert events.get(1).equals(new GameEvent.Conquered(0, 1, e)) : events.get(1);
+    }
+
+    private static void testTextMatchesBroadcasts() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 1);
+        List<String> text = new ArrayList<>();
+        game.setBroadcastSink(text::add);
+        game.submitOrder(new MoveOrder(0, "A", "B", 0, 20));
+        game.submitOrder(new AttackOrder(0, "B", "E", 0, 20));
+        game.executeAllMoveOrders();
+        game.executeAllAttackOrders();
+        game.broadcast("Plain text passes through");
+
+        assert text.equals(List.of("Player1 moves 20 L0 from A to B", "Player1 conquered E",
+                "Plain text passes through")) : text;
+        assert EventText.format(new GameEvent.Defended(1, 0, game.getTerritoryByName("F").getId()), game)
+                .equals("Player2 defends F successfully");
+        assert EventText.format(new GameEvent.Eliminated(1), game).equals("Player2 has been eliminated!");
+    }
+
+    // Three players: Player1 owns A, B; Player2 owns C, D; Player3 owns E, F. A borders C.
+    private static void testAllianceEvents() {
+        Game game = TestGames.newGame(1L, 3);
+        List<String> text = new ArrayList<>();
+        game.setBroadcastSink(text::add);
+        game.submitOrder(new AllianceOrder(0, "Player2"));
+        game.submitOrder(new AllianceOrder(1, "Player1"));
+        game.executeAllAlliances();
+        assert text.equals(List.of("Alliance formed between Player1 and Player2!")) : text;
+
+        text.clear();
+        game.clearAllOrders();
+        game.getTerritoryByName("A").addUnits(0, 0, 5);
+        game.getTerritoryByName("B").addUnits(1, 0, 2);   // Player2's troops on allied land
+        game.submitOrder(new AttackOrder(0, "A", "C", 0, 5));
+        game.executeAllAttackOrders();
+        assert text.get(0).equals("Alliance broken due to attack! (Player1 -> Player2)") : text;
+        assert text.get(1).matches("Recalled Player2's troops from Player1's land \\[B\\] to \\[[CD]\\]") : text;
+    }
+
+    private static void testAiEventText() {
+        Game game = TestGames.newGame(1L, 2);
+        assert EventText.format(new GameEvent.AiRetried(0, 2), game)
+                .equals("Player1 did not output 'D' at the end of commands, regenerating commands (attempt 2)...");
+        assert EventText.format(new GameEvent.AiOrdered(0, List.of("M A B 0 1", "T")), game)
+                .equals("[Player1 Orders]\n  M A B 0 1\n  T\n");
+        assert EventText.format(new GameEvent.AiRejected(0, List.of("A A E 0 5"), List.of("E is not adjacent to A")), game)
+                .equals("[Player1 Rejected Orders]\n  A A E 0 5 (E is not adjacent to A)\n");
+        assert EventText.format(new GameEvent.AiIdle(0), game)
+                .equals("Player1 did not generate any executable commands this turn; only 'D' was output.");
+        assert EventText.format(new GameEvent.AiSkipped(0), game)
+                .equals("Player1 failed to output 'D' correctly after multiple attempts; skipping orders for this turn.");
+    }
+
+    private static void testUnsubscribe() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 1);
+        List<GameEvent> events = new ArrayList<>();
+        Consumer<GameEvent> sub = events::add;
+        game.getEvents().subscribe(sub);
+        game.broadcast("one");
+        game.getEvents().unsubscribe(sub);
+        game.broadcast("two");
+        assert events.equals(List.of(new GameEvent.Notice("one"))) : events;
+    }
+}
@@ -0,0 +1,78 @@
+package risc;
+
+import java.util.SplittableRandom;
+
+public class GameRandomTest {
+    public static void main(String[] args) {
+        testSameSeedSameStreams();
+        testStreamsAreIndependent();
+        testDiceFromStream();
+        testGameReplaysFromSeed();
+
+        System.out.println("All GameRandomTest tests passed!");
+    }
+
+    private static void testSameSeedSameStreams() {
+        GameRandom a = new GameRandom(77);
+        GameRandom b = new GameRandom(77);
+
+        assert a.forTurn(3).nextLong() == b.forTurn(3).nextLong() : "Turn streams should match for one seed";
+        assert a.forBattle(3, 5, 1).nextLong() == b.forBattle(3, 5, 1).nextLong() : "Battle streams should match";
+        assert a.forRecall(3, 0, 2).nextLong() == b.forRecall(3, 0, 2).nextLong() : "Recall streams should match";
+    }
+
+    private static void testStreamsAreIndependent() {
+        GameRandom r = new GameRandom(77);
+        long base = r.forBattle(3, 5, 1).nextLong();
+
+        assert base != r.forBattle(4, 5, 1).nextLong() : "Another turn should give another stream";
+        assert base != r.forBattle(3, 6, 1).nextLong() : "Another territory should give another stream";
+        assert base != r.forBattle(3, 5, 2).nextLong() : "Another battle should give another stream";
+        assert base != new GameRandom(78).forBattle(3, 5, 1).nextLong() : "Another seed should give another stream";
+        assert r.forRecall(3, 0, 2).nextLong() != r.forRecall(3, 2, 0).nextLong() : "Recall direction matters";
+    }
+
+    private static void testDiceFromStream() {
+        SplittableRandom a = new SplittableRandom(9);
+        SplittableRandom b = new SplittableRandom(9);
+        for (int i = 0; i < 100; i++) {
+            int roll = DiceRoller.rollD20(a);
+            assert roll >= 1 && roll <= 20 : "Roll should be between 1 and 20, got " + roll;
+            assert roll == DiceRoller.rollD20(b) : "Same stream should give the same rolls";
+        }
+    }
+
+    private static void testGameReplaysFromSeed() {
+        assert playTurns(2024L).equals(playTurns(2024L)) : "Same seed and orders should replay bit-for-bit";
+    }
+
+    private static String playTurns(long seed) {
+        Game game = new Game(null, seed);
+        game.setUpMap(3);
+        game.initPlayers(3);
+        for (Player p : game.getAllPlayers()) {
+            for (Territory t : p.getTerritories()) {
+                t.addUnits(p.getId(), 0, 12);
+            }
+        }
+        for (int turn = 0; turn < 3; turn++) {
+            for (Player p : game.getAllPlayers()) {
+                for (Territory src : p.getTerritories()) {
+                    for (Territory dest : src.getNeighbors()) {
+                        if (dest.getOwner() != p) {
+                            game.addOrder(new AttackOrder(p.getId(), src.getName(), dest.getName(), 0, 3));
+                        }
+                    }
+                }
+            }
+            game.executeAllMoveOrders();
+            game.executeAllAttackOrders();
+            game.executeAllAlliances();
+            game.executeAllUpgrades();
+            game.clearAllOrders();
+            game.endTurn();
+            game.updatePlayerStatus();
+        }
+        return game.getMapState();
+    }
+}
@@ -0,0 +1,85 @@
+package risc;
+
+import java.util.List;
+
+public class GameSnapshotTest {
+    public static void main(String[] args) {
+        testMatchesLiveMapState();
+        testSnapshotIsFrozen();
+        testUnchangedTerritoriesAreShared();
+        testPublishedAtPhaseBoundaries();
+        testSnapshotIsReadOnly();
+
+        System.out.println("All GameSnapshotTest tests passed!");
+    }
+
+    private static void testMatchesLiveMapState() {
+        Game game = TestGames.newGame(5L, 3);
+        TestGames.garrisonAll(game, 0, 4);
+        TestGames.garrisonAll(game, 2, 1);
+        GameSnapshot snap = game.publishSnapshot("test");
+        assert snap.getMapState().equals(game.getMapState()) : "Snapshot should render the same map text";
+    }
+
+    private static void testSnapshotIsFrozen() {
+        Game game = TestGames.newGame(5L, 3);
+        TestGames.garrisonAll(game, 0, 4);
+        TestGames.garrisonAll(game, 2, 1);
+        GameSnapshot snap = game.publishSnapshot("before");
+        Territory a = game.getTerritoryByName("A");
+        int before = snap.getTerritory("A").getUnits(a.getOwner().getId()).get(0);
+
+        a.addUnits(a.getOwner().getId(), 0, 50);
+        a.setOwner(game.getPlayer(2));
+
+        assert snap.getTerritory("A").getUnits(0).get(0) == before : "Old snapshot must not see new units";
+        assert snap.getTerritory("A").getOwnerID() == 0 : "Old snapshot must not see the new owner";
+        assert game.publishSnapshot("after").getTerritory("A").getOwnerID() == 2 : "New snapshot sees the change";
+    }
+
+    private static void testUnchangedTerritoriesAreShared() {
+        Game game = TestGames.newGame(5L, 3);
+        TestGames.garrisonAll(game, 0, 4);
+        TestGames.garrisonAll(game, 2, 1);
+        GameSnapshot first = game.publishSnapshot("first");
+        Territory a = game.getTerritoryByName("A");
+        a.addUnits(a.getOwner().getId(), 0, 1);
+        GameSnapshot second = game.publishSnapshot("second");
+
+        List<GameSnapshot.TerritoryState> t1 = first.getTerritories();
+        List<GameSnapshot.TerritoryState> t2 = second.getTerritories();
+        for (int i = 0; i < t1.size(); i++) {
+            if (t1.get(i).getName().equals("A")) {
+                assert t1.get(i) != t2.get(i) : "Changed territory should be re-captured";
+            } else {
+                assert t1.get(i) == t2.get(i) : "Unchanged territory " + t1.get(i).getName() + " should be shared";
+            }
+        }
+    }
+
+    private static void testPublishedAtPhaseBoundaries() {
+        Game game = TestGames.newGame(5L, 3);
+        TestGames.garrisonAll(game, 0, 4);
+        TestGames.garrisonAll(game, 2, 1);
+        game.executeAllMoveOrders();
+        assert "move".equals(game.getSnapshot().getPhase()) : "Move phase should publish a snapshot";
+        game.endTurn();
+        assert "endTurn".equals(game.getSnapshot().getPhase()) : "End of turn should publish a snapshot";
+        assert game.getSnapshot().getTurn() == 1 : "Snapshot should carry the turn number";
+        assert game.getSnapshot().getPlayers().get(0).getFood() == game.getPlayer(0).getFood()
+                : "Snapshot should carry player resources";
+    }
+
+    private static void testSnapshotIsReadOnly() {
+        Game game = TestGames.newGame(5L, 3);
+        TestGames.garrisonAll(game, 0, 4);
+        TestGames.garrisonAll(game, 2, 1);
+        GameSnapshot snap = game.getSnapshot();
+        try {
+            snap.getTerritories().clear();
+            assert false : "Snapshot territory list should be unmodifiable";
+        } catch (UnsupportedOperationException expected) {
+            // expected
+        }
+    }
+}
@@ -12,6 +12,7 @@ public class GameTest {
         testEndTurn();
         testUpdatePlayerStatus();
         testBroadcast();
+        testMapStateCaching();
     }
 
     private static void testInitialization() {
@@ -120,4 +121,37 @@ public class GameTest {
             assert false : "Broadcast should not throw exceptions";
         }
     }
-}
\ No newline at end of file
+
+    private static void testMapStateCaching() {
+        Game game = new Game(null);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        Territory a = game.getTerritoryByName("A");
+        Territory b = game.getTerritoryByName("B");
+        a.addUnits(0, 0, 3);
+
+        StringBuilder expected = new StringBuilder("===== Current Map State =====\n");
+        for (String name : new String[]{"A", "B", "C", "D", "E", "F", "G", "H"}) {
+            Territory t = game.getTerritoryByName(name);
+            expected.append(String.format("%s (%s)\n", t.getName(), t.getOwner().getName()));
+            expected.append("  Size: ").append(t.getSize())
+                    .append(", Neighbors: ").append(t.neighborsString()).append("\n");
+            expected.append("  StationedUnits: ").append(t.stationedUnitsString()).append("\n\n");
+        }
+        expected.append("=============================\n");
+        assert game.getMapState().equals(expected.toString()) : "Cached map state should keep the same format";
+
+        String blockA = a.renderState();
+        String blockB = b.renderState();
+        a.addUnits(0, 0, 1);
+        assert a.renderState() != blockA : "Garrison change should re-render the block";
+        assert b.renderState() == blockB : "Untouched territory should reuse its cached block";
+
+        a.getOwner().setName("Renamed");
+        assert a.renderState().startsWith("A (Renamed)") : "Owner rename should re-render the block";
+
+        java.io.StringWriter out = new java.io.StringWriter();
+        game.writeMapState(out);
+        assert out.toString().equals(game.getMapState()) : "Streamed and built map state should match";
+    }
+}
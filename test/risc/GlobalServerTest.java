@@ -4,6 +4,8 @@ import java.io.*;
 import java.lang.reflect.Method;
 import java.net.ServerSocket;
 import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Map;
 
 public class GlobalServerTest {
@@ -12,6 +14,7 @@ public class GlobalServerTest {
         testHandleClient();
         testLoginOrRegister();
         testSelectOrCreateGame();
+        testNewGameReplyNamesMap();
     }
 
     private static void testConstructor() {
@@ -129,6 +132,42 @@ public class GlobalServerTest {
         }
     }
 
+    private static void testNewGameReplyNamesMap() {
+        GlobalServer server = new GlobalServer(12345);
+        try {
+            Path dir = Files.createTempDirectory("risc-maps");
+            Path file = dir.resolve("island" + MapFile.EXTENSION);
+            MapFile.write(MapBuilder.generateMap(7L, 20), file);
+            server.setMapDir(dir);
+            Method selectMethod = GlobalServer.class.getDeclaredMethod("selectOrCreateGame",
+                    BufferedReader.class, PrintWriter.class);
+            selectMethod.setAccessible(true);
+
+            StringWriter named = new StringWriter();
+            selectMethod.invoke(server, new BufferedReader(new StringReader("new 2 map island\n")),
+                    new PrintWriter(named, true));
+            assert named.toString().contains("on map island.rmap (20 territories)") : named;
+            assert !named.toString().contains("generated") : "A map file is not a generated map: " + named;
+
+            StringWriter tooMany = new StringWriter();
+            String id = (String) selectMethod.invoke(server,
+                    new BufferedReader(new StringReader("new " + Game.MAX_PLAYERS + " ai\nnew 2\n")),
+                    new PrintWriter(tooMany, true));
+            assert id != null && tooMany.toString().contains("A game holds 1 to " + Game.MAX_PLAYERS + " players")
+                    : "A room larger than an order's player field should be refused up front: " + tooMany;
+
+            StringWriter generated = new StringWriter();
+            selectMethod.invoke(server, new BufferedReader(new StringReader("new 2 map 20\n")),
+                    new PrintWriter(generated, true));
+            assert generated.toString().contains("on a generated map of 20 territories") : generated;
+
+            Files.delete(file);
+            Files.delete(dir);
+        } catch (IOException | ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static class MockSocket extends Socket {
         private final String inputContent;
 
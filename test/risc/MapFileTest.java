@@ -0,0 +1,136 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+public class MapFileTest {
+    public static void main(String[] args) throws Exception {
+        testRoundTrip();
+        testHandBuiltMapWithoutLayout();
+        testLoadsAreCachedByContent();
+        testChangedFileIsReloaded();
+        testRejectsCorruptInput();
+
+        System.out.println("All MapFileTest tests passed!");
+    }
+
+    private static void testRoundTrip() throws IOException {
+        MapTopology map = new MapGenerator(11).generate(1234);
+        MapTopology copy = MapFile.decode(MapFile.encode(map));
+        assertSameMap(map, copy);
+        assert copy.hasLayout() : "Layout should survive";
+        for (int i = 0; i < map.getTerritoryCount(); i++) {
+            assert map.getX(i) == copy.getX(i) && map.getY(i) == copy.getY(i) : "Coordinates should survive";
+        }
+    }
+
+    private static void testHandBuiltMapWithoutLayout() throws IOException {
+        MapTopology map = MapTopology.of(MapBuilder.buildMap(3));
+        MapTopology copy = MapFile.decode(MapFile.encode(map));
+        assertSameMap(map, copy);
+        assert !copy.hasLayout() : "No layout should be invented";
+    }
+
+    private static void testLoadsAreCachedByContent() throws Exception {
+        MapFile.clearCache();
+        Path dir = Files.createTempDirectory("risc-map");
+        MapTopology map = new MapGenerator(5).generate(20_000);
+        Path first = dir.resolve("first" + MapFile.EXTENSION);
+        Path second = dir.resolve("second" + MapFile.EXTENSION);
+        MapFile.write(map, first);
+        MapFile.write(map, second);
+
+        MapTopology a = MapFile.load(first);
+        assertSameMap(map, a);
+        assert MapFile.load(first) == a : "Reloading an unchanged file should hit the cache";
+        assert MapFile.load(second) == a : "Identical content under another name should share the topology";
+        assert MapFile.cachedCount() == 1 : "Only one distinct topology should be cached";
+
+        Game game = new Game(null, 3L);
+        game.setUpMap(MapFile.load(first));
+        game.initPlayers(2);
+        assert game.getSnapshot().getTerritories().size() == 20_000 : "A game should run on the loaded map";
+        delete(dir);
+    }
+
+    private static void testChangedFileIsReloaded() throws Exception {
+        MapFile.clearCache();
+        Path dir = Files.createTempDirectory("risc-map");
+        Path file = dir.resolve("m" + MapFile.EXTENSION);
+        MapFile.write(new MapGenerator(1).generate(50), file);
+        MapTopology before = MapFile.load(file);
+
+        MapFile.write(new MapGenerator(2).generate(60), file);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        MapTopology after = MapFile.load(file);
+        assert after != before && after.getTerritoryCount() == 60 : "A rewritten file should be decoded again";
+        delete(dir);
+    }
+
+    private static void testRejectsCorruptInput() {
+        ByteBuffer good = MapFile.encode(new MapGenerator(4).generate(100));
+        byte[] bytes = new byte[good.remaining()];
+        good.get(bytes);
+
+        ByteBuffer truncated = ByteBuffer.wrap(bytes, 0, bytes.length / 2).slice();
+        assertRejected(truncated, "truncated file");
+
+        byte[] badMagic = bytes.clone();
+        badMagic[0] = 0;
+        assertRejected(ByteBuffer.wrap(badMagic), "bad magic");
+
+        // Last adjacency entry before the layout points outside the map
+        byte[] badNeighbor = bytes.clone();
+        int pos = bytes.length - 8 * 100 - 4;
+        ByteBuffer.wrap(badNeighbor).putInt(pos, 100);
+        assertRejected(ByteBuffer.wrap(badNeighbor), "neighbor out of range");
+
+        // Last row offset runs past the adjacency ids
+        int adjacencyLength = ByteBuffer.wrap(bytes).getInt(12);
+        byte[] badOffsets = bytes.clone();
+        ByteBuffer.wrap(badOffsets).putInt(bytes.length - 8 * 100 - 4 * adjacencyLength - 4, adjacencyLength + 3);
+        assertRejected(ByteBuffer.wrap(badOffsets), "last row offset past the adjacency");
+
+        // Counts far larger than the file are refused before anything is allocated for them
+        byte[] hugeCount = bytes.clone();
+        ByteBuffer.wrap(hugeCount).putInt(8, Integer.MAX_VALUE);
+        assertRejected(ByteBuffer.wrap(hugeCount), "territory count larger than the file");
+        byte[] hugeAdjacency = bytes.clone();
+        ByteBuffer.wrap(hugeAdjacency).putInt(12, 1 << 30);
+        assertRejected(ByteBuffer.wrap(hugeAdjacency), "adjacency length larger than the file");
+    }
+
+    private static void assertRejected(ByteBuffer buf, String what) {
+        try {
+            MapFile.decode(buf);
+            assert false : "Decoding should fail for " + what;
+        } catch (IOException expected) {
+            // expected
+        }
+    }
+
+    private static void assertSameMap(MapTopology a, MapTopology b) {
+        assert a.getTerritoryCount() == b.getTerritoryCount() : "Territory count should survive";
+        for (int i = 0; i < a.getTerritoryCount(); i++) {
+            assert a.getName(i).equals(b.getName(i)) && a.getSize(i) == b.getSize(i) : "Territory " + i + " should survive";
+            assert a.getNeighborCount(i) == b.getNeighborCount(i) : "Neighbors of " + i + " should survive";
+            for (int k = 0; k < a.getNeighborCount(i); k++) {
+                assert a.getNeighbor(i, k) == b.getNeighbor(i, k) : "Neighbors of " + i + " should survive";
+            }
+        }
+    }
+
+    private static void delete(Path dir) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (var s = Files.list(dir)) {
+            s.forEach(files::add);
+        }
+        for (Path f : files) Files.delete(f);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,146 @@
+package risc;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+public class MapGeneratorTest {
+    public static void main(String[] args) {
+        testGeneratedMapIsConnectedAndSymmetric();
+        testSameSeedSameMap();
+        testAverageDegreeIsTunable();
+        testSizesAndNames();
+        testTopologyRoundTripsTerritories();
+        testGameOnGeneratedMap();
+        testLargeMap();
+    }
+
+    private static void testGeneratedMapIsConnectedAndSymmetric() {
+        for (int n : new int[]{10, 37, 1000}) {
+            MapTopology map = new MapGenerator(n).generate(n);
+            assert map.getTerritoryCount() == n : "Generated map should have " + n + " territories";
+            assertConnected(map);
+            for (int i = 0; i < n; i++) {
+                for (int k = 0; k < map.getNeighborCount(i); k++) {
+                    int j = map.getNeighbor(i, k);
+                    assert j != i : "A territory must not border itself";
+                    assert borders(map, j, i) : "Borders should be bidirectional";
+                }
+            }
+        }
+    }
+
+    private static void testSameSeedSameMap() {
+        MapTopology a = new MapGenerator(42).generate(500);
+        MapTopology b = new MapGenerator(42).generate(500);
+        MapTopology c = new MapGenerator(43).generate(500);
+        assert Arrays.equals(adjacency(a), adjacency(b)) : "Same seed should give the same borders";
+        assert !Arrays.equals(adjacency(a), adjacency(c)) : "Different seeds should give different maps";
+        for (int i = 0; i < 500; i++) {
+            assert a.getSize(i) == b.getSize(i) && a.getX(i) == b.getX(i) : "Same seed should give the same layout";
+        }
+    }
+
+    private static void testAverageDegreeIsTunable() {
+        MapTopology sparse = new MapGenerator(7).setAverageDegree(2.5).generate(2000);
+        MapTopology dense = new MapGenerator(7).setAverageDegree(5.5).generate(2000);
+        double sparseDegree = 2.0 * sparse.getEdgeCount() / 2000;
+        double denseDegree = 2.0 * dense.getEdgeCount() / 2000;
+        assert Math.abs(sparseDegree - 2.5) < 0.05 : "Sparse map degree was " + sparseDegree;
+        assert Math.abs(denseDegree - 5.5) < 0.05 : "Dense map degree was " + denseDegree;
+        assertConnected(sparse);
+
+        MapTopology tree = new MapGenerator(7).setAverageDegree(0).generate(2000);
+        assert tree.getEdgeCount() == 1999 : "The minimum is a spanning tree";
+    }
+
+    private static void testSizesAndNames() {
+        MapTopology map = new MapGenerator(3).setMaxTerritorySize(4).generate(3000);
+        Set<String> names = new HashSet<>();
+        Set<Integer> sizes = new HashSet<>();
+        for (int i = 0; i < map.getTerritoryCount(); i++) {
+            assert map.getSize(i) >= 1 && map.getSize(i) <= 4 : "Size out of range: " + map.getSize(i);
+            sizes.add(map.getSize(i));
+            assert names.add(map.getName(i)) : "Duplicate name " + map.getName(i);
+            assert map.getName(i).matches("[A-Z]+") : "Names should be single words";
+        }
+        assert sizes.size() > 1 : "Sizes should vary";
+        assert map.hasLayout() : "Generated maps carry layout coordinates";
+        assert "A".equals(MapGenerator.name(0)) && "Z".equals(MapGenerator.name(25));
+        assert "AA".equals(MapGenerator.name(26)) && "BA".equals(MapGenerator.name(52));
+    }
+
+    private static void testTopologyRoundTripsTerritories() {
+        List<Territory> built = MapBuilder.buildMap(5);
+        MapTopology topology = MapTopology.of(built);
+        assert !topology.hasLayout() : "Hand-built maps have no layout";
+        List<Territory> copy = topology.toTerritories();
+        assert copy.size() == built.size();
+        for (int i = 0; i < built.size(); i++) {
+            assert copy.get(i).getName().equals(built.get(i).getName());
+            assert copy.get(i).neighborsString().equals(built.get(i).neighborsString())
+                    : "Neighbors of " + built.get(i).getName() + " should survive the round trip";
+        }
+    }
+
+    private static void testGameOnGeneratedMap() {
+        Game game = new Game(null, 1L);
+        game.setUpMap(MapBuilder.generateMap(5L, 200));
+        game.initPlayers(4);
+        assert game.getSnapshot().getTerritories().size() == 200;
+        assert game.getTerritoryByName("gr").getId() == 199 : "Name lookup should be case-insensitive";
+        assert game.getTerritoryByName("nowhere") == null;
+        int owned = 0;
+        for (Player p : game.getAllPlayers()) {
+            owned += p.getTerritoryCount();
+        }
+        assert owned == 200 : "Every territory should be dealt out";
+    }
+
+    private static void testLargeMap() {
+        MapTopology map = new MapGenerator(2).generate(100_000);
+        assert map.getTerritoryCount() == 100_000;
+        assertConnected(map);
+    }
+
+    private static void assertConnected(MapTopology map) {
+        int n = map.getTerritoryCount();
+        boolean[] seen = new boolean[n];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        queue.add(0);
+        seen[0] = true;
+        int reached = 1;
+        while (!queue.isEmpty()) {
+            int t = queue.poll();
+            for (int k = 0; k < map.getNeighborCount(t); k++) {
+                int nb = map.getNeighbor(t, k);
+                if (!seen[nb]) {
+                    seen[nb] = true;
+                    reached++;
+                    queue.add(nb);
+                }
+            }
+        }
+        assert reached == n : "Map should be connected, reached " + reached + " of " + n;
+    }
+
+    private static boolean borders(MapTopology map, int a, int b) {
+        for (int k = 0; k < map.getNeighborCount(a); k++) {
+            if (map.getNeighbor(a, k) == b) return true;
+        }
+        return false;
+    }
+
+    private static int[] adjacency(MapTopology map) {
+        int[] all = new int[map.getEdgeCount() * 2];
+        int p = 0;
+        for (int i = 0; i < map.getTerritoryCount(); i++) {
+            for (int k = 0; k < map.getNeighborCount(i); k++) {
+                all[p++] = map.getNeighbor(i, k);
+            }
+        }
+        return all;
+    }
+}
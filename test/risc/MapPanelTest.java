@@ -11,6 +11,7 @@ public class MapPanelTest {
         testUpdateMapData();
         testMoveOrders();
         testPainting();
+        testLayoutFromMap();
     }
 
     private static void testInitialization() {
@@ -59,4 +60,19 @@ public class MapPanelTest {
 
         g.dispose();
     }
-}
\ No newline at end of file
+
+    private static void testLayoutFromMap() {
+        MapPanel panel = new MapPanel();
+        assert panel.positionOf("A").equals(MapPanel.territoryPositions.get("A")) : "Fixed layout by default";
+
+        panel.useLayout(MapTopology.of(MapBuilder.buildMap(3)));
+        assert panel.positionOf("A").equals(MapPanel.territoryPositions.get("A")) : "Maps without layout change nothing";
+
+        MapTopology map = new MapGenerator(9).generate(30);
+        panel.useLayout(map);
+        java.awt.Point p = panel.positionOf(map.getName(29));
+        assert p.x == MapPanel.LAYOUT_MARGIN_X + Math.round(map.getX(29) * MapPanel.LAYOUT_SCALE)
+                : "Positions should follow the map's coordinates";
+        assert panel.getPreferredSize().width > p.x : "The panel should grow to fit the map";
+    }
+}
@@ -0,0 +1,76 @@
+package risc;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+public class MapStateWriterTest {
+    public static void main(String[] args) throws Exception {
+        testMatchesConcatenatedMessage();
+        testFlushesInBoundedChunks();
+
+        System.out.println("All MapStateWriterTest tests passed!");
+    }
+
+    private static void testMatchesConcatenatedMessage() throws Exception {
+        Game game = TestGames.newGame(9L, 3, 3);
+        TestGames.garrisonAll(game, 0, 3);
+        GameSnapshot snap = game.publishSnapshot("test");
+        String header = "Map state after endTurn:\n";
+
+        StringWriter expected = new StringWriter();
+        new PrintWriter(expected).println(header + snap.getMapState());
+
+        StringWriter actual = new StringWriter();
+        MapStateWriter.write(header, snap, new PrintWriter(actual));
+        assert actual.toString().equals(expected.toString()) : "Streamed text should equal the old broadcast";
+    }
+
+    private static void testFlushesInBoundedChunks() throws Exception {
+        Game game = TestGames.newGame(9L, 6, 3);
+        TestGames.garrisonAll(game, 0, 3);
+        GameSnapshot snap = game.publishSnapshot("test");
+        int[] maxChunk = new int[1];
+        StringBuilder sink = new StringBuilder();
+        StringBuilder chunk = new StringBuilder();
+        MapStateWriter.write("", snap, new CountingSink(sink, chunk, maxChunk));
+
+        int longestBlock = 0;
+        for (GameSnapshot.TerritoryState t : snap.getTerritories()) {
+            longestBlock = Math.max(longestBlock, t.renderState().length());
+        }
+        assert maxChunk[0] < MapStateWriter.CHUNK_CHARS + longestBlock + Game.MAP_STATE_HEADER.length()
+                : "Unflushed text should stay below one chunk plus one block, was " + maxChunk[0];
+        assert sink.toString().startsWith(Game.MAP_STATE_HEADER) : "Output should start with the map header";
+    }
+
+    private static final class CountingSink implements Appendable, java.io.Flushable {
+        private final StringBuilder sink;
+        private final StringBuilder chunk;
+        private final int[] maxChunk;
+
+        CountingSink(StringBuilder sink, StringBuilder chunk, int[] maxChunk) {
+            this.sink = sink;
+            this.chunk = chunk;
+            this.maxChunk = maxChunk;
+        }
+
+        public Appendable append(CharSequence s) {
+            sink.append(s);
+            chunk.append(s);
+            maxChunk[0] = Math.max(maxChunk[0], chunk.length());
+            return this;
+        }
+
+        public Appendable append(CharSequence s, int start, int end) {
+            return append(s.subSequence(start, end));
+        }
+
+        public Appendable append(char c) {
+            return append(String.valueOf(c));
+        }
+
+        public void flush() {
+            chunk.setLength(0);
+        }
+    }
+}
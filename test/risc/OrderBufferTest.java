@@ -0,0 +1,106 @@
+package risc;
+
+public class OrderBufferTest {
+    public static void main(String[] args) {
+        testPackAndUnpack();
+        testGrowsAndClears();
+        testFieldBoundaries();
+        testOrdersResolvedAtSubmission();
+        testUnknownTerritoryIsSkipped();
+
+        System.out.println("All OrderBufferTest tests passed!");
+    }
+
+    private static void testPackAndUnpack() {
+        OrderBuffer buf = new OrderBuffer();
+        int i = buf.add(OrderBuffer.UPGRADE, 5, 99_999, 99_999, 2, 6, 1_000_000);
+        assert buf.type(i) == OrderBuffer.UPGRADE && buf.player(i) == 5;
+        assert buf.level(i) == 2 && buf.targetLevel(i) == 6 && buf.count(i) == 1_000_000;
+        assert buf.source(i) == 99_999 && buf.dest(i) == 99_999;
+
+        int j = buf.add(OrderBuffer.MOVE, 0, -1, -1, 0, 0, 3);
+        assert buf.source(j) == -1 && buf.dest(j) == -1 : "Unresolved ids should stay -1";
+        assert buf.count(i) == 1_000_000 : "Earlier orders are untouched";
+    }
+
+    private static void testFieldBoundaries() {
+        OrderBuffer buf = new OrderBuffer();
+        int i = buf.add(OrderBuffer.UPGRADE, 127, 0, 0, -128, 127, 1);
+        assert buf.player(i) == 127 && buf.level(i) == -128 && buf.targetLevel(i) == 127;
+
+        int[][] rejected = {
+            {128, 0, 0}, {-1, 0, 0}, {0, 128, 0}, {0, 0, 128}, {0, 255, 0}, {0, 256, 0}, {0, 0, 256}, {0, -129, 0},
+        };
+        for (int[] r : rejected) {
+            try {
+                buf.add(OrderBuffer.UPGRADE, r[0], 0, 0, r[1], r[2], 1);
+                assert false : "Player " + r[0] + ", levels " + r[1] + "/" + r[2] + " should be rejected";
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+        assert buf.size() == 1 : "Rejected orders must not be stored";
+
+        Game game = new Game(null, 1L);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        try {
+            new Game(null, 1L).initPlayers(Game.MAX_PLAYERS + 1);
+            assert false : "A room must not seat more players than an order can name";
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            game.addOrder(new MoveOrder(0, "A", "B", 256, 1));
+            assert false : "Level 256 would wrap to 0";
+        } catch (IllegalArgumentException expected) {
+            assert game.getAllOrders().isEmpty() : "The order should not be kept";
+        }
+    }
+
+    private static void testGrowsAndClears() {
+        OrderBuffer buf = new OrderBuffer();
+        for (int i = 0; i < 1000; i++) {
+            buf.add(OrderBuffer.ATTACK, i % 8, i, i + 1, i % 7, 0, i);
+        }
+        assert buf.size() == 1000;
+        for (int i = 0; i < 1000; i++) {
+            assert buf.player(i) == i % 8 && buf.source(i) == i && buf.dest(i) == i + 1 && buf.count(i) == i;
+        }
+        buf.clear();
+        assert buf.size() == 0 : "Clearing should empty the buffer";
+    }
+
+    private static void testOrdersResolvedAtSubmission() {
+        Game game = new Game(null, 1L);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        Territory a = game.getTerritoryByName("A");
+        Territory b = a.getNeighbors().get(0);
+
+        game.addOrder(new MoveOrder(0, a.getName(), b.getName(), 0, 4));
+        game.addOrder(new AttackOrder(1, b.getName(), a.getName(), 2, 3));
+        game.addOrder(new AllianceOrder(0, game.getPlayer(1).getName()));
+        OrderBuffer buf = game.getOrderBuffer();
+        assert buf.size() == 3;
+        assert buf.type(0) == OrderBuffer.MOVE && buf.source(0) == a.getId() && buf.dest(0) == b.getId();
+        assert buf.count(0) == 4;
+        assert buf.type(1) == OrderBuffer.ATTACK && buf.player(1) == 1 && buf.level(1) == 2;
+        assert buf.type(2) == OrderBuffer.ALLIANCE && buf.dest(2) == 1 : "Alliance target should be a player id";
+
+        game.clearAllOrders();
+        assert buf.size() == 0 && game.getAllOrders().isEmpty() : "Both views should be cleared together";
+    }
+
+    private static void testUnknownTerritoryIsSkipped() {
+        Game game = new Game(null, 1L);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        Territory a = game.getTerritoryByName("A");
+        a.addUnits(0, 0, 5);
+        game.addOrder(new UpgradeUnitOrder(0, "Nowhere", 0, 1, 1));
+        game.addOrder(new MoveOrder(0, a.getName(), "Nowhere", 0, 2));
+        OrderExecutor executor = new OrderExecutor(game);
+        executor.executeMoveOrders();
+        executor.executeUpgradeOrders();
+        assert a.getUnits(0, 0) == 5 : "Orders naming unknown territories should do nothing";
+    }
+}
@@ -1,11 +1,20 @@
 package risc;
 
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
 public class OrderExecutorTest {
     public static void main(String[] args) {
         testMovement();
         testAttack();
         testAlliance();
+        testAllianceRequestsMatchedOnce();
         testUpgrades();
+        testAttacksReproducibleAcrossPools();
+        testFailedBattleGroupIsRethrown();
     }
 
     private static void testMovement() {
@@ -78,6 +87,28 @@ public class OrderExecutorTest {
         assert p1.isAlliedWith(0) : "Player 1 should be allied with 0";
     }
 
+    private static void testAllianceRequestsMatchedOnce() {
+        Game game = new Game(null);
+        game.setUpMap(3);
+        game.initPlayers(3);
+
+        // Duplicates, a self request and an unrequited one alongside a single mutual pair
+        for (int i = 0; i < 50; i++) {
+            game.addOrder(new AllianceOrder(0, "Player2"));
+        }
+        game.addOrder(new AllianceOrder(0, "Player1"));
+        game.addOrder(new AllianceOrder(2, "Player1"));
+        game.addOrder(new AllianceOrder(1, "Player2"));
+        game.addOrder(new AllianceOrder(1, "Player1"));
+
+        game.executeAllAlliances();
+
+        assert game.getPlayer(0).isAlliedWith(1) && game.getPlayer(1).isAlliedWith(0) : "Mutual pair should ally";
+        assert !game.getPlayer(0).isAlliedWith(2) : "Unrequited request must not form an alliance";
+        assert !game.getPlayer(1).isAlliedWith(1) : "Self requests are ignored";
+        assert game.getPlayer(0).getAllies().size() == 1 : "Duplicates should not add anything";
+    }
+
     private static void testUpgrades() {
         Game game = new Game(null);
         game.setUpMap(1);
@@ -108,4 +139,78 @@ public class OrderExecutorTest {
 
         assert p0.getMaxTechLevel() == 2 : "Max tech level should be upgraded to 2";
     }
-}
\ No newline at end of file
+
+    private static void testAttacksReproducibleAcrossPools() {
+        String sequential = playAttackTurn(new ForkJoinPool(1));
+        String parallel = playAttackTurn(new ForkJoinPool(4));
+        String again = playAttackTurn(new ForkJoinPool(4));
+
+        assert sequential.equals(parallel) : "Battle results should not depend on thread count";
+        assert parallel.equals(again) : "Same seed and orders should give the same results";
+    }
+
+    private static void testFailedBattleGroupIsRethrown() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Game game = attackTurn(pool);
+        Map<Integer, Integer> food = new HashMap<>();
+        for (Player p : game.getAllPlayers()) food.put(p.getId(), p.getFood());
+        // A battle against an ownerless territory fails inside its group
+        AttackOrder broken = (AttackOrder) game.getAllOrders().get(game.getAllOrders().size() - 1);
+        game.getTerritoryByName(broken.getDestName()).setOwner(null);
+
+        RuntimeException thrown = null;
+        try {
+            game.executeAllAttackOrders();
+        } catch (RuntimeException e) {
+            thrown = e;
+        } finally {
+            pool.shutdown();
+        }
+        assert thrown instanceof NullPointerException : "The group's own exception should surface, got " + thrown;
+        for (Player p : game.getAllPlayers()) {
+            assert p.getFood() == food.get(p.getId()) : "No group should be committed after a failure";
+        }
+    }
+
+    private static String playAttackTurn(ForkJoinPool pool) {
+        Game game = attackTurn(pool);
+        game.executeAllAttackOrders();
+        pool.shutdown();
+
+        StringBuilder sb = new StringBuilder(game.getMapState());
+        for (Player p : game.getAllPlayers()) {
+            sb.append(p.getName()).append(" food=").append(p.getFood())
+                    .append(" lands=").append(p.getTerritories().size()).append("\n");
+        }
+        return sb.toString();
+    }
+
+    // A 5-player game with independent attacks queued, enough to run on the pool
+    private static Game attackTurn(ForkJoinPool pool) {
+        Game game = new Game(null, 1234L);
+        game.setAttackPool(pool);
+        game.setUpMap(5);
+        game.initPlayers(5);
+
+        for (Player p : game.getAllPlayers()) {
+            for (Territory t : p.getTerritories()) {
+                t.addUnits(p.getId(), 0, 20);
+            }
+        }
+        // Disjoint source/target pairs, so the battles form independent groups
+        Set<Territory> used = new HashSet<>();
+        for (Player p : game.getAllPlayers()) {
+            for (Territory src : p.getTerritories()) {
+                for (Territory dest : src.getNeighbors()) {
+                    if (dest.getOwner() != p && !used.contains(src) && !used.contains(dest)) {
+                        used.add(src);
+                        used.add(dest);
+                        game.addOrder(new AttackOrder(p.getId(), src.getName(), dest.getName(), 0, 15));
+                    }
+                }
+            }
+        }
+        assert game.getAllOrders().size() >= 4 : "Enough independent battles to use the pool";
+        return game;
+    }
+}
@@ -0,0 +1,192 @@
+package risc;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OrderLogTest {
+    public static void main(String[] args) throws Exception {
+        testRoundTrip();
+        testTornTailIgnored();
+        testReopenCutsTornTail();
+        testRotateMovesCoveredTurns();
+        testRecoveryMatchesOriginal();
+        testServerRestore();
+
+        System.out.println("All OrderLogTest tests passed!");
+    }
+
+    private static void testRoundTrip() throws Exception {
+        Path dir = Files.createTempDirectory("risc-wal");
+        Path file = dir.resolve("g.wal");
+        try (OrderLog log = new OrderLog(file)) {
+            log.append(new MoveOrder(0, "A", "B", 1, 4));
+            log.append(new AttackOrder(1, "C", "A", 0, 7));
+            log.commitTurn(0, 99L);
+            log.append(new UpgradeUnitOrder(2, "E", 0, 3, 2));
+            log.append(new TechUpgradeOrder(0));
+            log.append(new AllianceOrder(1, "Player1"));
+            log.commitTurn(1, 99L);
+            log.commitTurn(2, 99L);
+        }
+
+        List<OrderLog.Turn> turns = OrderLog.read(file);
+        assert turns.size() == 3 : "Three committed turns expected, got " + turns.size();
+        assert turns.get(0).getTurn() == 0 && turns.get(0).getSeed() == 99L : "Turn header should survive";
+        MoveOrder m = (MoveOrder) turns.get(0).getOrders().get(0);
+        assert m.getPlayerID() == 0 && m.getSourceName().equals("A") && m.getDestName().equals("B")
+                && m.getLevel() == 1 && m.getNumUnits() == 4 : "Move order fields should survive";
+        AttackOrder a = (AttackOrder) turns.get(0).getOrders().get(1);
+        assert a.getPlayerID() == 1 && a.getLevel() == 0 && a.getNumUnits() == 7 : "Attack order fields should survive";
+        UpgradeUnitOrder u = (UpgradeUnitOrder) turns.get(1).getOrders().get(0);
+        assert u.getCurrentLevel() == 0 && u.getTargetLevel() == 3 && u.getNumUnits() == 2 : "Upgrade should survive";
+        assert turns.get(1).getOrders().get(1) instanceof TechUpgradeOrder : "Tech order should survive";
+        assert ((AllianceOrder) turns.get(1).getOrders().get(2)).getTargetPlayerName().equals("Player1")
+                : "Alliance target should survive";
+        assert turns.get(2).getOrders().isEmpty() : "Empty turns are still recorded";
+        delete(dir);
+    }
+
+    private static void testTornTailIgnored() throws Exception {
+        Path dir = Files.createTempDirectory("risc-wal");
+        Path file = dir.resolve("g.wal");
+        try (OrderLog log = new OrderLog(file)) {
+            log.append(new TechUpgradeOrder(0));
+            log.commitTurn(0, 5L);
+        }
+        // A record header promising more bytes than were written, as after a crash mid-write
+        Files.write(file, new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 9, 9}, StandardOpenOption.APPEND);
+        List<OrderLog.Turn> turns = OrderLog.read(file);
+        assert turns.size() == 1 : "Only the intact record should be read";
+        delete(dir);
+    }
+
+    private static void testReopenCutsTornTail() throws Exception {
+        Path dir = Files.createTempDirectory("risc-wal");
+        Path file = dir.resolve("g.wal");
+        try (OrderLog log = new OrderLog(file)) {
+            log.commitTurn(0, 5L);
+        }
+        Files.write(file, new byte[] {0, 0, 0, 100, 1, 2, 3, 4, 9, 9}, StandardOpenOption.APPEND);
+        try (OrderLog log = new OrderLog(file)) {
+            log.commitTurn(1, 5L);
+        }
+        List<OrderLog.Turn> turns = OrderLog.read(file);
+        assert turns.size() == 2 && turns.get(1).getTurn() == 1
+                : "A turn committed after a restart should not be hidden behind the torn record";
+        delete(dir);
+    }
+
+    private static void testRotateMovesCoveredTurns() throws Exception {
+        Path dir = Files.createTempDirectory("risc-wal");
+        Path file = dir.resolve("g.wal");
+        Path history = dir.resolve("g.wal.history");
+        try (OrderLog log = new OrderLog(file, history)) {
+            for (int turn = 0; turn < 5; turn++) {
+                log.append(new TechUpgradeOrder(turn % 2));
+                log.commitTurn(turn, 7L);
+            }
+            log.rotate(3);
+            assert turnNumbers(OrderLog.read(file)).equals(List.of(3, 4)) : "Live log should keep turns 3 and 4";
+            assert turnNumbers(OrderLog.read(history)).equals(List.of(0, 1, 2)) : "History should get turns 0 to 2";
+
+            log.commitTurn(5, 7L);
+            log.rotate(5);
+            assert turnNumbers(OrderLog.read(file)).equals(List.of(5)) : "Appends should go on after a rotation";
+            assert turnNumbers(OrderLog.read(history)).equals(List.of(0, 1, 2, 3, 4))
+                    : "History should keep every rotated turn in order";
+            assert OrderLog.read(history).get(4).getOrders().get(0) instanceof TechUpgradeOrder
+                    : "Rotated records should keep their orders";
+        }
+
+        Path dropped = dir.resolve("d.wal");
+        try (OrderLog log = new OrderLog(dropped)) {
+            log.commitTurn(0, 7L);
+            log.commitTurn(1, 7L);
+            log.rotate(1);
+        }
+        assert turnNumbers(OrderLog.read(dropped)).equals(List.of(1)) : "Without a history file covered turns are dropped";
+        delete(dir);
+    }
+
+    private static List<Integer> turnNumbers(List<OrderLog.Turn> turns) {
+        List<Integer> numbers = new ArrayList<>();
+        for (OrderLog.Turn t : turns) numbers.add(t.getTurn());
+        return numbers;
+    }
+
+    private static void issueGreedyOrders(Game game) {
+        GreedyOrderProvider greedy = new GreedyOrderProvider();
+        for (Player p : game.getAllPlayers()) {
+            if (p.isAlive()) greedy.issueOrders(game, p);
+        }
+    }
+
+    private static Path crashedRoom(String id) throws Exception {
+        Path dir = Files.createTempDirectory("risc-room");
+        Game game = new Game(null, 2024L);
+        game.setUpMap(3);
+        game.initPlayers(3);
+        OrderProvider placement = OrderProvider.idle();
+        for (Player p : game.getAllPlayers()) {
+            placement.placeInitialUnits(game, p, game.getInitialUnits());
+        }
+        game.publishSnapshot("placement");
+        SnapshotWriter.write(game.getSnapshot(), RiscServer.snapshotFile(dir, id));
+
+        OrderLog log = new OrderLog(RiscServer.logFile(dir, id));
+        game.setOrderLog(log);
+        for (int turn = 0; turn < 5; turn++) {
+            issueGreedyOrders(game);
+            game.executeAllOrders();
+            game.endTurn();
+            game.updatePlayerStatus();
+            if (turn == 1) {
+                // The last snapshot that made it to disk before the crash
+                SnapshotWriter.write(game.getSnapshot(), RiscServer.snapshotFile(dir, id));
+            }
+        }
+        // Orders of an unfinished turn were never committed
+        issueGreedyOrders(game);
+        log.close();
+        Files.writeString(dir.resolve("expected.txt"), game.getMapState() + "turn=" + game.getTurn());
+        return dir;
+    }
+
+    private static void testRecoveryMatchesOriginal() throws Exception {
+        Path dir = crashedRoom("g1");
+        Game restored = SnapshotReader.read(RiscServer.snapshotFile(dir, "g1"), null);
+        assert restored.getTurn() == 2 : "Snapshot was taken after two turns";
+        int replayed = OrderLog.replay(restored, OrderLog.read(RiscServer.logFile(dir, "g1")));
+        assert replayed == 3 : "Turns after the snapshot should be replayed, got " + replayed;
+        String expected = Files.readString(dir.resolve("expected.txt"));
+        assert (restored.getMapState() + "turn=" + restored.getTurn()).equals(expected)
+                : "Snapshot plus log replay should reproduce the game";
+        delete(dir);
+    }
+
+    private static void testServerRestore() throws Exception {
+        Path dir = crashedRoom("g2");
+        RiscServer rs = RiscServer.restore(dir, "g2");
+        assert rs != null : "Unfinished room should be restored";
+        String expected = Files.readString(dir.resolve("expected.txt"));
+        assert (rs.getGame().getMapState() + "turn=" + rs.getGame().getTurn()).equals(expected)
+                : "Restored room should hold the recovered game";
+
+        GlobalServer gs = new GlobalServer(0, dir);
+        gs.restoreRooms();
+        assert gs.getGames().containsKey("g2") : "GlobalServer should list the restored room";
+        delete(dir);
+    }
+
+    private static void delete(Path dir) throws Exception {
+        List<Path> files = new ArrayList<>();
+        try (var s = Files.list(dir)) {
+            s.forEach(files::add);
+        }
+        for (Path f : files) Files.delete(f);
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,118 @@
+package risc;
+
+public class OrderValidatorTest {
+    public static void main(String[] args) {
+        testValidOrdersAreAccepted();
+        testRejectionReasons();
+        testUnitsAreReservedAcrossOrders();
+        testUpgradedUnitsCannotMove();
+        testTechUpgradeOncePerTurn();
+        testUpgradeCostOverflowIsRejected();
+        testViewResetsWithOrders();
+
+        System.out.println("All OrderValidatorTest tests passed!");
+    }
+
+    private static void testValidOrdersAreAccepted() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        game.getPlayer(0).addTech(100);
+        assert game.submitOrder(new MoveOrder(0, "A", "D", 0, 3)) == null;
+        assert game.submitOrder(new MoveOrder(0, "D", "B", 0, 3)) == null : "Moved-in units can move on";
+        assert game.submitOrder(new AttackOrder(0, "B", "E", 0, 3)) == null : "Moved-in units can attack";
+        assert game.submitOrder(new UpgradeUnitOrder(0, "A", 0, 1, 2)) == null;
+        assert game.submitOrder(new TechUpgradeOrder(0)) == null;
+        assert game.submitOrder(new AllianceOrder(0, "Player2")) == null;
+        assert game.getAllOrders().size() == 6 : "Accepted orders should be queued";
+    }
+
+    private static void testRejectionReasons() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        assertRejected(game, new MoveOrder(0, "A", "Nowhere", 0, 1), "Unknown territory Nowhere");
+        assertRejected(game, new MoveOrder(0, "A", "E", 0, 1), "E is not yours or an ally's");
+        assertRejected(game, new MoveOrder(0, "A", "B", 0, 11), "Not enough level 0 units in A");
+        assertRejected(game, new MoveOrder(0, "A", "B", 7, 1), "Invalid unit level 7");
+        assertRejected(game, new MoveOrder(0, "A", "B", 0, 0), "Number of units must be positive");
+        assertRejected(game, new AttackOrder(0, "A", "E", 0, 1), "E is not adjacent to A");
+        assertRejected(game, new AttackOrder(0, "A", "B", 0, 1), "You already own B");
+        assertRejected(game, new AttackOrder(0, "E", "B", 0, 1), "You do not own E");
+        assertRejected(game, new UpgradeUnitOrder(0, "A", 0, 2, 1), "Level 2 is above your max tech level 1");
+        assertRejected(game, new UpgradeUnitOrder(0, "A", 0, 1, 1), "Not enough tech");
+        assertRejected(game, new TechUpgradeOrder(0), "Not enough tech");
+        assertRejected(game, new AllianceOrder(0, "Player1"), "You cannot ally with yourself");
+        assertRejected(game, new AllianceOrder(0, "Nobody"), "Unknown player Nobody");
+        assertRejected(game, new MoveOrder(5, "A", "B", 0, 1), "Unknown player #5");
+
+        game.getPlayer(0).spendFood(game.getPlayer(0).getFood() - 2);
+        assertRejected(game, new MoveOrder(0, "A", "D", 0, 1), "Not enough food: the move costs 3, you have 2");
+        assert game.getAllOrders().isEmpty() : "Rejected orders must not be queued";
+    }
+
+    private static void testUnitsAreReservedAcrossOrders() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        assert game.submitOrder(new MoveOrder(0, "A", "B", 0, 6)) == null;
+        assert game.submitOrder(new MoveOrder(0, "A", "C", 0, 4)) == null;
+        assertRejected(game, new MoveOrder(0, "A", "C", 0, 1), "Not enough level 0 units in A: 0 available, 1 ordered");
+        assert game.submitOrder(new AttackOrder(0, "B", "E", 0, 6)) == null;
+        assertRejected(game, new AttackOrder(0, "B", "E", 0, 1), "Not enough level 0 units in B");
+    }
+
+    private static void testUpgradedUnitsCannotMove() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        Player p = game.getPlayer(0);
+        p.addTech(1000);
+        p.finishTechUpgrade();
+        p.startTechUpgrade(3);
+        p.finishTechUpgrade();
+        assert game.submitOrder(new UpgradeUnitOrder(0, "A", 0, 1, 10)) == null;
+        assertRejected(game, new MoveOrder(0, "A", "B", 1, 1), "Not enough level 1 units in A");
+        assert game.submitOrder(new UpgradeUnitOrder(0, "A", 1, 2, 10)) == null
+                : "Units upgraded this turn can be upgraded again";
+        assertRejected(game, new UpgradeUnitOrder(0, "A", 0, 1, 1), "Not enough level 0 units in A");
+    }
+
+    private static void testTechUpgradeOncePerTurn() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        game.getPlayer(0).addTech(200);
+        assert game.submitOrder(new TechUpgradeOrder(0)) == null;
+        assertRejected(game, new TechUpgradeOrder(0), "Tech upgrade already ordered this turn");
+    }
+
+    private static void testUpgradeCostOverflowIsRejected() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        Player p = game.getPlayer(0);
+        p.startTechUpgrade(6);
+        p.finishTechUpgrade();
+        game.getTerritoryByName("A").addUnits(0, 0, 100_000_000);
+        // 50 tech per unit times 10^8 units does not fit in an int
+        assertRejected(game, new UpgradeUnitOrder(0, "A", 0, 6, 100_000_000), "Upgrading 100000000 units costs more tech");
+        assert game.getAllOrders().isEmpty() : "An overflowing upgrade must not be queued";
+    }
+
+    private static void testViewResetsWithOrders() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 10);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        assert game.submitOrder(new MoveOrder(0, "A", "B", 0, 10)) == null;
+        assertRejected(game, new MoveOrder(0, "A", "B", 0, 1), "Not enough level 0 units in A");
+        game.clearAllOrders();
+        assert game.submitOrder(new MoveOrder(0, "A", "B", 0, 10)) == null : "A new turn starts from the board";
+    }
+
+    private static void assertRejected(Game game, Order order, String reasonStart) {
+        String reason = game.submitOrder(order);
+        assert reason != null && reason.startsWith(reasonStart)
+                : "Expected \"" + reasonStart + "\" but got \"" + reason + "\"";
+    }
+}
@@ -0,0 +1,42 @@
+package risc;
+
+public class PathCostTest {
+    public static void main(String[] args) {
+        testSumsSizesAlongOwnPath();
+        testNoPathThroughEnemyLand();
+        testScratchIsReusedAcrossSearches();
+
+        System.out.println("All PathCostTest tests passed!");
+    }
+
+    private static void testSumsSizesAlongOwnPath() {
+        Game game = TestGames.newGame(1L, 2);
+        Player p = game.getPlayer(0);
+        Territory a = game.getTerritoryByName("A");
+        Territory d = game.getTerritoryByName("D");
+        assert game.getPathCost().minSizeSum(game, a, a, p) == 1 : "Staying put costs the territory's own size";
+        assert game.getPathCost().minSizeSum(game, a, d, p) == 3 : "A, B and D are crossed";
+        game.getTerritoryByName("B").setSize(4);
+        assert game.getPathCost().minSizeSum(game, a, d, p) == 6 : "Sizes are read from the room at call time";
+    }
+
+    private static void testScratchIsReusedAcrossSearches() {
+        PathCost search = new PathCost();
+        Game game = TestGames.newGame(1L, 2);
+        Territory a = game.getTerritoryByName("A");
+        Territory d = game.getTerritoryByName("D");
+        Territory e = game.getTerritoryByName("E");
+        for (int i = 0; i < 1000; i++) {
+            assert search.minSizeSum(game, a, d, game.getPlayer(0)) == 3 : "Search " + i + " should not see stale marks";
+            assert search.minSizeSum(game, a, e, game.getPlayer(0)) == -1;
+        }
+    }
+
+    private static void testNoPathThroughEnemyLand() {
+        Game game = TestGames.newGame(1L, 2);
+        Territory a = game.getTerritoryByName("A");
+        Territory e = game.getTerritoryByName("E");
+        assert game.getPathCost().minSizeSum(game, a, e, game.getPlayer(0)) == -1 : "E belongs to Player2";
+        assert game.getPathCost().minSizeSum(game, e, a, game.getPlayer(1)) == -1 : "A belongs to Player1";
+    }
+}
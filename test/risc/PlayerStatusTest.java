@@ -0,0 +1,72 @@
+package risc;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PlayerStatusTest {
+    public static void main(String[] args) {
+        testOwnedCountsFollowOwners();
+        testConquestEliminatesAndWins();
+        testReconcileAfterManualTransfer();
+
+        System.out.println("All PlayerStatusTest tests passed!");
+    }
+
+    private static void transfer(Game game, String name, int to) {
+        Territory t = game.getTerritoryByName(name);
+        t.getOwner().removeTerritory(t);
+        game.getPlayer(to).addTerritory(t);
+        t.setOwner(game.getPlayer(to));
+    }
+
+    private static void testOwnedCountsFollowOwners() {
+        Game game = TestGames.newGame(1L, 2);
+        assert game.getOwnedCount(0) == 4 && game.getOwnedCount(1) == 4;
+        transfer(game, "E", 0);
+        assert game.getOwnedCount(0) == 5 && game.getOwnedCount(1) == 3;
+        assert game.getOwnedCount(7) == 0 : "Unknown players own nothing";
+    }
+
+    private static void testConquestEliminatesAndWins() {
+        Game game = TestGames.newGame(1L, 2);
+        transfer(game, "F", 0);
+        transfer(game, "G", 0);
+        transfer(game, "H", 0);
+        game.getTerritoryByName("B").addUnits(0, 0, 50);
+        game.getTerritoryByName("E").addUnits(1, 0, 1);
+        assert game.submitOrder(new AttackOrder(0, "B", "E", 0, 50)) == null;
+        List<GameEvent> events = new ArrayList<>();
+        game.getEvents().subscribe(events::add);
+        List<String> text = new ArrayList<>();
+        game.setBroadcastSink(text::add);
+
+        game.executeAllAttackOrders();
+        assert game.getTerritoryByName("E").getOwner() == game.getPlayer(0);
+        assert !game.getPlayer(1).isAlive() : "Losing the last territory eliminates the player at once";
+        assert game.hasWinner() && game.getWinner() == game.getPlayer(0) : "The last player standing wins";
+        int e = game.getTerritoryByName("E").getId();
+        assert events.equals(List.of(new GameEvent.Conquered(0, 1, e), new GameEvent.Eliminated(1),
+                new GameEvent.Won(0))) : events;
+        assert text.equals(List.of("Player1 conquered E", "Player2 has been eliminated!"))
+                : "The winner is announced by the server, not broadcast as an event line: " + text;
+    }
+
+    private static void testReconcileAfterManualTransfer() {
+        Game game = TestGames.newGame(1L, 2);
+        for (String name : new String[] {"E", "F", "G"}) {
+            transfer(game, name, 0);
+        }
+        game.updatePlayerStatus();
+        assert game.getPlayer(1).isAlive() && !game.hasWinner() : "Player2 still holds H";
+        transfer(game, "H", 0);
+        assert game.getPlayer(1).isAlive() : "Transfers outside an attack wait for the status update";
+        List<GameEvent> events = new ArrayList<>();
+        game.getEvents().subscribe(events::add);
+        game.updatePlayerStatus();
+        assert !game.getPlayer(1).isAlive();
+        assert game.hasWinner() && game.getWinner() == game.getPlayer(0);
+        assert events.equals(List.of(new GameEvent.Eliminated(1), new GameEvent.Won(0))) : events;
+        game.updatePlayerStatus();
+        assert events.size() == 2 : "A winner is only announced once";
+    }
+}
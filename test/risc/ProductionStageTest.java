@@ -0,0 +1,69 @@
+package risc;
+
+import java.util.HashMap;
+import java.util.Map;
+
+public class ProductionStageTest {
+    public static void main(String[] args) {
+        testMatchesPerTerritoryProduction();
+        testDeadPlayersProduceNothing();
+        testAccumulate();
+
+        System.out.println("All ProductionStageTest tests passed!");
+    }
+
+    private static void testMatchesPerTerritoryProduction() {
+        Game game = new Game(null, 21L);
+        game.setUpMap(5);
+        game.initPlayers(5);
+        game.getPlayer(1).getTerritories().get(0).setSize(4);
+
+        Map<Integer, Integer> expectedFood = new HashMap<>();
+        Map<Integer, Integer> expectedTech = new HashMap<>();
+        for (Player p : game.getAllPlayers()) {
+            int f = p.getFood();
+            int t = p.getTech();
+            for (Territory terr : p.getTerritories()) {
+                f += terr.getFoodProduction();
+                t += terr.getTechProduction();
+            }
+            expectedFood.put(p.getId(), f);
+            expectedTech.put(p.getId(), t);
+        }
+
+        game.endTurn();
+
+        for (Player p : game.getAllPlayers()) {
+            assert p.getFood() == expectedFood.get(p.getId()) : "Food mismatch for " + p.getName();
+            assert p.getTech() == expectedTech.get(p.getId()) : "Tech mismatch for " + p.getName();
+            for (Territory terr : p.getTerritories()) {
+                assert terr.getStationedUnitsMap(p.getId()).getOrDefault(0, 0) == 1
+                        : "Each territory gains one level-0 unit";
+            }
+        }
+    }
+
+    private static void testDeadPlayersProduceNothing() {
+        Game game = new Game(null, 22L);
+        game.setUpMap(3);
+        game.initPlayers(3);
+        Player dead = game.getPlayer(2);
+        dead.setAlive(false);
+        int food = dead.getFood();
+
+        game.endTurn();
+
+        assert dead.getFood() == food : "Dead players gain no food";
+        for (Territory terr : dead.getTerritories()) {
+            assert terr.getStationedUnitsMap(dead.getId()).isEmpty() : "Dead players get no reinforcements";
+        }
+    }
+
+    private static void testAccumulate() {
+        int[] owner = {0, -1, 2, 0, 2, 1};
+        int[] yield = {1, 9, 2, 3, 4, 5};
+        int[] out = new int[3];
+        ProductionStage.accumulate(owner, yield, out, owner.length);
+        assert out[0] == 4 && out[1] == 5 && out[2] == 6 : "Unowned yields are skipped, the rest summed by owner";
+    }
+}
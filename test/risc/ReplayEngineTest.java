@@ -0,0 +1,111 @@
+package risc;
+
+import java.io.BufferedReader;
+import java.io.PrintWriter;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReplayEngineTest {
+    private static final int TURNS = 12;
+
+    public static void main(String[] args) throws Exception {
+        Path dir = Files.createTempDirectory("risc-replay");
+        List<String> states = record(dir);
+        try {
+            testSeekMatchesRecording(dir, states);
+            testFirstSeekUsesKeyframes(dir, states);
+            testStepCapturesBroadcasts(dir, states);
+            testSession(dir);
+        } finally {
+            for (String f : new String[] {"g.start", "g.wal"}) {
+                Files.deleteIfExists(dir.resolve(f));
+            }
+            Files.delete(dir);
+        }
+
+        System.out.println("All ReplayEngineTest tests passed!");
+    }
+
+    // Plays a 5-player greedy game like a persisted room; returns the map after each turn
+    private static List<String> record(Path dir) throws Exception {
+        Game game = new Game(null, 606L);
+        game.setUpMap(5);
+        game.initPlayers(5);
+        for (Player p : game.getAllPlayers()) {
+            OrderProvider.idle().placeInitialUnits(game, p, game.getInitialUnits());
+        }
+        game.publishSnapshot("placement");
+        SnapshotWriter.write(game.getSnapshot(), RiscServer.startFile(dir, "g"));
+
+        List<String> states = new ArrayList<>();
+        states.add(game.getMapState());
+        GreedyOrderProvider greedy = new GreedyOrderProvider();
+        try (OrderLog log = new OrderLog(RiscServer.logFile(dir, "g"))) {
+            game.setOrderLog(log);
+            for (int i = 0; i < TURNS && !game.hasWinner(); i++) {
+                for (Player p : game.getAllPlayers()) {
+                    if (p.isAlive()) greedy.issueOrders(game, p);
+                }
+                game.executeAllOrders();
+                game.endTurn();
+                game.updatePlayerStatus();
+                states.add(game.getMapState());
+            }
+        }
+        return states;
+    }
+
+    private static void testSeekMatchesRecording(Path dir, List<String> states) throws Exception {
+        ByteBuffer start = ByteBuffer.wrap(Files.readAllBytes(RiscServer.startFile(dir, "g")));
+        ReplayEngine engine = new ReplayEngine(start, OrderLog.read(RiscServer.logFile(dir, "g")), 4);
+        assert engine.getLastTurn() == states.size() - 1 : "Recording length should match";
+
+        int[] order = {7, 2, states.size() - 1, 0, 5, 6, 3};
+        for (int turn : order) {
+            Game g = engine.seek(turn);
+            assert g.getTurn() == turn : "Seek should land on turn " + turn;
+            assert g.getMapState().equals(states.get(turn)) : "State at turn " + turn + " should match the original";
+        }
+        assert engine.getKeyframeCount() <= 1 + (states.size() - 1) / 4 : "At most one keyframe per interval";
+    }
+
+    private static void testFirstSeekUsesKeyframes(Path dir, List<String> states) throws Exception {
+        ByteBuffer start = ByteBuffer.wrap(Files.readAllBytes(RiscServer.startFile(dir, "g")));
+        ReplayEngine engine = new ReplayEngine(start, OrderLog.read(RiscServer.logFile(dir, "g")), 4);
+        int last = states.size() - 1;
+        assert engine.getKeyframeCount() == 1 + last / 4 : "Keyframes should be built when the log is opened";
+        assert engine.getGame().getTurn() == 0 : "Opening the log should leave the engine at the start";
+
+        Game g = engine.seek(last);
+        assert g.getMapState().equals(states.get(last)) : "Seeking to the last turn first should match";
+        assert engine.getTurnsPlayed() <= 3 : "A first seek replays at most interval - 1 turns, not "
+                + engine.getTurnsPlayed();
+    }
+
+    private static void testStepCapturesBroadcasts(Path dir, List<String> states) throws Exception {
+        ReplayEngine engine = ReplayEngine.open(dir, "g");
+        List<String> all = new ArrayList<>();
+        for (int t = 1; t < states.size(); t++) {
+            all.addAll(engine.step());
+            assert engine.getGame().getMapState().equals(states.get(t)) : "Step " + t + " should match";
+        }
+        assert !all.isEmpty() : "Battle broadcasts should be captured during replay";
+        assert engine.step().isEmpty() : "Stepping past the end does nothing";
+    }
+
+    private static void testSession(Path dir) throws Exception {
+        StringWriter text = new StringWriter();
+        BufferedReader in = new BufferedReader(new StringReader("s 3\nn\nm\ns 999\nq\n"));
+        new ReplaySession(ReplayEngine.open(dir, "g"), in, new PrintWriter(text, true)).run();
+        String out = text.toString();
+        assert out.contains("--- Turn 3 ---") && out.contains("--- Turn 4 ---") : "Session should seek and step";
+        assert out.contains(Game.MAP_STATE_HEADER) : "Session should print the map on request";
+        assert out.contains("outside") : "Out-of-range seek should be reported";
+        assert out.contains("Leaving replay.") : "Session should end on q";
+    }
+}
@@ -0,0 +1,77 @@
+package risc;
+
+public class ReservationLedgerTest {
+    public static void main(String[] args) {
+        testFoodIsReservedAcrossOrders();
+        testTechIsSharedByUpgrades();
+        testBudgetDisplay();
+        testLedgerPrimitives();
+
+        System.out.println("All ReservationLedgerTest tests passed!");
+    }
+
+    private static void testFoodIsReservedAcrossOrders() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("B").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        Player p = game.getPlayer(0);
+        assert p.getFood() == 100;
+        // A -> B crosses two territories of size 1: 2 food per unit
+        assert game.submitOrder(new MoveOrder(0, "A", "B", 0, 30)) == null;
+        assert game.submitOrder(new AttackOrder(0, "B", "E", 0, 35)) == null;
+        String reason = game.submitOrder(new AttackOrder(0, "B", "E", 0, 6));
+        assert "Not enough food: the attack costs 6, you have 5 left".equals(reason) : reason;
+        assert game.submitOrder(new MoveOrder(0, "A", "C", 0, 2)) == null : "The rest of the food can still be used";
+        assert p.getFood() == 100 : "Reserving must not spend anything";
+
+        game.executeAllMoveOrders();
+        game.executeAllAttackOrders();
+        assert p.getFood() == 1 : "Every accepted order should have been paid for, food left " + p.getFood();
+    }
+
+    private static void testTechIsSharedByUpgrades() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("B").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        Player p = game.getPlayer(0);
+        p.addTech(60);
+        assert game.submitOrder(new UpgradeUnitOrder(0, "A", 0, 1, 3)) == null;   // 9 tech
+        String reason = game.submitOrder(new TechUpgradeOrder(0));
+        assert reason == null : "51 tech left covers the tech upgrade";
+        reason = game.submitOrder(new UpgradeUnitOrder(0, "A", 0, 1, 1));
+        assert "Not enough tech: the upgrade costs 3, you have 1 left".equals(reason) : reason;
+    }
+
+    private static void testBudgetDisplay() {
+        Game game = TestGames.newGame(1L, 2);
+        game.getTerritoryByName("A").addUnits(0, 0, 60);
+        game.getTerritoryByName("B").addUnits(0, 0, 60);
+        game.getTerritoryByName("E").addUnits(1, 0, 4);
+        assert game.getBudget(0).equals("Food 100/100, Tech 0/0") : game.getBudget(0);
+        game.submitOrder(new MoveOrder(0, "A", "B", 0, 10));
+        assert game.getBudget(0).equals("Food 80/100, Tech 0/0; A L0 50/60, B L0 70/60") : game.getBudget(0);
+        game.clearAllOrders();
+        assert game.getBudget(0).equals("Food 100/100, Tech 0/0") : "A new turn starts with the full budget";
+    }
+
+    private static void testLedgerPrimitives() {
+        ReservationLedger ledger = new ReservationLedger();
+        ledger.moveUnits(1, 2, 3, 0, 5);
+        ledger.takeUnits(1, 3, 0, 2);
+        assert ledger.unitDelta(1, 2, 0) == -5 && ledger.unitDelta(1, 3, 0) == 3;
+        assert ledger.unitDelta(0, 2, 0) == 0 : "Players have separate accounts";
+
+        ledger.upgradeUnits(1, 3, 0, 1, 3);
+        ledger.upgradeUnits(1, 3, 1, 2, 2);
+        assert ledger.unitDelta(1, 3, 0) == 0 && ledger.upgraded(1, 3, 1) == 1 && ledger.upgraded(1, 3, 2) == 2
+                : "Upgrades should draw on units upgraded earlier in the turn";
+
+        ledger.reserveFood(1, 7);
+        ledger.reserveTechUpgrade(1, 50);
+        assert ledger.reservedFood(1) == 7 && ledger.reservedTech(1) == 50 && ledger.hasTechUpgrade(1);
+        ledger.clear();
+        assert ledger.reservedFood(1) == 0 && !ledger.hasTechUpgrade(1) && ledger.unitDelta(1, 2, 0) == 0;
+    }
+}
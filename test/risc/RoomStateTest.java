@@ -0,0 +1,107 @@
+package risc;
+
+import java.util.Map;
+import java.util.Set;
+
+public class RoomStateTest {
+    public static void main(String[] args) {
+        testRoomsShareTopology();
+        testGarrisonPacking();
+        testUnitsStringFormat();
+        testPrivateBorderDoesNotLeak();
+        testSizeOverrideIsPerRoom();
+
+        System.out.println("All RoomStateTest tests passed!");
+    }
+
+    private static void testRoomsShareTopology() {
+        Game a = new Game(null, 1L);
+        Game b = new Game(null, 2L);
+        a.setUpMap(5);
+        b.setUpMap(5);
+        assert a.getRoom().getTopology() == b.getRoom().getTopology() : "Rooms on a built-in map should share it";
+        assert a.getTerritoryByName("A") != b.getTerritoryByName("A") : "Each room has its own territories";
+
+        a.initPlayers(5);
+        b.initPlayers(5);
+        a.getTerritoryByName("A").addUnits(0, 0, 7);
+        assert b.getTerritoryByName("A").getTotalUnits() == 0 : "Garrisons must not leak between rooms";
+        assert a.getTerritoryByName("A").getOwner() != b.getTerritoryByName("A").getOwner();
+
+        MapTopology generated = new MapGenerator(3).generate(500);
+        Game c = new Game(null, 3L);
+        Game d = new Game(null, 4L);
+        c.setUpMap(generated);
+        d.setUpMap(generated);
+        assert c.getRoom().getTopology() == generated && d.getRoom().getTopology() == generated
+                : "Rooms on a generated map should share it";
+    }
+
+    private static void testGarrisonPacking() {
+        RoomState room = new RoomState(MapBuilder.topologyFor(2));
+        Territory t = room.territory(3);
+        assert t.getId() == 3 && t.getName().equals(MapBuilder.topologyFor(2).getName(3));
+
+        t.addUnits(2, 1, 4);
+        t.addUnits(0, 3, 1);
+        t.addUnits(2, 0, 6);
+        t.addUnits(0, 3, 2);
+        assert t.getUnits(0, 3) == 3 && t.getUnits(2, 0) == 6 && t.getUnits(2, 1) == 4;
+        assert t.getUnits(1, 0) == 0 : "Absent units count as zero";
+        assert t.getTotalUnits() == 13;
+        assert t.getStationedPlayerIDs().equals(Set.of(0, 2));
+
+        Map<Integer, Integer> removed = t.removeAllUnitsOfPlayer(2);
+        assert removed.equals(Map.of(0, 6, 1, 4)) : "Removed units should be returned by level";
+        assert removed.keySet().iterator().next() == 0 : "Levels come back in ascending order";
+        assert t.getTotalUnits() == 3;
+        assert t.removeUnits(0, 3, 3);
+        assert t.getTotalUnits() == 0 && t.getStationedPlayerIDs().isEmpty();
+        assert t.removeAllUnitsOfPlayer(0) == null : "Nothing left to remove";
+        assert room.territory(4).getTotalUnits() == 0 : "Other territories are untouched";
+    }
+
+    private static void testUnitsStringFormat() {
+        Territory t = new RoomState(MapBuilder.topologyFor(2)).territory(0);
+        assert t.stationedUnitsString().equals("No units");
+        t.addUnits(1, 1, 3);
+        t.addUnits(0, 0, 5);
+        t.addUnits(1, 0, 2);
+        t.addUnits(0, 2, 1);
+        assert t.stationedUnitsString().equals("P0->{0=5, 2=1}; P1->{0=2, 1=3}; ")
+                : "Unexpected format: " + t.stationedUnitsString();
+    }
+
+    private static void testPrivateBorderDoesNotLeak() {
+        Game a = new Game(null, 1L);
+        Game b = new Game(null, 2L);
+        a.setUpMap(2);
+        b.setUpMap(2);
+        MapTopology shared = b.getRoom().getTopology();
+
+        Territory from = a.getTerritoryByName("A");
+        Territory to = null;
+        for (Territory t : a.getRoom().territories()) {
+            if (t != from && !from.getNeighbors().contains(t)) {
+                to = t;
+                break;
+            }
+        }
+        assert to != null : "The 8-territory map should have a non-neighbor of A";
+        from.addNeighbor(to);
+        assert from.getNeighbors().contains(to) : "The new border should be visible in its room";
+        assert a.getRoom().getTopology() != shared : "The room should switch to its own topology";
+        assert !b.getTerritoryByName("A").getNeighbors().contains(b.getTerritoryByName(to.getName()))
+                : "Other rooms keep the shared borders";
+    }
+
+    private static void testSizeOverrideIsPerRoom() {
+        Game a = new Game(null, 1L);
+        Game b = new Game(null, 2L);
+        a.setUpMap(3);
+        b.setUpMap(3);
+        a.getTerritoryByName("C").setSize(9);
+        assert a.getTerritoryByName("C").getSize() == 9;
+        assert b.getTerritoryByName("C").getSize() == 1 : "Sizes changed in one room stay there";
+    }
+}
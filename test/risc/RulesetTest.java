@@ -0,0 +1,125 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public class RulesetTest {
+    public static void main(String[] args) throws Exception {
+        testStandardTables();
+        testTextRoundTrip();
+        testVariantOverridesOnlyGivenKeys();
+        testRejectsInvalidRules();
+        testRoomPlaysByItsRules();
+        testRulesSurviveSnapshot();
+        testLoadFromFile();
+
+        System.out.println("All RulesetTest tests passed!");
+    }
+
+    private static void testStandardTables() {
+        Ruleset r = Ruleset.STANDARD;
+        assert r.unitUpgradeCost(0, 1) == 3 && r.unitUpgradeCost(2, 5) == 27 && r.unitUpgradeCost(0, 6) == 50;
+        int[] techCosts = {50, 75, 125, 200, 300};
+        for (int level = 1; level <= 5; level++) {
+            assert r.techUpgradeCost(level) == techCosts[level - 1] : "Tech cost from level " + level;
+        }
+        assert r.unitUpgradeCost(0, 6, 4) == 200 : "Total cost is the per-unit cost times the units";
+        assert r.unitUpgradeCost(0, 6, 100_000_000) == Ruleset.UNREACHABLE : "A total past int range is unreachable";
+        assert r.techUpgradeCost(6) == Ruleset.UNREACHABLE && r.getMaxTechLevel() == 6;
+        assert java.util.Arrays.equals(r.getUnitBonus(), new int[] {0, 1, 3, 5, 8, 11, 15});
+        assert r.getStartingFood() == 100 && r.getStartingTech() == 0 && r.getInitialUnits() == 10;
+        assert r.getFoodPerSize() == 1 && r.getTechPerSize() == 1 && r.getUnitsPerTurn() == 1;
+
+        r.getUnitBonus()[3] = 99;
+        assert r.getUnitBonus()[3] == 5 : "The tables must not be writable from outside";
+    }
+
+    private static void testTextRoundTrip() throws IOException {
+        Ruleset copy = Ruleset.parse(Ruleset.STANDARD.toText());
+        assert copy.toText().equals(Ruleset.STANDARD.toText()) : "toText should parse back to the same rules";
+    }
+
+    private static void testVariantOverridesOnlyGivenKeys() throws IOException {
+        Ruleset r = Ruleset.parse("# short game\nstart.food = 40   # lean start\n\ntech.cost = 10 20\n");
+        assert r.getStartingFood() == 40;
+        assert r.techUpgradeCost(1) == 10 && r.techUpgradeCost(2) == 20 && r.getMaxTechLevel() == 3;
+        assert r.techUpgradeCost(3) == Ruleset.UNREACHABLE;
+        assert r.unitUpgradeCost(0, 1) == 3 && r.getInitialUnits() == 10 : "Other rules keep their standard values";
+    }
+
+    private static void testRejectsInvalidRules() {
+        assertRejected("unit.speed = 3", "unknown rule");
+        assertRejected("start.food = 10\nstart.food = 20", "given twice");
+        assertRejected("start.food = lots", "whole numbers");
+        assertRejected("start.food = -1", "between 0");
+        assertRejected("start.food = 1 2", "single value");
+        assertRejected("unit.cost = 0 3 8", "unit.cost needs 7 values");
+        assertRejected("unit.cost = 1 3 8 19 25 35 50", "starting at 0");
+        assertRejected("unit.cost = 0 3 8 7 25 35 50", "must not decrease");
+        assertRejected("unit.bonus = 0 1 3 5 8 11 1", "must not decrease");
+        assertRejected("tech.cost = 1 2 3 4 5 6", "tech.cost needs 1 to 5 values");
+        assertRejected("start.food", "expected key = values");
+    }
+
+    private static void assertRejected(String text, String reason) {
+        try {
+            Ruleset.parse(text);
+            assert false : "Rules should be rejected: " + text;
+        } catch (IOException e) {
+            assert e.getMessage().contains(reason) : "Expected \"" + reason + "\" in \"" + e.getMessage() + "\"";
+        }
+    }
+
+    private static void testRoomPlaysByItsRules() throws IOException {
+        Ruleset rules = Ruleset.parse("start.food = 40\nstart.tech = 15\nstart.units = 4\n"
+                + "produce.food = 3\nproduce.tech = 0\nproduce.units = 0\ntech.cost = 10\n");
+        Game game = new Game(null, 5L);
+        game.setRules(rules);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        Player p = game.getPlayer(0);
+        assert p.getFood() == 40 && p.getTech() == 15 && game.getInitialUnits() == 4;
+
+        Territory a = game.getTerritoryByName("A");
+        a.addUnits(0, 0, 2);
+        game.endTurn();
+        int size = 0;
+        for (Territory t : p.getTerritories()) size += t.getSize();
+        assert p.getFood() == 40 + 3 * size && p.getTech() == 15 : "Production should follow the rules";
+        assert a.getUnits(0, 0) == 2 : "No reinforcements under these rules";
+
+        assert game.submitOrder(new TechUpgradeOrder(0)) == null;
+        game.executeAllUpgrades();
+        assert p.getTech() == 5 && p.isTechUpgrading() : "The tech upgrade should cost 10";
+        p.finishTechUpgrade();
+        game.clearAllOrders();
+        String reason = game.submitOrder(new TechUpgradeOrder(0));
+        assert "Already at the highest tech level".equals(reason) : reason;
+    }
+
+    private static void testRulesSurviveSnapshot() throws IOException {
+        Ruleset rules = Ruleset.parse("produce.units = 3\nunit.bonus = 0 2 4 6 8 10 12\n");
+        Game game = new Game(null, 9L);
+        game.setRules(rules);
+        game.setUpMap(2);
+        game.initPlayers(2);
+        game.publishSnapshot("test");
+        Game restored = SnapshotReader.decode(SnapshotWriter.encode(game.getSnapshot()), null);
+        assert restored.getRules().toText().equals(rules.toText()) : "A room's own rules should be restored";
+
+        Game standard = new Game(null, 9L);
+        standard.setUpMap(2);
+        standard.initPlayers(2);
+        standard.publishSnapshot("test");
+        Game copy = SnapshotReader.decode(SnapshotWriter.encode(standard.getSnapshot()), null);
+        assert copy.getRules() == Ruleset.STANDARD : "Standard rooms should not carry a rules copy";
+    }
+
+    private static void testLoadFromFile() throws IOException {
+        Path file = Files.createTempFile("risc", Ruleset.EXTENSION);
+        Files.writeString(file, "start.units = 25\n");
+        assert Ruleset.load(file).getInitialUnits() == 25;
+        Files.delete(file);
+    }
+}
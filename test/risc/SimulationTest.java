@@ -0,0 +1,81 @@
+package risc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class SimulationTest {
+    public static void main(String[] args) {
+        testGreedyGameFinishes();
+        testTurnLimit();
+        testBroadcastsCaptured();
+        testParallelRunsMatchSequential();
+        testGreedyOrdersAreValidated();
+
+        System.out.println("All SimulationTest tests passed!");
+    }
+
+    private static List<OrderProvider> greedy(int n) {
+        List<OrderProvider> providers = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            providers.add(new GreedyOrderProvider());
+        }
+        return providers;
+    }
+
+    private static void testGreedyGameFinishes() {
+        Simulation sim = new Simulation(42L, greedy(3));
+        Simulation.Result r = sim.run();
+        assert r.getWinnerID() >= 0 : "Greedy players should produce a winner within the turn limit";
+        assert r.getFinalState().getPlayers().get(r.getWinnerID()).isAlive() : "Winner must be alive";
+        assert r.getTurns() == sim.getTurnsPlayed() : "Turn count should match";
+    }
+
+    private static void testTurnLimit() {
+        Simulation sim = new Simulation(1L, Arrays.asList(OrderProvider.idle(), OrderProvider.idle()));
+        sim.setMaxTurns(25);
+        Simulation.Result r = sim.run();
+        assert r.getWinnerID() == -1 : "Idle players never finish";
+        assert r.getTurns() == 25 : "Run should stop at the turn limit";
+        assert sim.getGame().getTurn() == 25 : "Game turn should advance once per simulated turn";
+    }
+
+    private static void testBroadcastsCaptured() {
+        List<String> captured = new ArrayList<>();
+        Simulation sim = new Simulation(7L, greedy(2));
+        sim.setBroadcastSink(captured::add);
+        sim.setMaxTurns(5);
+        sim.run();
+        assert !captured.isEmpty() : "Battle reports should reach the sink";
+    }
+
+    private static void testGreedyOrdersAreValidated() {
+        Simulation sim = new Simulation(42L, greedy(3));
+        sim.step();
+        Game game = sim.getGame();
+        Player p = game.getPlayer(0);
+        new GreedyOrderProvider().issueOrders(game, p);
+        assert !game.getAllOrders().isEmpty() : "Greedy players should order something on turn two";
+        assert !game.getBudget(p.getId()).startsWith("Food " + p.getFood() + "/")
+                : "Submitted orders should be reserved in the ledger: " + game.getBudget(p.getId());
+    }
+
+    private static void testParallelRunsMatchSequential() {
+        List<Simulation> parallel = new ArrayList<>();
+        List<Simulation.Result> sequential = new ArrayList<>();
+        for (long seed = 100; seed < 116; seed++) {
+            parallel.add(new Simulation(seed, greedy(5)));
+            sequential.add(new Simulation(seed, greedy(5)).run());
+        }
+        List<Simulation.Result> results = Simulation.runAll(parallel);
+        for (int i = 0; i < results.size(); i++) {
+            Simulation.Result a = results.get(i);
+            Simulation.Result b = sequential.get(i);
+            assert a.getSeed() == b.getSeed() : "Results should keep input order";
+            assert a.getTurns() == b.getTurns() && a.getWinnerID() == b.getWinnerID()
+                    : "Seed " + a.getSeed() + " should play out identically in parallel";
+            assert a.getFinalState().getMapState().equals(b.getFinalState().getMapState())
+                    : "Final maps should match for seed " + a.getSeed();
+        }
+    }
+}
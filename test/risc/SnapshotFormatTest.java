@@ -0,0 +1,154 @@
+package risc;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class SnapshotFormatTest {
+    public static void main(String[] args) throws Exception {
+        testRoundTrip();
+        testRestoredGameContinuesIdentically();
+        testAsyncWriteAndRead();
+        testRejectsCorruptInput();
+        testRestoredRoomsShareTopology();
+
+        System.out.println("All SnapshotFormatTest tests passed!");
+    }
+
+    private static Simulation greedyGame(long seed) {
+        List<OrderProvider> providers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            providers.add(new GreedyOrderProvider());
+        }
+        return new Simulation(seed, providers);
+    }
+
+    private static Game playedGame() {
+        Simulation sim = greedyGame(77L);
+        for (int i = 0; i < 3; i++) {
+            sim.step();
+        }
+        Game game = sim.getGame();
+        game.formAlliance(1, 3);
+        game.getPlayer(2).startTechUpgrade(2);
+        game.getPlayer(4).setAlive(false);
+        game.publishSnapshot("test");
+        return game;
+    }
+
+    private static void assertSameState(GameSnapshot a, GameSnapshot b) {
+        assert a.getMapState().equals(b.getMapState()) : "Map state should survive the round trip";
+        assert a.getSeed() == b.getSeed() && a.getTurn() == b.getTurn() : "Seed and turn should survive";
+        assert a.getPlayers().size() == b.getPlayers().size() : "Player count should survive";
+        for (int i = 0; i < a.getPlayers().size(); i++) {
+            GameSnapshot.PlayerState p = a.getPlayers().get(i);
+            GameSnapshot.PlayerState q = b.getPlayers().get(i);
+            assert p.getName().equals(q.getName()) && p.isAlive() == q.isAlive() && p.isAI() == q.isAI()
+                    : "Identity of player " + i + " should survive";
+            assert p.getFood() == q.getFood() && p.getTech() == q.getTech() : "Resources should survive";
+            assert p.getMaxTechLevel() == q.getMaxTechLevel() && p.isTechUpgrading() == q.isTechUpgrading()
+                    && p.getNextTechLevel() == q.getNextTechLevel() : "Tech state should survive";
+            assert p.getAllies().equals(q.getAllies()) : "Alliances should survive";
+            assert p.getTerritoryCount() == q.getTerritoryCount() : "Ownership should survive";
+        }
+    }
+
+    private static void testRoundTrip() throws IOException {
+        Game game = playedGame();
+        ByteBuffer buf = SnapshotWriter.encode(game.getSnapshot());
+        Game restored = SnapshotReader.decode(buf, null);
+
+        assertSameState(game.getSnapshot(), restored.getSnapshot());
+        assert restored.getAlliances().isAllied(3, 1) : "Alliance matrix should be rebuilt";
+        assert restored.getTerritoryByName("A").getNeighbors().size()
+                == game.getTerritoryByName("A").getNeighbors().size() : "Adjacency should survive";
+    }
+
+    private static void testRestoredGameContinuesIdentically() throws IOException {
+        Simulation original = greedyGame(91L);
+        for (int i = 0; i < 4; i++) {
+            original.step();
+        }
+        Game copy = SnapshotReader.decode(SnapshotWriter.encode(original.getGame().getSnapshot()), null);
+
+        // Same seed and turn, so the same orders must produce the same battles
+        GreedyOrderProvider greedy = new GreedyOrderProvider();
+        for (Game g : new Game[] {original.getGame(), copy}) {
+            for (Player p : g.getAllPlayers()) {
+                if (p.isAlive()) greedy.issueOrders(g, p);
+            }
+            g.executeAllMoveOrders();
+            g.executeAllAttackOrders();
+            g.clearAllOrders();
+            g.endTurn();
+        }
+        assert original.getGame().getMapState().equals(copy.getMapState())
+                : "Restored game should continue exactly like the original";
+    }
+
+    private static void testAsyncWriteAndRead() throws Exception {
+        Game game = playedGame();
+        Path dir = Files.createTempDirectory("risc-snap");
+        Path file = dir.resolve("room.snap");
+        try (SnapshotWriter writer = new SnapshotWriter()) {
+            writer.writeAsync(game.getSnapshot(), file).get();
+        }
+        Game restored = SnapshotReader.read(file, null);
+        assertSameState(game.getSnapshot(), restored.getSnapshot());
+        assert !Files.exists(dir.resolve("room.snap.tmp")) : "Temporary file should be moved into place";
+        Files.delete(file);
+        Files.delete(dir);
+    }
+
+    private static void testRestoredRoomsShareTopology() throws IOException {
+        Game standard = playedGame();
+        // Normally already cached by MapBuilder; interned again in case another test cleared the cache
+        MapTopology map = MapFile.intern(standard.getRoom().getTopology());
+        ByteBuffer encoded = SnapshotWriter.encode(standard.getSnapshot());
+        Game first = SnapshotReader.decode(encoded.duplicate(), null);
+        Game second = SnapshotReader.decode(encoded.duplicate(), null);
+        assert first.getRoom().getTopology() == second.getRoom().getTopology()
+                : "Rooms restored on the same map should share one topology";
+        assert first.getRoom().getTopology() == map : "and it should be the built-in map the room was played on";
+
+        Game generated = new Game(null, 5L);
+        generated.setUpMap(MapBuilder.generateMap(5L, 40));
+        generated.initPlayers(4);
+        generated.publishSnapshot("test");
+        MapTopology laid = generated.getRoom().getTopology();
+        assert laid.hasLayout();
+        MapTopology restored = SnapshotReader.decode(SnapshotWriter.encode(generated.getSnapshot()), null)
+                .getRoom().getTopology();
+        assert restored.hasLayout() : "The generator's layout should survive a restart";
+        for (int i = 0; i < laid.getTerritoryCount(); i++) {
+            assert restored.getX(i) == laid.getX(i) && restored.getY(i) == laid.getY(i) : "Territory " + i + " moved";
+        }
+    }
+
+    private static void testRejectsCorruptInput() {
+        ByteBuffer full = SnapshotWriter.encode(playedGame().getSnapshot());
+        ByteBuffer truncated = ByteBuffer.allocate(full.remaining() / 2);
+        for (int i = 0; i < truncated.capacity(); i++) {
+            truncated.put(full.get(i));
+        }
+        truncated.flip();
+        boolean rejected = false;
+        try {
+            SnapshotReader.decode(truncated, null);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected : "Truncated snapshot should be rejected";
+
+        rejected = false;
+        try {
+            SnapshotReader.decode(ByteBuffer.wrap(new byte[] {1, 2, 3, 4, 5, 6, 7, 8}), null);
+        } catch (IOException e) {
+            rejected = true;
+        }
+        assert rejected : "Wrong magic should be rejected";
+    }
+}
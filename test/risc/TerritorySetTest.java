@@ -0,0 +1,93 @@
+package risc;
+
+public class TerritorySetTest {
+    public static void main(String[] args) {
+        testAddRemoveContains();
+        testSwapRemoveKeepsIndex();
+        testTerritoriesWithoutId();
+        testIdCollisionAcrossMaps();
+        testPlayerCounts();
+
+        System.out.println("All TerritorySetTest tests passed!");
+    }
+
+    private static Territory territory(String name, int id) {
+        Territory t = new Territory(name);
+        t.setId(id);
+        return t;
+    }
+
+    private static void testAddRemoveContains() {
+        TerritorySet set = new TerritorySet();
+        Territory a = territory("A", 0);
+        Territory b = territory("B", 40);
+
+        assert set.add(a) : "First add should change the set";
+        assert !set.add(a) : "Duplicate add should be ignored";
+        set.add(b);
+        assert set.size() == 2 : "Set should hold two territories";
+        assert set.contains(a) && set.contains(b) : "Both territories should be members";
+        assert set.removeTerritory(a) : "Removing a member should change the set";
+        assert !set.removeTerritory(a) : "Removing twice should be a no-op";
+        assert !set.contains(a) && set.contains(b) : "Only B should remain";
+        assert set.size() == 1 : "Size should follow removals";
+    }
+
+    private static void testSwapRemoveKeepsIndex() {
+        TerritorySet set = new TerritorySet();
+        Territory[] ts = new Territory[20];
+        for (int i = 0; i < ts.length; i++) {
+            ts[i] = territory("T" + i, i);
+            set.add(ts[i]);
+        }
+        for (int i = 0; i < ts.length; i += 3) {
+            set.removeTerritory(ts[i]);
+        }
+        for (int i = 0; i < ts.length; i++) {
+            boolean expected = i % 3 != 0;
+            assert set.contains(ts[i]) == expected : "Membership wrong for T" + i;
+            if (expected) {
+                assert set.get(set.indexOf(ts[i])) == ts[i] : "Index should point at T" + i;
+            }
+        }
+    }
+
+    private static void testTerritoriesWithoutId() {
+        TerritorySet set = new TerritorySet();
+        Territory x = new Territory("X");
+        Territory y = new Territory("Y");
+        set.add(x);
+        set.add(y);
+        assert set.contains(x) && set.contains(y) : "Territories without an id should still be tracked";
+        set.removeTerritory(x);
+        assert !set.contains(x) && set.get(0) == y : "Y should move into the freed slot";
+    }
+
+    private static void testIdCollisionAcrossMaps() {
+        TerritorySet set = new TerritorySet();
+        Territory a = territory("A", 3);
+        Territory other = territory("Other", 3);
+        set.add(a);
+        assert !set.contains(other) : "Equal id from another map is a different territory";
+        set.add(other);
+        assert set.contains(a) && set.contains(other) : "Both should be tracked";
+        set.removeTerritory(a);
+        assert set.contains(other) && !set.contains(a) : "Removing one must not drop the other";
+    }
+
+    private static void testPlayerCounts() {
+        Game game = new Game(null, 3L);
+        game.setUpMap(3);
+        game.initPlayers(3);
+        Player p0 = game.getPlayer(0);
+        Player p1 = game.getPlayer(1);
+        Territory t = p1.getTerritories().get(0);
+        int before0 = p0.getTerritoryCount();
+        int before1 = p1.getTerritoryCount();
+
+        p1.removeTerritory(t);
+        p0.addTerritory(t);
+        assert p0.getTerritoryCount() == before0 + 1 && p1.getTerritoryCount() == before1 - 1 : "Counts should follow a conquest";
+        assert p0.ownsTerritory(t) && !p1.ownsTerritory(t) : "Ownership should follow a conquest";
+    }
+}
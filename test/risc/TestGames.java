@@ -0,0 +1,41 @@
+package risc;
+
+/**
+ * Game fixtures shared by the tests, on the built-in maps where every territory has size 1.
+ *
+ * Two players: Player1 owns A, B, C, D and Player2 owns E, F, G, H.
+ *   A: B C   B: A D E   C: A F G   D: B H   E: B F H   F: C E G   G: C F H   H: D E G
+ * Three players: Player1 owns A, B; Player2 owns C, D; Player3 owns E, F.
+ *   A: B C   B: A D   C: A D E   D: B C F   E: C F   F: D E
+ */
+final class TestGames {
+    private TestGames() {}
+
+    /**
+     * A game with the given seed on the built-in map for players, all of them seated.
+     */
+    static Game newGame(long seed, int players) {
+        return newGame(seed, players, players);
+    }
+
+    /**
+     * A game with the given seed on the built-in map for mapPlayers, with players seated.
+     */
+    static Game newGame(long seed, int mapPlayers, int players) {
+        Game game = new Game(null, seed);
+        game.setUpMap(mapPlayers);
+        game.initPlayers(players);
+        return game;
+    }
+
+    /**
+     * Adds units units of level to every territory, owned by its owner.
+     */
+    static void garrisonAll(Game game, int level, int units) {
+        for (Player p : game.getAllPlayers()) {
+            for (Territory t : p.getTerritories()) {
+                t.addUnits(p.getId(), level, units);
+            }
+        }
+    }
+}
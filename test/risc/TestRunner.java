@@ -50,10 +50,33 @@ public class TestRunner {
         testClasses.add(AttackOrderTest.class);
         testClasses.add(ClientHandlerTest.class);
         testClasses.add(ClientTerritoryDataTest.class);
+        testClasses.add(CombatAggregateTest.class);
+        testClasses.add(CombatEngineTest.class);
+        testClasses.add(CombatOddsTest.class);
         testClasses.add(DeepSeekChatSampleTest.class);
         testClasses.add(DeepSeekClientTest.class);
         testClasses.add(DiceRollerTest.class);
         testClasses.add(GameTest.class);
+        testClasses.add(GameRandomTest.class);
+        testClasses.add(GameSnapshotTest.class);
+        testClasses.add(MapStateWriterTest.class);
+        testClasses.add(TerritorySetTest.class);
+        testClasses.add(AllianceMatrixTest.class);
+        testClasses.add(ProductionStageTest.class);
+        testClasses.add(SimulationTest.class);
+        testClasses.add(SnapshotFormatTest.class);
+        testClasses.add(OrderLogTest.class);
+        testClasses.add(ReplayEngineTest.class);
+        testClasses.add(MapGeneratorTest.class);
+        testClasses.add(MapFileTest.class);
+        testClasses.add(RoomStateTest.class);
+        testClasses.add(OrderBufferTest.class);
+        testClasses.add(OrderValidatorTest.class);
+        testClasses.add(ReservationLedgerTest.class);
+        testClasses.add(RulesetTest.class);
+        testClasses.add(PlayerStatusTest.class);
+        testClasses.add(EventBusTest.class);
+        testClasses.add(PathCostTest.class);
         testClasses.add(GlobalServerTest.class);
         testClasses.add(MapBuilderTest.class);
         testClasses.add(MapPanelTest.class);